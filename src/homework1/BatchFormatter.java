@@ -0,0 +1,160 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A BatchFormatter computes directions for many Routes at once, spreading
+ * the work over the threads of a work-stealing ForkJoinPool. The result for
+ * the i-th route is always the i-th element of the returned list, whatever
+ * thread computed it.
+ * <p>
+ * The batch is split in halves recursively down to small ranges of routes;
+ * idle threads steal the pending halves of busy ones, so long and short
+ * routes balance out across the pool.
+ * <p>
+ * The RouteFormatter is shared by all the threads, so it must keep no
+ * state between calls, as WalkingRouteFormatter and DrivingRouteFormatter
+ * do not. BatchFormatters are immutable.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   formatter : RouteFormatter   // formats the directions of each route
+ *   pool : ForkJoinPool          // the threads that do the work
+ * </pre>
+ **/
+public class BatchFormatter {
+
+	// Ranges of at most this many routes are formatted by a single task.
+	private static final int THRESHOLD = 16;
+
+	private final RouteFormatter formatter;
+	private final ForkJoinPool pool;
+
+	// Abstract Function:
+	// formatter = this.formatter, pool = this.pool
+
+	// Representation invariant:
+	// formatter != null && pool != null
+
+
+	/**
+	 * Constructs a BatchFormatter that uses the common ForkJoinPool.
+	 * @requires formatter != null
+	 * @effects constructs a BatchFormatter with this.formatter = formatter
+	 *          and pool = ForkJoinPool.commonPool().
+	 **/
+	public BatchFormatter(RouteFormatter formatter) {
+		this(formatter, ForkJoinPool.commonPool());
+	}
+
+
+	/**
+	 * Constructs a BatchFormatter.
+	 * @requires formatter != null && pool != null
+	 * @effects constructs a BatchFormatter with this.formatter = formatter
+	 *          and this.pool = pool.
+	 **/
+	public BatchFormatter(RouteFormatter formatter, ForkJoinPool pool) {
+		if (formatter == null || pool == null)
+			throw new NullPointerException();
+		this.formatter = formatter;
+		this.pool = pool;
+	}
+
+
+	/**
+	 * Computes directions for a list of routes.
+	 * @requires routes != null && headings != null &&
+	 *           headings.length = routes.size() && no route is null &&
+	 *           0 <= headings[i] < 360 for all i
+	 * @return a list d such that d.size() = routes.size() and d.get(i) =
+	 *         formatter.computeDirections(routes.get(i), headings[i]).
+	 **/
+	public List<String> computeDirections(List<Route> routes, double[] headings) {
+		if (headings.length != routes.size())
+			throw new IllegalArgumentException("one heading per route is required");
+		Route[] batch = routes.toArray(new Route[routes.size()]);
+		return format(batch, Arrays.copyOf(headings, headings.length));
+	}
+
+
+	/**
+	 * Computes directions for a list of routes, each one starting in the
+	 * heading computed for it by heading, such as Route::getStartHeading.
+	 * @requires routes != null && heading != null && no route is null &&
+	 *           0 <= heading(r) < 360 for all routes r
+	 * @return a list d such that d.size() = routes.size() and d.get(i) =
+	 *         formatter.computeDirections(routes.get(i),
+	 *                                     heading(routes.get(i))).
+	 **/
+	public List<String> computeDirections(List<Route> routes, ToDoubleFunction<Route> heading) {
+		Route[] batch = routes.toArray(new Route[routes.size()]);
+		double[] headings = new double[batch.length];
+		for (int i = 0; i < batch.length; i++)
+			headings[i] = heading.applyAsDouble(batch[i]);
+		return format(batch, headings);
+	}
+
+
+	/**
+	 * Computes directions for a stream of routes. The stream is consumed
+	 * before any directions are computed.
+	 * @requires routes != null && heading != null && no route is null &&
+	 *           0 <= heading(r) < 360 for all routes r
+	 * @return the directions for the routes of the stream, in encounter
+	 *         order, as computeDirections(List, ToDoubleFunction) computes
+	 *         them.
+	 **/
+	public List<String> computeDirections(Stream<Route> routes, ToDoubleFunction<Route> heading) {
+		return computeDirections(routes.collect(Collectors.toList()), heading);
+	}
+
+
+	private List<String> format(Route[] routes, double[] headings) {
+		String[] directions = new String[routes.length];
+		if (routes.length > 0)
+			pool.invoke(new FormatTask(routes, headings, directions, 0, routes.length));
+		return new ArrayList<String>(Arrays.asList(directions));
+	}
+
+
+	/**
+	 * A FormatTask formats the routes of a range of indexes, splitting the
+	 * range in halves while it is larger than THRESHOLD.
+	 */
+	private final class FormatTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Route[] routes;
+		private final double[] headings;
+		private final String[] directions;
+		private final int from, to;
+
+		FormatTask(Route[] routes, double[] headings, String[] directions, int from, int to) {
+			this.routes = routes;
+			this.headings = headings;
+			this.directions = directions;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from <= THRESHOLD) {
+				for (int i = from; i < to; i++)
+					directions[i] = formatter.computeDirections(routes[i], headings[i]);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new FormatTask(routes, headings, directions, from, mid),
+					new FormatTask(routes, headings, directions, mid, to));
+		}
+	}
+}
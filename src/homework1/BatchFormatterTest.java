@@ -0,0 +1,83 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchFormatterTest {
+
+	private GeoSegment[] segments = ExampleGeoSegments.segments;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// Builds count routes of different lengths along the example loop.
+	private List<Route> routes(int count) {
+		// 0 -> 1 -> 2 -> 3 -> 4 -> 5 -> 6 -> 7 -> 8 -> 9 -> 10 -> 11 -> 0
+		int[] loop = {0, 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12};
+		List<Route> routes = new ArrayList<Route>(count);
+		for (int r = 0; r < count; r++) {
+			int start = r % loop.length;
+			Route route = new Route(segments[loop[start]]);
+			for (int i = 1; i <= r % 37; i++)
+				route = route.addSegment(segments[loop[(start + i) % loop.length]]);
+			routes.add(route);
+		}
+		return routes;
+	}
+
+
+	private boolean matches(RouteFormatter formatter, List<Route> routes, List<String> directions) {
+		if (directions.size() != routes.size())
+			return false;
+		for (int i = 0; i < routes.size(); i++) {
+			Route route = routes.get(i);
+			if (!directions.get(i).equals(formatter.computeDirections(route, route.getStartHeading())))
+				return false;
+		}
+		return true;
+	}
+
+
+	public void test() {
+		List<Route> routes = routes(1000);
+		RouteFormatter walking = new WalkingRouteFormatter();
+		RouteFormatter driving = new DrivingRouteFormatter();
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		show("computeDirections()");
+		show("Walking directions come back in input order",
+			matches(walking, routes, new BatchFormatter(walking).computeDirections(routes, Route::getStartHeading)));
+		show("Driving directions come back in input order on a pool of 4",
+			matches(driving, routes, new BatchFormatter(driving, pool).computeDirections(routes, Route::getStartHeading)));
+		double[] headings = new double[routes.size()];
+		for (int i = 0; i < headings.length; i++)
+			headings[i] = routes.get(i).getStartHeading();
+		show("Headings given as an array",
+			matches(driving, routes, new BatchFormatter(driving, pool).computeDirections(routes, headings)));
+		show("Routes given as a stream",
+			matches(walking, routes, new BatchFormatter(walking, pool).computeDirections(routes.stream(), Route::getStartHeading)));
+		show("An empty batch has no directions",
+			new BatchFormatter(walking).computeDirections(new ArrayList<Route>(), new double[0]).isEmpty());
+		pool.shutdown();
+	}
+
+
+	public static void main(String[] args) {
+		BatchFormatterTest batchTest = new BatchFormatterTest();
+		batchTest.test();
+	}
+}
@@ -0,0 +1,292 @@
+package homework1;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Benchmark measures the hot paths of the geographic model and the route
+ * formatters on synthetic routes of 10 to 100,000 segments, and prints a
+ * table of the results.
+ * <p>
+ * Every benchmark runs one operation over a route of a given size, first
+ * for a warm-up period so that the JIT compiles it, then for a measured
+ * period. For each benchmark and size the table shows the time per
+ * operation and per segment, the bytes allocated per operation and the
+ * allocation rate, as seen by the thread that runs the operation, and the
+ * number of garbage collections and the time they took during the
+ * measurement.
+ * <p>
+ * Usage: <tt>java homework1.Benchmark [name ...]</tt> runs the benchmarks
+ * whose names contain one of the arguments, or all of them if there are
+ * none. The system property <tt>homework1.benchmark.sizes</tt> sets the
+ * route sizes (a comma-separated list, by default
+ * <tt>10,100,1000,10000,100000</tt>) and
+ * <tt>homework1.benchmark.millis</tt> the length of each measurement (by
+ * default 1000; warm-up takes half as long). Run it with
+ * <tt>-Dhomework1.math=fast</tt> to measure the FAST MathMode. The
+ * GeoKernels benchmarks compute the same pairs as the GeoPoint ones; they
+ * use the vector backend when run with
+ * <tt>--add-modules jdk.incubator.vector</tt>.
+ **/
+public class Benchmark {
+
+	/**
+	 * An Operation is the code under measurement. It returns a number
+	 * computed from its result so that the JIT cannot drop the work.
+	 */
+	private interface Operation {
+		double run();
+	}
+
+
+	/**
+	 * A Case is one benchmark: it prepares an Operation for a route size.
+	 */
+	private interface Case {
+		Operation prepare(int size);
+	}
+
+
+	private static final int FEATURE_LENGTH = 8;	// segments per street
+
+	private final List<String> names = new ArrayList<String>();
+	private final List<Case> cases = new ArrayList<Case>();
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private final long millis;
+	private double sink;
+
+
+	private Benchmark(long millis) {
+		this.millis = millis;
+		final RouteGenerator generator = new RouteGenerator(1);
+
+		add("GeoPoint.distanceTo", size -> {
+			GeoPoint[] points = points(generator.segments(size, FEATURE_LENGTH));
+			return () -> {
+				double sum = 0;
+				for (int i = 1; i < points.length; i++)
+					sum += points[i - 1].distanceTo(points[i]);
+				return sum;
+			};
+		});
+		add("GeoPoint.headingTo", size -> {
+			GeoPoint[] points = points(generator.segments(size, FEATURE_LENGTH));
+			return () -> {
+				double sum = 0;
+				for (int i = 1; i < points.length; i++)
+					sum += points[i - 1].headingTo(points[i]);
+				return sum;
+			};
+		});
+		for (StandardDistanceModel model : StandardDistanceModel.values()) {
+			add("DistanceModel." + model + ".distance", size -> {
+				int[][] columns = columns(points(generator.segments(size, FEATURE_LENGTH)));
+				return () -> {
+					double sum = 0;
+					for (int i = 0; i < size; i++)
+						sum += model.distance(columns[0][i], columns[1][i], columns[2][i], columns[3][i]);
+					return sum;
+				};
+			});
+		}
+		add("GeoKernels.distances", size -> {
+			int[][] columns = columns(points(generator.segments(size, FEATURE_LENGTH)));
+			double[] out = new double[size];
+			return () -> {
+				GeoKernels.distances(columns[0], columns[1], columns[2], columns[3], out, size);
+				return out[size - 1];
+			};
+		});
+		add("GeoKernels.headings", size -> {
+			int[][] columns = columns(points(generator.segments(size, FEATURE_LENGTH)));
+			double[] out = new double[size];
+			return () -> {
+				GeoKernels.headings(columns[0], columns[1], columns[2], columns[3], out, size);
+				return out[size - 1];
+			};
+		});
+		add("GeoFeature.addSegment", size -> {
+			GeoSegment[] segments = generator.segments(size, size);
+			return () -> {
+				GeoFeature feature = new GeoFeature(segments[0]);
+				for (int i = 1; i < segments.length; i++)
+					feature = feature.addSegment(segments[i]);
+				return feature.getLength();
+			};
+		});
+		add("Route.addSegment", size -> {
+			GeoSegment[] segments = generator.segments(size, FEATURE_LENGTH);
+			return () -> RouteGenerator.toRoute(segments).getLength();
+		});
+		add("Route.hashCode", size -> {
+			Route route = generator.route(size, FEATURE_LENGTH);
+			return () -> route.hashCode();
+		});
+		add("Route.equals", size -> {
+			Route route = generator.route(size, FEATURE_LENGTH);
+			Route copy = generator.route(size, FEATURE_LENGTH);
+			Route other = new RouteGenerator(2).route(size, FEATURE_LENGTH);
+			return () -> (route.equals(copy) ? 1 : 0) + (route.equals(other) ? 1 : 0);
+		});
+		add("DirectionsCache.computeDirections", size -> {
+			// a hit on an equal route that was built separately
+			RouteFormatter formatter = new DrivingRouteFormatter();
+			DirectionsCache cache = new DirectionsCache(1L << 30);
+			Route route = generator.route(size, FEATURE_LENGTH);
+			cache.computeDirections(formatter, route, route.getStartHeading());
+			Route copy = generator.route(size, FEATURE_LENGTH);
+			return () -> cache.computeDirections(formatter, copy, copy.getStartHeading()).length();
+		});
+		add("RouteCodec.encode", size -> {
+			Route route = generator.route(size, FEATURE_LENGTH);
+			return () -> RouteCodec.encode(route).length;
+		});
+		add("RouteCodec.decode", size -> {
+			byte[] bytes = RouteCodec.encode(generator.route(size, FEATURE_LENGTH));
+			return () -> RouteCodec.decode(bytes).getLength();
+		});
+		add("WalkingRouteFormatter.computeDirections", size -> {
+			Route route = generator.route(size, FEATURE_LENGTH);
+			RouteFormatter formatter = new WalkingRouteFormatter();
+			return () -> formatter.computeDirections(route, route.getStartHeading()).length();
+		});
+		add("DrivingRouteFormatter.computeDirections", size -> {
+			Route route = generator.route(size, FEATURE_LENGTH);
+			RouteFormatter formatter = new DrivingRouteFormatter();
+			return () -> formatter.computeDirections(route, route.getStartHeading()).length();
+		});
+	}
+
+
+	private void add(String name, Case benchmark) {
+		names.add(name);
+		cases.add(benchmark);
+	}
+
+
+	private static GeoPoint[] points(GeoSegment[] segments) {
+		GeoPoint[] points = new GeoPoint[segments.length + 1];
+		points[0] = segments[0].getP1();
+		for (int i = 0; i < segments.length; i++)
+			points[i + 1] = segments[i].getP2();
+		return points;
+	}
+
+
+	// The coordinates of the pairs (points[i], points[i+1]) as the columns
+	// lat1, lon1, lat2, lon2, for GeoKernels.
+	private static int[][] columns(GeoPoint[] points) {
+		int n = points.length - 1;
+		int[][] columns = new int[4][n];
+		for (int i = 0; i < n; i++) {
+			columns[0][i] = points[i].getLatitude();
+			columns[1][i] = points[i].getLongitude();
+			columns[2][i] = points[i + 1].getLatitude();
+			columns[3][i] = points[i + 1].getLongitude();
+		}
+		return columns;
+	}
+
+
+	/**
+	 * Runs op repeatedly for the given time.
+	 * @return the number of times op ran.
+	 */
+	private long repeat(Operation op, long nanos) {
+		long count = 0;
+		long deadline = System.nanoTime() + nanos;
+		do {
+			sink += op.run();
+			count++;
+		} while (System.nanoTime() < deadline);
+		return count;
+	}
+
+
+	private long allocatedBytes() {
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+			if (t.isThreadAllocatedMemoryEnabled())
+				return t.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+
+	private static long[] gcTotals() {
+		long count = 0, time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return new long[] {count, time};
+	}
+
+
+	private void run(String name, Case benchmark, int size) {
+		Operation op = benchmark.prepare(size);
+		repeat(op, millis * 500000);		// warm-up
+
+		long[] gcBefore = gcTotals();
+		long bytesBefore = allocatedBytes();
+		long start = System.nanoTime();
+		long count = repeat(op, millis * 1000000);
+		long elapsed = System.nanoTime() - start;
+		long bytesAfter = allocatedBytes();
+		long[] gcAfter = gcTotals();
+
+		double nsPerOp = (double) elapsed / count;
+		String bytesPerOp = "n/a", rate = "n/a";
+		if (bytesBefore >= 0) {
+			double bytes = (double) (bytesAfter - bytesBefore) / count;
+			bytesPerOp = String.format(Locale.ROOT, "%.0f", bytes);
+			rate = String.format(Locale.ROOT, "%.1f", bytes / nsPerOp * 1e9 / (1 << 20));
+		}
+		System.out.println(String.format(Locale.ROOT, "%-40s %7d %14.1f %10.2f %14s %9s %5d %7d",
+				name, size, nsPerOp, nsPerOp / size, bytesPerOp, rate,
+				gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]));
+	}
+
+
+	private static int[] sizes() {
+		String[] parts = System.getProperty("homework1.benchmark.sizes", "10,100,1000,10000,100000").split(",");
+		int[] sizes = new int[parts.length];
+		for (int i = 0; i < parts.length; i++)
+			sizes[i] = Integer.parseInt(parts[i].trim());
+		return sizes;
+	}
+
+
+	private static boolean selected(String name, String[] filters) {
+		if (filters.length == 0)
+			return true;
+		for (String filter : filters) {
+			if (name.contains(filter))
+				return true;
+		}
+		return false;
+	}
+
+
+	public static void main(String[] args) {
+		Benchmark benchmark = new Benchmark(Long.getLong("homework1.benchmark.millis", 1000));
+		System.out.println("GeoKernels: " + (GeoKernels.isVectorized() ? "vector" : "scalar")
+				+ ", MathMode: " + MathMode.getDefault());
+		System.out.println(String.format(Locale.ROOT, "%-40s %7s %14s %10s %14s %9s %5s %7s",
+				"Benchmark", "size", "ns/op", "ns/segment", "B/op", "MB/s", "GCs", "GC ms"));
+		int[] sizes = sizes();
+		for (int i = 0; i < benchmark.names.size(); i++) {
+			String name = benchmark.names.get(i);
+			if (!selected(name, args))
+				continue;
+			for (int size : sizes)
+				benchmark.run(name, benchmark.cases.get(i), size);
+		}
+		if (benchmark.sink == 42)		// keeps the results alive
+			System.out.println();
+	}
+}
@@ -0,0 +1,666 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A ContractionHierarchy is an index over a RoadGraph that answers
+ * shortest-route queries much faster than a search over the graph itself.
+ * ContractionHierarchies are immutable and may be queried by any number of
+ * threads at once.
+ * <p>
+ * Preprocessing contracts the nodes of the graph one by one, from the least
+ * to the most important. Contracting a node v removes it from the graph
+ * and, for every pair of edges u->v->w whose path is the only shortest one
+ * from u to w, adds a shortcut edge u->w. The rank of a node is the order in
+ * which it was contracted. A query then runs Dijkstra's algorithm from both
+ * ends at once, each side only following edges towards higher ranks, which
+ * settles only a small number of nodes. The shortcuts of the path found are
+ * unpacked back into the GeoSegments of the graph, so the result is an
+ * ordinary Route.
+ * <p>
+ * Preprocessing runs in rounds and uses all cores: in each round the
+ * priorities of the remaining nodes are computed in parallel, a set of
+ * nodes no two of which are adjacent is chosen, and the shortcuts of all of
+ * them are computed in parallel before being added to the graph.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   graph : RoadGraph     // the graph this indexes
+ * </pre>
+ **/
+public class ContractionHierarchy {
+
+	// Witness searches give up after settling this many nodes, in which case
+	// a shortcut is added even if it might not be needed. Searches that only
+	// estimate the priority of a node use the smaller limit.
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+	private static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+	private final RoadGraph graph;
+	private final int[] rank;
+
+	// Edges of the hierarchy: the edges of graph followed by the shortcuts.
+	// An original edge e has first[e] = -1 and second[e] = its id in graph;
+	// a shortcut is made of edge first[e] followed by edge second[e].
+	private final int[] from;
+	private final int[] to;
+	private final int[] first;
+	private final int[] second;
+
+	// Upward edges for the forward search: edges e leaving v with
+	// rank[to[e]] > rank[v] are upEdges[upOffsets[v] .. upOffsets[v+1]).
+	private final int[] upOffsets;
+	private final int[] upEdges;
+	private final double[] upWeights;
+
+	// Upward edges for the backward search: edges e entering v with
+	// rank[from[e]] > rank[v] are downEdges[downOffsets[v] .. downOffsets[v+1]).
+	private final int[] downOffsets;
+	private final int[] downEdges;
+	private final double[] downWeights;
+
+	// Query state, lent to one query at a time and reused across queries.
+	private final StatePool<Query> queries = new StatePool<Query>(Query::new);
+
+	// Abstract Function:
+	// graph = this.graph; the remaining fields are an index over it.
+
+	// Representation invariant:
+	// rank is a permutation of 0 .. graph.nodeCount()-1 &&
+	// from, to, first, second have the same length &&
+	// for every shortcut e: from[e] = from[first[e]] && to[first[e]] =
+	// from[second[e]] && to[second[e]] = to[e] &&
+	// every up edge goes to a higher rank, every down edge comes from one.
+
+	private void checkRep() {
+		assert rank.length == graph.nodeCount() : "one rank per node";
+		assert to.length == from.length && first.length == from.length
+				&& second.length == from.length : "edge columns of different lengths";
+		assert upOffsets.length == rank.length + 1 && downOffsets.length == rank.length + 1
+				: "one offset per node, plus one";
+	}
+
+
+	/**
+	 * Constructs a ContractionHierarchy over a graph, using all available
+	 * cores.
+	 * @requires graph != null
+	 * @effects constructs a ContractionHierarchy with this.graph = graph.
+	 **/
+	public ContractionHierarchy(RoadGraph graph) {
+		this.graph = graph;
+		Contractor c = new Contractor(graph);
+		c.contractAll();
+		this.rank = c.rank;
+		this.from = Arrays.copyOf(c.from, c.m);
+		this.to = Arrays.copyOf(c.to, c.m);
+		this.first = Arrays.copyOf(c.first, c.m);
+		this.second = Arrays.copyOf(c.second, c.m);
+
+		int n = graph.nodeCount();
+		upOffsets = new int[n + 1];
+		downOffsets = new int[n + 1];
+		for (int e = 0; e < c.m; e++) {
+			if (rank[to[e]] > rank[from[e]])
+				upOffsets[from[e] + 1]++;
+			else if (rank[from[e]] > rank[to[e]])
+				downOffsets[to[e] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			upOffsets[v + 1] += upOffsets[v];
+			downOffsets[v + 1] += downOffsets[v];
+		}
+		upEdges = new int[upOffsets[n]];
+		upWeights = new double[upOffsets[n]];
+		downEdges = new int[downOffsets[n]];
+		downWeights = new double[downOffsets[n]];
+		int[] nextUp = Arrays.copyOf(upOffsets, n);
+		int[] nextDown = Arrays.copyOf(downOffsets, n);
+		for (int e = 0; e < c.m; e++) {
+			if (rank[to[e]] > rank[from[e]]) {
+				int i = nextUp[from[e]]++;
+				upEdges[i] = e;
+				upWeights[i] = c.weight[e];
+			} else if (rank[from[e]] > rank[to[e]]) {
+				int i = nextDown[to[e]]++;
+				downEdges[i] = e;
+				downWeights[i] = c.weight[e];
+			}
+		}
+		checkRep();
+	}
+
+
+	/**
+	 * Returns the number of shortcuts added by preprocessing.
+	 * @return the number of shortcuts added by preprocessing.
+	 **/
+	public int shortcutCount() {
+		return from.length - graph.edgeCount();
+	}
+
+
+	/**
+	 * Finds a shortest Route between two points.
+	 * @requires from != null && to != null
+	 * @return a Route as described by graph.shortestRoute(from, to), or
+	 *         null in the cases where that returns null.
+	 **/
+	public Route shortestRoute(GeoPoint from, GeoPoint to) {
+		int source = graph.nodeOf(from);
+		int target = graph.nodeOf(to);
+		if (source < 0 || target < 0 || source == target)
+			return null;
+		Query query = queries.borrow();
+		try {
+			if (!query.run(source, target))
+				return null;
+			return graph.toRoute(query.path());
+		} finally {
+			queries.release(query);
+		}
+	}
+
+
+	/**
+	 * Computes the length of a shortest Route between two points.
+	 * @requires from != null && to != null
+	 * @return shortestRoute(from, to).length, 0 if from equals to, or
+	 *         Double.POSITIVE_INFINITY if there is no such Route.
+	 **/
+	public double distance(GeoPoint from, GeoPoint to) {
+		int source = graph.nodeOf(from);
+		int target = graph.nodeOf(to);
+		if (source < 0 || target < 0)
+			return Double.POSITIVE_INFINITY;
+		if (source == target)
+			return 0;
+		Query query = queries.borrow();
+		try {
+			return query.run(source, target) ? query.best : Double.POSITIVE_INFINITY;
+		} finally {
+			queries.release(query);
+		}
+	}
+
+
+	/**
+	 * Unpacks an edge of the hierarchy into edges of graph.
+	 * @modifies path
+	 * @effects appends the edges of graph that e stands for to path, in
+	 *          order.
+	 **/
+	private void unpack(int e, IntList path) {
+		IntList stack = new IntList();
+		stack.add(e);
+		while (stack.size > 0) {
+			int top = stack.items[--stack.size];
+			if (first[top] < 0) {
+				path.add(second[top]);
+			} else {
+				stack.add(second[top]);
+				stack.add(first[top]);
+			}
+		}
+	}
+
+
+	/**
+	 * A Query holds the state of a bidirectional search over the hierarchy.
+	 */
+	private final class Query {
+
+		private final double[] distF = new double[rank.length];
+		private final double[] distB = new double[rank.length];
+		private final int[] parentF = new int[rank.length];
+		private final int[] parentB = new int[rank.length];
+		private final int[] seenF = new int[rank.length];
+		private final int[] seenB = new int[rank.length];
+		private final MinHeap queueF = new MinHeap();
+		private final MinHeap queueB = new MinHeap();
+		private int generation = 0;
+		private double best;
+		private int meet;
+
+		/**
+		 * Searches from source and target until the shortest path between
+		 * them is known.
+		 * @return whether target can be reached from source.
+		 */
+		boolean run(int source, int target) {
+			if (++generation == 0) {
+				Arrays.fill(seenF, 0);
+				Arrays.fill(seenB, 0);
+				generation = 1;
+			}
+			queueF.clear();
+			queueB.clear();
+			best = Double.POSITIVE_INFINITY;
+			meet = -1;
+			seenF[source] = generation;
+			distF[source] = 0;
+			parentF[source] = -1;
+			queueF.add(0, source);
+			seenB[target] = generation;
+			distB[target] = 0;
+			parentB[target] = -1;
+			queueB.add(0, target);
+
+			while (true) {
+				boolean forward = !queueF.isEmpty() && queueF.peekKey() < best;
+				boolean backward = !queueB.isEmpty() && queueB.peekKey() < best;
+				if (!forward && !backward)
+					break;
+				if (forward && backward)
+					forward = queueF.peekKey() <= queueB.peekKey();
+				if (forward)
+					step(queueF, distF, parentF, seenF, distB, seenB,
+							upOffsets, upEdges, upWeights, to,
+							downOffsets, downEdges, downWeights, from);
+				else
+					step(queueB, distB, parentB, seenB, distF, seenF,
+							downOffsets, downEdges, downWeights, from,
+							upOffsets, upEdges, upWeights, to);
+			}
+			return meet >= 0;
+		}
+
+		// Settles the next node of one direction of the search. The edges
+		// followed by that direction are given by offsets, edges, weights
+		// and ends; those given by stallOffsets, stallEdges, stallWeights and
+		// stallEnds come into the node from higher ranks and are only used
+		// to detect that the node was reached by a path that is not
+		// shortest, in which case it is not expanded ("stall on demand").
+		private void step(MinHeap queue, double[] dist, int[] parent, int[] seen,
+				double[] otherDist, int[] otherSeen,
+				int[] offsets, int[] edges, double[] weights, int[] ends,
+				int[] stallOffsets, int[] stallEdges, double[] stallWeights, int[] stallEnds) {
+			double key = queue.peekKey();
+			int v = queue.poll();
+			if (key > dist[v])
+				return;		// stale entry
+			if (otherSeen[v] == generation && key + otherDist[v] < best) {
+				best = key + otherDist[v];
+				meet = v;
+			}
+			for (int i = stallOffsets[v]; i < stallOffsets[v + 1]; i++) {
+				int u = stallEnds[stallEdges[i]];
+				if (seen[u] == generation && dist[u] + stallWeights[i] < key)
+					return;
+			}
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				int w = ends[edges[i]];
+				double d = key + weights[i];
+				if (seen[w] != generation || d < dist[w]) {
+					seen[w] = generation;
+					dist[w] = d;
+					parent[w] = edges[i];
+					queue.add(d, w);
+				}
+			}
+		}
+
+		/**
+		 * Returns the edges of graph on the path found by the last run().
+		 * @requires the last run() returned true
+		 * @return the edges of graph on a shortest path, in order.
+		 */
+		int[] path() {
+			IntList up = new IntList();
+			for (int v = meet; parentF[v] >= 0; v = from[parentF[v]])
+				up.add(parentF[v]);
+			IntList path = new IntList();
+			for (int i = up.size - 1; i >= 0; i--)
+				unpack(up.items[i], path);
+			for (int v = meet; parentB[v] >= 0; v = to[parentB[v]])
+				unpack(parentB[v], path);
+			return Arrays.copyOf(path.items, path.size);
+		}
+	}
+
+
+	/**
+	 * A growable list of ints.
+	 */
+	private static final class IntList {
+		int[] items = new int[8];
+		int size;
+
+		void add(int x) {
+			if (size == items.length)
+				items = Arrays.copyOf(items, size * 2);
+			items[size++] = x;
+		}
+	}
+
+
+	/**
+	 * A Contractor holds the graph while it is being contracted.
+	 */
+	private static final class Contractor {
+
+		final int n;
+		int m;
+		int[] from, to, first, second;
+		double[] weight;
+		final IntList[] out, in;
+		final boolean[] contracted;
+		final int[] rank;
+		final int[] deletedNeighbors;
+		final int[] level;
+		final int[] priority;
+		final boolean[] dirty;
+		final int[] roundOf;
+		private final ThreadLocal<Witness> witnesses = new ThreadLocal<Witness>();
+
+		Contractor(RoadGraph graph) {
+			n = graph.nodeCount();
+			int edges = graph.edgeCount();
+			from = new int[edges];
+			to = new int[edges];
+			first = new int[edges];
+			second = new int[edges];
+			weight = new double[edges];
+			out = new IntList[n];
+			in = new IntList[n];
+			for (int v = 0; v < n; v++) {
+				out[v] = new IntList();
+				in[v] = new IntList();
+			}
+			for (int v = 0; v < n; v++) {
+				for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+					from[e] = v;
+					to[e] = graph.target(e);
+					first[e] = -1;
+					second[e] = e;
+					weight[e] = graph.weight(e);
+					if (to[e] != v) {
+						out[v].add(e);
+						in[to[e]].add(e);
+					}
+				}
+			}
+			m = edges;
+			contracted = new boolean[n];
+			rank = new int[n];
+			deletedNeighbors = new int[n];
+			level = new int[n];
+			priority = new int[n];
+			dirty = new boolean[n];
+			Arrays.fill(dirty, true);
+			roundOf = new int[n];
+			Arrays.fill(roundOf, -1);
+		}
+
+		void contractAll() {
+			int[] remaining = new int[n];
+			for (int v = 0; v < n; v++)
+				remaining[v] = v;
+			int left = n;
+			int order = 0;
+			for (int round = 0; left > 0; round++) {
+				final int[] nodes = Arrays.copyOf(remaining, left);
+
+				IntStream.of(nodes).parallel().filter(v -> dirty[v]).forEach(v -> {
+					priority[v] = 2 * (shortcuts(v, -1, ESTIMATE_SETTLE_LIMIT).size / 2 - degree(v))
+							+ deletedNeighbors[v] + level[v];
+					dirty[v] = false;
+				});
+
+				final int[] selected = IntStream.of(nodes).parallel()
+						.filter(this::isLocalMinimum).toArray();
+				for (int v : selected)
+					roundOf[v] = round;
+
+				final int r = round;
+				IntList[] shortcuts = new IntList[selected.length];
+				IntStream.range(0, selected.length).parallel()
+						.forEach(i -> shortcuts[i] = shortcuts(selected[i], r, WITNESS_SETTLE_LIMIT));
+
+				for (int i = 0; i < selected.length; i++) {
+					int v = selected[i];
+					IntList s = shortcuts[i];
+					for (int j = 0; j < s.size; j += 2)
+						addShortcut(s.items[j], s.items[j + 1]);
+					contracted[v] = true;
+					rank[v] = order++;
+					markNeighbors(v, out[v], to);
+					markNeighbors(v, in[v], from);
+				}
+
+				left = 0;
+				for (int v : nodes) {
+					if (!contracted[v])
+						remaining[left++] = v;
+				}
+			}
+		}
+
+		private int degree(int v) {
+			int d = 0;
+			for (int i = 0; i < out[v].size; i++)
+				if (!contracted[to[out[v].items[i]]])
+					d++;
+			for (int i = 0; i < in[v].size; i++)
+				if (!contracted[from[in[v].items[i]]])
+					d++;
+			return d;
+		}
+
+		// Marks the neighbors of the just contracted v for a new priority,
+		// and drops their edges to contracted nodes.
+		private void markNeighbors(int v, IntList edges, int[] ends) {
+			for (int i = 0; i < edges.size; i++) {
+				int w = ends[edges.items[i]];
+				if (!contracted[w]) {
+					deletedNeighbors[w]++;
+					level[w] = Math.max(level[w], level[v] + 1);
+					dirty[w] = true;
+					prune(out[w], to);
+					prune(in[w], from);
+				}
+			}
+		}
+
+		private void prune(IntList edges, int[] ends) {
+			int kept = 0;
+			for (int i = 0; i < edges.size; i++) {
+				int e = edges.items[i];
+				if (!contracted[ends[e]])
+					edges.items[kept++] = e;
+			}
+			edges.size = kept;
+		}
+
+		private boolean before(int v, int w) {
+			return priority[v] < priority[w] || (priority[v] == priority[w] && v < w);
+		}
+
+		private boolean isLocalMinimum(int v) {
+			for (int i = 0; i < out[v].size; i++) {
+				int w = to[out[v].items[i]];
+				if (!contracted[w] && !before(v, w))
+					return false;
+			}
+			for (int i = 0; i < in[v].size; i++) {
+				int w = from[in[v].items[i]];
+				if (!contracted[w] && !before(v, w))
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Computes the shortcuts needed to contract v. Witness paths avoid
+		 * v, contracted nodes, and the nodes contracted in the same round.
+		 * @return the pairs (in edge, out edge) to be replaced by
+		 *         shortcuts, flattened.
+		 */
+		private IntList shortcuts(int v, int round, int settleLimit) {
+			Witness w = witness();
+			IntList result = new IntList();
+			int[] bestIn = w.lightest(in[v], from, contracted, weight);
+			int[] bestOut = w.lightest(out[v], to, contracted, weight);
+			for (int ei : bestIn) {
+				int u = from[ei];
+				double maxDist = 0;
+				for (int eo : bestOut) {
+					if (to[eo] != u)
+						maxDist = Math.max(maxDist, weight[ei] + weight[eo]);
+				}
+				w.search(this, u, v, round, maxDist, bestOut, settleLimit);
+				for (int eo : bestOut) {
+					int x = to[eo];
+					if (x == u)
+						continue;
+					if (!w.reached(x) || w.dist[x] > weight[ei] + weight[eo]) {
+						result.add(ei);
+						result.add(eo);
+					}
+				}
+			}
+			return result;
+		}
+
+		private Witness witness() {
+			Witness w = witnesses.get();
+			if (w == null) {
+				w = new Witness(n);
+				witnesses.set(w);
+			}
+			return w;
+		}
+
+		private void addShortcut(int ei, int eo) {
+			int u = from[ei], x = to[eo];
+			double d = weight[ei] + weight[eo];
+			for (int i = 0; i < out[u].size; i++) {
+				int e = out[u].items[i];
+				if (to[e] == x && weight[e] <= d)
+					return;
+			}
+			if (m == from.length) {
+				int capacity = Math.max(16, m + (m >> 1));
+				from = Arrays.copyOf(from, capacity);
+				to = Arrays.copyOf(to, capacity);
+				first = Arrays.copyOf(first, capacity);
+				second = Arrays.copyOf(second, capacity);
+				weight = Arrays.copyOf(weight, capacity);
+			}
+			int e = m++;
+			from[e] = u;
+			to[e] = x;
+			first[e] = ei;
+			second[e] = eo;
+			weight[e] = d;
+			out[u].add(e);
+			in[x].add(e);
+		}
+	}
+
+
+	/**
+	 * A Witness holds the state of the local searches of one thread.
+	 */
+	private static final class Witness {
+
+		final double[] dist;
+		private final int[] seen;
+		private final int[] target;
+		private final int[] bestEdge;
+		private final int[] marked;
+		private final MinHeap queue = new MinHeap();
+		private int generation = 0;
+		private int markGeneration = 0;
+
+		Witness(int n) {
+			dist = new double[n];
+			seen = new int[n];
+			target = new int[n];
+			bestEdge = new int[n];
+			marked = new int[n];
+		}
+
+		boolean reached(int v) {
+			return seen[v] == generation;
+		}
+
+		/**
+		 * Returns the lightest of edges to each uncontracted node, where
+		 * the node of edge e is ends[e].
+		 */
+		int[] lightest(IntList edges, int[] ends, boolean[] contracted, double[] weight) {
+			if (++markGeneration == 0) {
+				Arrays.fill(marked, 0);
+				markGeneration = 1;
+			}
+			IntList result = new IntList();
+			for (int i = 0; i < edges.size; i++) {
+				int e = edges.items[i];
+				int x = ends[e];
+				if (contracted[x])
+					continue;
+				if (marked[x] != markGeneration) {
+					marked[x] = markGeneration;
+					bestEdge[x] = result.size;
+					result.add(e);
+				} else if (weight[e] < weight[result.items[bestEdge[x]]]) {
+					result.items[bestEdge[x]] = e;
+				}
+			}
+			return Arrays.copyOf(result.items, result.size);
+		}
+
+		/**
+		 * Runs a Dijkstra search from source that avoids the node avoid
+		 * and the nodes of round, and stops once the ends of all targets
+		 * are settled, past maxDist, or after settling settleLimit nodes.
+		 */
+		void search(Contractor c, int source, int avoid, int round, double maxDist, int[] targets,
+				int settleLimit) {
+			if (++generation == 0) {
+				Arrays.fill(seen, 0);
+				Arrays.fill(target, 0);
+				generation = 1;
+			}
+			int pending = 0;
+			for (int e : targets) {
+				int x = c.to[e];
+				if (x != source && target[x] != generation) {
+					target[x] = generation;
+					pending++;
+				}
+			}
+			queue.clear();
+			seen[source] = generation;
+			dist[source] = 0;
+			queue.add(0, source);
+			int settled = 0;
+			while (pending > 0 && !queue.isEmpty() && settled < settleLimit) {
+				double key = queue.peekKey();
+				int v = queue.poll();
+				if (key > dist[v])
+					continue;
+				if (key > maxDist)
+					break;
+				settled++;
+				if (target[v] == generation)
+					pending--;
+				IntList edges = c.out[v];
+				for (int i = 0; i < edges.size; i++) {
+					int e = edges.items[i];
+					int w = c.to[e];
+					if (w == avoid || c.contracted[w] || (round >= 0 && c.roundOf[w] == round))
+						continue;
+					double d = key + c.weight[e];
+					if (seen[w] != generation || d < dist[w]) {
+						seen[w] = generation;
+						dist[w] = d;
+						queue.add(d, w);
+					}
+				}
+			}
+		}
+	}
+}
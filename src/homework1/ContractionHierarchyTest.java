@@ -0,0 +1,142 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class ContractionHierarchyTest {
+
+	private static final double tolerance = 1e-9;
+	private static final int GRID = 60;		// grid side, in intersections
+	private static final int QUERIES = 500;
+
+	private GeoPoint[][] mGrid;
+	private RoadGraph mGridGraph;
+
+
+	public ContractionHierarchyTest() {
+		// a street grid around the Ziv square with ~100 m blocks, jittered
+		// so that there are few ties between path lengths
+		Random random = new Random(1);
+		mGrid = new GeoPoint[GRID][GRID];
+		for (int i = 0; i < GRID; i++) {
+			for (int j = 0; j < GRID; j++) {
+				mGrid[i][j] = new GeoPoint(32783098 + 900 * i + random.nextInt(300),
+					35014528 + 1070 * j + random.nextInt(300));
+			}
+		}
+		List<GeoSegment> segments = new ArrayList<GeoSegment>();
+		for (int i = 0; i < GRID; i++) {
+			for (int j = 0; j < GRID; j++) {
+				if (j + 1 < GRID)
+					segments.add(new GeoSegment("Street " + i, mGrid[i][j], mGrid[i][j + 1]));
+				if (i + 1 < GRID)
+					segments.add(new GeoSegment("Avenue " + j, mGrid[i][j], mGrid[i + 1][j]));
+			}
+		}
+		mGridGraph = new RoadGraph(segments, true);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static boolean connected(Route r, GeoPoint from, GeoPoint to) {
+		Iterator<GeoSegment> it = r.getGeoSegments();
+		GeoPoint end = from;
+		while (it.hasNext()) {
+			GeoSegment gs = it.next();
+			if (!gs.getP1().equals(end))
+				return false;
+			end = gs.getP2();
+		}
+		return r.getStart().equals(from) && end.equals(to);
+	}
+
+
+	private boolean agreesWithDijkstra(RoadGraph graph, ContractionHierarchy ch,
+			GeoPoint from, GeoPoint to) {
+		int s = graph.nodeOf(from), t = graph.nodeOf(to);
+		RoadGraph.Search dijkstra = graph.search();
+		boolean reached = dijkstra.run(s, t, false);
+		Route route = ch.shortestRoute(from, to);
+		if (!reached)
+			return route == null;
+		return route != null && connected(route, from, to)
+			&& Math.abs(route.getLength() - dijkstra.distance(t)) < tolerance
+			&& Math.abs(ch.distance(from, to) - dijkstra.distance(t)) < tolerance;
+	}
+
+
+	public void test() {
+		show("example segments");
+		GeoPoint[] points = ExampleGeoSegments.points;
+		for (boolean twoWay : new boolean[] {false, true}) {
+			RoadGraph graph = new RoadGraph(Arrays.asList(ExampleGeoSegments.segments), twoWay);
+			ContractionHierarchy ch = new ContractionHierarchy(graph);
+			boolean ok = true;
+			for (int i = 0; i < points.length; i++) {
+				for (int j = 0; j < points.length; j++) {
+					if (i != j)
+						ok &= agreesWithDijkstra(graph, ch, points[i], points[j]);
+				}
+			}
+			show((twoWay ? "Two-way" : "One-way") + " routes are as short as Dijkstra's", ok);
+		}
+
+		show("synthetic grid");
+		long start = System.nanoTime();
+		ContractionHierarchy ch = new ContractionHierarchy(mGridGraph);
+		long preprocessing = System.nanoTime() - start;
+		System.out.println(mGridGraph.nodeCount() + " nodes, " + mGridGraph.edgeCount()
+			+ " edges, " + ch.shortcutCount() + " shortcuts, preprocessed in "
+			+ preprocessing / 1000000 + " ms");
+
+		Random random = new Random(2);
+		GeoPoint[] from = new GeoPoint[QUERIES], to = new GeoPoint[QUERIES];
+		for (int q = 0; q < QUERIES; q++) {
+			from[q] = mGrid[random.nextInt(GRID)][random.nextInt(GRID)];
+			do {
+				to[q] = mGrid[random.nextInt(GRID)][random.nextInt(GRID)];
+			} while (to[q].equals(from[q]));
+		}
+		boolean ok = true;
+		for (int q = 0; q < QUERIES; q++)
+			ok &= agreesWithDijkstra(mGridGraph, ch, from[q], to[q]);
+		show("Grid routes are as short as Dijkstra's", ok);
+
+		// latency of distance queries, after the correctness pass warmed up
+		RoadGraph.Search dijkstra = mGridGraph.search();
+		start = System.nanoTime();
+		for (int q = 0; q < QUERIES; q++)
+			dijkstra.run(mGridGraph.nodeOf(from[q]), mGridGraph.nodeOf(to[q]), false);
+		long dijkstraTime = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int q = 0; q < QUERIES; q++)
+			ch.distance(from[q], to[q]);
+		long chTime = System.nanoTime() - start;
+		System.out.printf("Dijkstra: %.1f us/query, contraction hierarchy: %.1f us/query%n",
+			dijkstraTime / 1000.0 / QUERIES, chTime / 1000.0 / QUERIES);
+		show("Contraction hierarchy queries are faster than Dijkstra", chTime < dijkstraTime);
+	}
+
+
+	public static void main(String[] args) {
+		ContractionHierarchyTest chTest = new ContractionHierarchyTest();
+		chTest.test();
+	}
+}
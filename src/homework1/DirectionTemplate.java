@@ -0,0 +1,293 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DirectionTemplate is the compiled form of the format of one line of
+ * directions, such as
+ * <pre>
+ *   {turn} onto {name} and go {km:0.#} kilometers.
+ * </pre>
+ * The format is parsed once, by compile(); render() then writes lines
+ * straight to an Appendable, without building Strings or formatters.
+ * <p>
+ * A format is text with the placeholders:
+ * <pre>
+ * {turn}               the turn phrase
+ * {name}               the name of the geographic feature
+ * {km:pattern}         the length of the feature, in kilometers
+ * {minutes:pattern}    the time to walk the feature at 20 minutes per
+ *                      kilometer
+ * </pre>
+ * and <tt>{{</tt> and <tt>}}</tt> for literal braces. A number pattern is
+ * one or more <tt>0</tt> or <tt>#</tt> for the integer part, optionally
+ * followed by a point and up to six fraction digits: first <tt>0</tt>s,
+ * which are always written, then <tt>#</tt>s, which are written only when
+ * not trailing zeros; for example <tt>0</tt>, <tt>0.#</tt> and
+ * <tt>00.0#</tt>. As in java.text.DecimalFormat, the integer part has at
+ * least as many digits as it has <tt>0</tt>s and never fewer than one. A
+ * number is rounded half up to the last fraction digit, as Math.round()
+ * does, and its fraction is separated by the decimal separator the
+ * template was compiled with.
+ */
+public final class DirectionTemplate {
+
+	// Part kinds
+	private static final byte TEXT = 0, TURN = 1, NAME = 2, NUMBER = 3;
+
+	private static final int MAX_FRACTION_DIGITS = 6;
+
+	private static final long[] POWERS = {1, 10, 100, 1000, 10000, 100000, 1000000};
+
+	private final String format;
+	private final char decimalSeparator;
+	private final byte[] kinds;
+	private final String[] texts;		// for TEXT parts
+	private final double[] multipliers;	// for NUMBER parts, from km
+	private final int[] minIntegerDigits;
+	private final int[] minFractionDigits;
+	private final int[] maxFractionDigits;
+
+	// Abstract Function:
+	// The template stands for format: the line it renders is the
+	// concatenation of its parts, part i being texts[i] if kinds[i] = TEXT,
+	// the turn phrase if TURN, the name if NAME, and km * multipliers[i]
+	// written with minIntegerDigits[i], minFractionDigits[i] and
+	// maxFractionDigits[i] if NUMBER.
+
+	// Representation invariant:
+	// all arrays have the same length &&
+	// for every NUMBER part i:
+	//   minIntegerDigits[i] >= 1 &&
+	//   0 <= minFractionDigits[i] <= maxFractionDigits[i] <= MAX_FRACTION_DIGITS
+
+
+	private DirectionTemplate(String format, char decimalSeparator, List<Object[]> parts) {
+		this.format = format;
+		this.decimalSeparator = decimalSeparator;
+		int n = parts.size();
+		kinds = new byte[n];
+		texts = new String[n];
+		multipliers = new double[n];
+		minIntegerDigits = new int[n];
+		minFractionDigits = new int[n];
+		maxFractionDigits = new int[n];
+		for (int i = 0; i < n; i++) {
+			Object[] part = parts.get(i);
+			kinds[i] = (Byte) part[0];
+			if (kinds[i] == TEXT) {
+				texts[i] = (String) part[1];
+			} else if (kinds[i] == NUMBER) {
+				multipliers[i] = (Double) part[1];
+				minIntegerDigits[i] = (Integer) part[2];
+				minFractionDigits[i] = (Integer) part[3];
+				maxFractionDigits[i] = (Integer) part[4];
+			}
+		}
+		checkRep();
+	}
+
+
+	/**
+	 * Compiles a format with '.' as the decimal separator.
+	 * @requires format != null
+	 * @return the template of format.
+	 * @throws IllegalArgumentException if format is not a valid format.
+	 */
+	public static DirectionTemplate compile(String format) {
+		return compile(format, '.');
+	}
+
+
+	/**
+	 * Compiles a format.
+	 * @requires format != null
+	 * @return the template of format, that writes decimalSeparator between
+	 *         the integer and fraction digits of numbers.
+	 * @throws IllegalArgumentException if format is not a valid format.
+	 */
+	public static DirectionTemplate compile(String format, char decimalSeparator) {
+		List<Object[]> parts = new ArrayList<Object[]>();
+		StringBuilder text = new StringBuilder();
+		int i = 0;
+		while (i < format.length()) {
+			char c = format.charAt(i);
+			if (c == '}') {
+				if (i + 1 >= format.length() || format.charAt(i + 1) != '}')
+					throw error(format, "unmatched '}'", i);
+				text.append('}');
+				i += 2;
+			} else if (c != '{') {
+				text.append(c);
+				i++;
+			} else if (i + 1 < format.length() && format.charAt(i + 1) == '{') {
+				text.append('{');
+				i += 2;
+			} else {
+				int end = format.indexOf('}', i);
+				if (end < 0)
+					throw error(format, "unclosed '{'", i);
+				if (text.length() > 0) {
+					parts.add(new Object[] {TEXT, text.toString()});
+					text.setLength(0);
+				}
+				parts.add(placeholder(format, i + 1, end));
+				i = end + 1;
+			}
+		}
+		if (text.length() > 0)
+			parts.add(new Object[] {TEXT, text.toString()});
+		return new DirectionTemplate(format, decimalSeparator, parts);
+	}
+
+
+	// Parses the placeholder format[start .. end-1], between braces.
+	private static Object[] placeholder(String format, int start, int end) {
+		String body = format.substring(start, end);
+		int colon = body.indexOf(':');
+		String name = colon < 0 ? body : body.substring(0, colon);
+		double multiplier;
+		switch (name) {
+		case "turn":
+		case "name":
+			if (colon >= 0)
+				throw error(format, "{" + name + "} takes no pattern", start);
+			return new Object[] {name.equals("turn") ? TURN : NAME};
+		case "km":
+			multiplier = 1;
+			break;
+		case "minutes":
+			multiplier = 20;
+			break;
+		default:
+			throw error(format, "unknown placeholder {" + body + "}", start - 1);
+		}
+		String pattern = colon < 0 ? "0" : body.substring(colon + 1);
+		int minInteger = 0, integer = 0, minFraction = 0, maxFraction = 0;
+		int j = 0;
+		for (; j < pattern.length() && (pattern.charAt(j) == '0' || pattern.charAt(j) == '#'); j++) {
+			integer++;
+			if (pattern.charAt(j) == '0')
+				minInteger++;
+		}
+		if (integer == 0)
+			throw error(format, "number pattern without integer digits", start);
+		if (j < pattern.length() && pattern.charAt(j) == '.') {
+			for (j++; j < pattern.length() && pattern.charAt(j) == '0'; j++)
+				minFraction++;
+			maxFraction = minFraction;
+			for (; j < pattern.length() && pattern.charAt(j) == '#'; j++)
+				maxFraction++;
+		}
+		if (j < pattern.length())
+			throw error(format, "bad number pattern \"" + pattern + "\"", start);
+		if (maxFraction > MAX_FRACTION_DIGITS)
+			throw error(format, "more than " + MAX_FRACTION_DIGITS + " fraction digits", start);
+		return new Object[] {NUMBER, multiplier, Math.max(1, minInteger), minFraction, maxFraction};
+	}
+
+
+	private static IllegalArgumentException error(String format, String why, int index) {
+		return new IllegalArgumentException(why + " at index " + index + " of \"" + format + "\"");
+	}
+
+
+	/**
+	 * Returns the format of this.
+	 * @return the format this was compiled from.
+	 */
+	public String getFormat() {
+		return format;
+	}
+
+
+	/**
+	 * Writes a line of directions.
+	 * @requires out != null && turn != null && name != null && km >= 0
+	 * @modifies out
+	 * @effects appends the format of this to out, with turn, name and km
+	 *          in place of the placeholders.
+	 * @throws IOException if out throws IOException.
+	 */
+	public void render(Appendable out, String turn, String name, double km) throws IOException {
+		for (int i = 0; i < kinds.length; i++) {
+			switch (kinds[i]) {
+			case TEXT:
+				out.append(texts[i]);
+				break;
+			case TURN:
+				out.append(turn);
+				break;
+			case NAME:
+				out.append(name);
+				break;
+			default:
+				writeNumber(out, km * multipliers[i], i);
+			}
+		}
+	}
+
+
+	// Writes value in fixed point with the digits of part i, one char at a
+	// time.
+	private void writeNumber(Appendable out, double value, int i) throws IOException {
+		int fractionDigits = maxFractionDigits[i];
+		long scale = POWERS[fractionDigits];
+		long scaled = Math.round(value * scale);
+		long integer = scaled / scale;
+		long fraction = scaled % scale;
+		// drop the optional trailing zeros
+		while (fractionDigits > minFractionDigits[i] && fraction % 10 == 0) {
+			fraction /= 10;
+			fractionDigits--;
+		}
+
+		int digits = 1;
+		for (long p = 10; p <= integer && digits < 19; p *= 10)
+			digits++;
+		for (int z = digits; z < minIntegerDigits[i]; z++)
+			out.append('0');
+		if (out instanceof StringBuilder)
+			((StringBuilder) out).append(integer);	// allocation-free too, and faster
+		else
+			writeDigits(out, integer, digits);
+		if (fractionDigits > 0) {
+			out.append(decimalSeparator);
+			writeDigits(out, fraction, fractionDigits);
+		}
+	}
+
+
+	// Writes the last digits decimal digits of value, most significant first.
+	private static void writeDigits(Appendable out, long value, int digits) throws IOException {
+		long p = 1;
+		for (int d = 1; d < digits; d++)
+			p *= 10;
+		for (; p > 0; p /= 10)
+			out.append((char) ('0' + (value / p) % 10));
+	}
+
+
+	/**
+	 * Returns a string representation of this.
+	 * @return the format of this.
+	 */
+	public String toString() {
+		return format;
+	}
+
+
+	private void checkRep() {
+		int n = kinds.length;
+		assert texts.length == n && multipliers.length == n && minIntegerDigits.length == n
+				&& minFractionDigits.length == n && maxFractionDigits.length == n;
+		for (int i = 0; i < n; i++) {
+			if (kinds[i] == NUMBER)
+				assert minIntegerDigits[i] >= 1 && 0 <= minFractionDigits[i]
+						&& minFractionDigits[i] <= maxFractionDigits[i]
+						&& maxFractionDigits[i] <= MAX_FRACTION_DIGITS;
+		}
+	}
+}
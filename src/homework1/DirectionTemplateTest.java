@@ -0,0 +1,189 @@
+package homework1;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+public class DirectionTemplateTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// The turn strings RouteFormatter gave before Turn.
+	private static String oldTurnString(double origHeading, double newHeading) {
+		double a = newHeading - origHeading;
+		if ((-10 < a && a < 10) || (350 <= a && a < 360) || (-360 <= a && a < -350))
+			return "Continue";
+		if ((a >= 10 && a < 60) || (-350 <= a && a < -300))
+			return "Turn slight right";
+		if ((a >= 60 && a < 120) || (-300 <= a && a < -240))
+			return "Turn right";
+		if ((a >= 120 && a < 179) || (-240 <= a && a < -181))
+			return "Turn sharp right";
+		if (a >= 179 && a < 181)
+			return "U-turn";
+		if ((a >= -60 && a < -10) || (300 <= a && a < 350))
+			return "Turn slight left";
+		if ((a >= -120 && a < -60) || (240 <= a && a < 300))
+			return "Turn left";
+		if ((a >= -179 && a < -120) || (181 <= a && a < 240))
+			return "Turn sharp left";
+		if (a <= -179 && a > -181)
+			return "U-turn";
+		return "";
+	}
+
+
+	private static String render(DirectionTemplate template, String turn, String name, double km) {
+		StringBuilder out = new StringBuilder();
+		try {
+			template.render(out, turn, name, km);
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		return out.toString();
+	}
+
+
+	private static boolean rejects(String format) {
+		try {
+			DirectionTemplate.compile(format);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	public void testTurns() {
+		show("Turn.of");
+		RouteFormatter formatter = new DrivingRouteFormatter();
+		Random random = new Random(1);
+		int mismatches = 0;
+		for (int orig = 0; orig < 360; orig++) {
+			for (int quarter = 0; quarter < 4 * 360; quarter++) {
+				double h = quarter / 4.0;
+				if (!formatter.getTurnString(orig, h).equals(oldTurnString(orig, h)))
+					mismatches++;
+			}
+		}
+		for (int i = 0; i < 1000000; i++) {
+			double orig = random.nextDouble() * 360, h = random.nextDouble() * 360;
+			if (!formatter.getTurnString(orig, h).equals(oldTurnString(orig, h)))
+				mismatches++;
+		}
+		show("Turn strings equal the comparison chain on whole, quarter and random headings",
+				mismatches == 0);
+		show("Turn.of(0, 350) = CONTINUE", Turn.of(0, 350) == Turn.CONTINUE);
+		show("Turn.of(10, 0) = NONE", Turn.of(10, 0) == Turn.NONE);
+		show("Turn.of(359.5, 179) = U_TURN", Turn.of(359.5, 179) == Turn.U_TURN);
+	}
+
+
+	public void testNumbers() {
+		show("Numbers");
+		DirectionTemplate driving = DirectionsLocale.ENGLISH.getDrivingTemplate();
+		DecimalFormat old = new DecimalFormat("#.##", DecimalFormatSymbols.getInstance(Locale.US));
+		Random random = new Random(2);
+		int mismatches = 0;
+		for (int i = 0; i < 200000; i++) {
+			double km = i < 100000 ? i / 1000.0 : random.nextDouble() * 1000;
+			String expected = "Continue onto Hanita and go "
+					+ old.format(Math.round(km * 10) / 10.0) + " kilometers.\n";
+			if (!render(driving, "Continue", "Hanita", km).equals(expected))
+				mismatches++;
+			expected = "Continue onto Hanita and walk for " + Math.round(km * 20) + " minutes.\n";
+			if (!render(DirectionsLocale.ENGLISH.getWalkingTemplate(), "Continue", "Hanita", km)
+					.equals(expected))
+				mismatches++;
+		}
+		show("Driving and walking lines equal the DecimalFormat ones", mismatches == 0);
+
+		DirectionTemplate t = DirectionTemplate.compile("[{km:000.0#}]", ',');
+		show("000.0# pads and separates",
+				render(t, "", "", 1.5).equals("[001,5]") && render(t, "", "", 12.345).equals("[012,35]")
+				&& render(t, "", "", 1234).equals("[1234,0]"));
+		t = DirectionTemplate.compile("{km:#.###}");
+		show("#.### writes the integer digit and drops trailing zeros",
+				render(t, "", "", 0.25).equals("0.25") && render(t, "", "", 0).equals("0")
+				&& render(t, "", "", 0.0004).equals("0"));
+		t = DirectionTemplate.compile("{{{name}}} {km}");
+		show("Braces escape and {km} defaults to 0", render(t, "", "x", 2.5).equals("{x} 3"));
+	}
+
+
+	public void testErrors() {
+		show("Invalid formats");
+		show("Unknown placeholder rejected", rejects("{street}"));
+		show("Unclosed brace rejected", rejects("go {km"));
+		show("Unmatched } rejected", rejects("go }"));
+		show("Pattern on {name} rejected", rejects("{name:0}"));
+		show("Bad pattern rejected", rejects("{km:0.#0}") && rejects("{km:.0}") && rejects("{km:0.0000000}"));
+	}
+
+
+	public void testLocale() throws IOException {
+		show("Locales");
+		Map<Turn, String> phrases = new EnumMap<Turn, String>(Turn.class);
+		phrases.put(Turn.CONTINUE, "Continuez");
+		phrases.put(Turn.SLIGHT_RIGHT, "Serrez \u00e0 droite");
+		phrases.put(Turn.RIGHT, "Tournez \u00e0 droite");
+		phrases.put(Turn.SHARP_RIGHT, "Tournez fortement \u00e0 droite");
+		phrases.put(Turn.U_TURN, "Faites demi-tour");
+		phrases.put(Turn.SLIGHT_LEFT, "Serrez \u00e0 gauche");
+		phrases.put(Turn.LEFT, "Tournez \u00e0 gauche");
+		phrases.put(Turn.SHARP_LEFT, "Tournez fortement \u00e0 gauche");
+		phrases.put(Turn.NONE, "");
+		DirectionsLocale french = new DirectionsLocale(phrases,
+				"{turn} sur {name} et roulez {km:0.#} km.\n",
+				"{turn} sur {name} et marchez {minutes:0} minutes.\n", ',');
+
+		GeoPoint p1 = new GeoPoint(32000000, 35000000);
+		GeoPoint p2 = new GeoPoint(32010000, 35000000);
+		GeoFeature gf = new GeoFeature(new GeoSegment("Hanita", p1, p2));
+		String driving = new DrivingRouteFormatter(french).computeLine(gf, 90);
+		String walking = new WalkingRouteFormatter(french).computeLine(gf, 0);
+		show("French driving line", driving.equals("Tournez \u00e0 gauche sur Hanita et roulez 1,1 km.\n"));
+		show("French walking line", walking.equals("Continuez sur Hanita et marchez 22 minutes.\n"));
+		show("English is the default",
+				new DrivingRouteFormatter().getLocale() == DirectionsLocale.ENGLISH
+				&& new DrivingRouteFormatter().computeLine(gf, 90)
+						.equals("Turn left onto Hanita and go 1.1 kilometers.\n"));
+
+		phrases.remove(Turn.NONE);
+		boolean rejected = false;
+		try {
+			new DirectionsLocale(phrases, "{turn}", "{turn}", '.');
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("Missing phrase rejected", rejected);
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		DirectionTemplateTest test = new DirectionTemplateTest();
+		test.testTurns();
+		test.testNumbers();
+		test.testErrors();
+		test.testLocale();
+		System.out.println();
+		System.out.println("Test passed correctly");
+	}
+}
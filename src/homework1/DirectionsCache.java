@@ -0,0 +1,312 @@
+package homework1;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A DirectionsCache remembers directions computed by RouteFormatters, so
+ * that asking again for the directions of the same route returns the text
+ * already computed instead of formatting the route again.
+ * <p>
+ * Directions are looked up by the route, compared structurally with
+ * Route.equals(), the DistanceModel that measured the route, the class and
+ * locale of the formatter, and the initial heading. The model is part of
+ * the key since Route.equals() ignores it, while the lengths in the
+ * directions depend on it. Routes keep their hash codes up to date as they
+ * are built, so a lookup costs a hash table probe and, on a hit, one
+ * comparison of equal routes. Formatters of one class and locale are
+ * assumed to give the same directions, as the formatters of this package
+ * do.
+ * <p>
+ * The cache holds at most maxBytes bytes of entries. The size of an entry
+ * is estimated as two bytes per character of its directions, plus
+ * SEGMENT_BYTES per segment of its route, plus ENTRY_BYTES for the entry
+ * itself. The route is counted because the key keeps it alive: callers
+ * such as DirectionsServer build a route per request and drop it, and
+ * the route of a long drive down one street is far larger than its one
+ * line of directions. When an entry does not fit, the least recently
+ * used entries are evicted until it does.
+ * <p>
+ * The cache is divided into stripes, each with its own lock, its own LRU
+ * order and an equal share of the budget, so that threads that look up
+ * different routes rarely wait for each other. Directions are computed
+ * outside the locks: two threads that miss on the same key at once both
+ * compute the directions, and the cache keeps one of them. A
+ * DirectionsCache may be used by any number of threads at once.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   entries : map from (Route, DistanceModel, formatter class, locale,
+ *             heading) to String
+ *   maxBytes : integer      // the memory budget
+ *   hits, misses, evictions : integer   // lookup and eviction counts
+ * </pre>
+ **/
+public final class DirectionsCache {
+
+	/** Estimated bytes of an entry besides its directions and route. */
+	public static final int ENTRY_BYTES = 96;
+
+	/**
+	 * Estimated bytes a route holds per segment: the GeoSegment, its end
+	 * point, and its nodes in the route's and its feature's lists.
+	 */
+	public static final int SEGMENT_BYTES = 128;
+
+	private static final int DEFAULT_STRIPES = 16;
+
+	/**
+	 * A Key identifies the directions of a route by a formatter.
+	 */
+	private static final class Key {
+		final Route route;
+		final DistanceModel model;
+		final Class<?> type;
+		final DirectionsLocale locale;
+		final long heading;		// Double.doubleToLongBits()
+		final int hash;
+
+		Key(RouteFormatter formatter, Route route, double heading) {
+			this.route = route;
+			this.model = route.getModel();
+			this.type = formatter.getClass();
+			this.locale = formatter.getLocale();
+			this.heading = Double.doubleToLongBits(heading);
+			int h = route.hashCode();
+			h = 31 * h + model.hashCode();
+			h = 31 * h + type.hashCode();
+			h = 31 * h + locale.hashCode();
+			h = 31 * h + Long.hashCode(this.heading);
+			this.hash = h ^ (h >>> 16);
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key k = (Key) o;
+			return hash == k.hash && heading == k.heading && type == k.type
+					&& model == k.model && locale == k.locale && route.equals(k.route);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+
+	/**
+	 * A Stripe is an LRU map of a share of the entries, with its own lock
+	 * (the Stripe itself) and budget.
+	 */
+	private static final class Stripe {
+		final LinkedHashMap<Key, String> map = new LinkedHashMap<Key, String>(16, 0.75f, true);
+		long bytes;
+	}
+
+
+	private final Stripe[] stripes;
+	private final long maxBytes;
+	private final long stripeBytes;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	// Abstract Function:
+	// entries = the union of the maps of the stripes, maxBytes =
+	// this.maxBytes, hits = this.hits, misses = this.misses, evictions =
+	// this.evictions.
+
+	// Representation invariant:
+	// stripes.length is a power of two && every key k is in
+	// stripes[k.hash & (stripes.length - 1)] && for every stripe s,
+	// s.bytes = sum of weight(k, d) over its entries (k, d) && s.bytes <= stripeBytes.
+
+
+	/**
+	 * Constructs a new, empty DirectionsCache with 16 stripes.
+	 * @requires maxBytes >= 0
+	 * @effects constructs an empty cache with this.maxBytes = maxBytes.
+	 **/
+	public DirectionsCache(long maxBytes) {
+		this(maxBytes, DEFAULT_STRIPES);
+	}
+
+
+	/**
+	 * Constructs a new, empty DirectionsCache.
+	 * @requires maxBytes >= 0 && stripes > 0
+	 * @effects constructs an empty cache with this.maxBytes = maxBytes,
+	 *          divided into stripes stripes, rounded up to a power of two.
+	 * @throws IllegalArgumentException if maxBytes < 0 or stripes <= 0.
+	 **/
+	public DirectionsCache(long maxBytes, int stripes) {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes < 0: " + maxBytes);
+		if (stripes <= 0)
+			throw new IllegalArgumentException("stripes <= 0: " + stripes);
+		int n = Integer.highestOneBit(stripes);
+		if (n < stripes)
+			n <<= 1;
+		this.stripes = new Stripe[n];
+		for (int i = 0; i < n; i++)
+			this.stripes[i] = new Stripe();
+		this.maxBytes = maxBytes;
+		this.stripeBytes = maxBytes / n;
+	}
+
+
+	private static long weight(Key key, String directions) {
+		return ENTRY_BYTES + (long) SEGMENT_BYTES * key.route.getSegmentCount() + 2L * directions.length();
+	}
+
+
+	private Stripe stripeOf(Key key) {
+		return stripes[key.hash & (stripes.length - 1)];
+	}
+
+
+	/**
+	 * Returns directions for following a route, computing them with
+	 * formatter unless the cache holds them.
+	 * @requires formatter != null && route != null && 0 <= heading < 360
+	 * @modifies this
+	 * @effects counts a hit if entries holds the directions, and otherwise
+	 *          counts a miss, computes the directions and adds them to
+	 *          entries, evicting the least recently used entries of their
+	 *          stripe as needed to stay within maxBytes. Directions whose
+	 *          entry is larger than the budget of a stripe are returned but
+	 *          not kept.
+	 * @return formatter.computeDirections(route, heading).
+	 **/
+	public String computeDirections(RouteFormatter formatter, Route route, double heading) {
+		Key key = new Key(formatter, route, heading);
+		Stripe stripe = stripeOf(key);
+		String directions;
+		synchronized (stripe) {
+			directions = stripe.map.get(key);
+		}
+		if (directions != null) {
+			hits.increment();
+			return directions;
+		}
+		misses.increment();
+		directions = formatter.computeDirections(route, heading);
+		put(stripe, key, directions);
+		return directions;
+	}
+
+
+	private void put(Stripe stripe, Key key, String directions) {
+		long weight = weight(key, directions);
+		if (weight > stripeBytes)
+			return;
+		synchronized (stripe) {
+			String previous = stripe.map.put(key, directions);
+			if (previous != null)
+				stripe.bytes -= weight(key, previous);	// computed by another thread too
+			stripe.bytes += weight;
+			Iterator<Map.Entry<Key, String>> eldest = stripe.map.entrySet().iterator();
+			while (stripe.bytes > stripeBytes) {
+				Map.Entry<Key, String> e = eldest.next();
+				stripe.bytes -= weight(e.getKey(), e.getValue());
+				eldest.remove();
+				evictions.increment();
+			}
+		}
+	}
+
+
+	/**
+	 * Removes all the entries.
+	 * @modifies this
+	 * @effects entries = {}; the counters are not changed.
+	 **/
+	public void clear() {
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.map.clear();
+				stripe.bytes = 0;
+			}
+		}
+	}
+
+
+	/**
+	 * Returns the number of entries.
+	 * @return the size of entries.
+	 **/
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.map.size();
+			}
+		}
+		return size;
+	}
+
+
+	/**
+	 * Returns the estimated memory the entries take.
+	 * @return the sum of the estimated sizes of the entries, in bytes; at
+	 *         most maxBytes.
+	 **/
+	public long bytes() {
+		long bytes = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				bytes += stripe.bytes;
+			}
+		}
+		return bytes;
+	}
+
+
+	/**
+	 * Returns the memory budget.
+	 * @return maxBytes.
+	 **/
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+
+	/**
+	 * Returns the number of lookups that found their directions.
+	 * @return hits.
+	 **/
+	public long hitCount() {
+		return hits.sum();
+	}
+
+
+	/**
+	 * Returns the number of lookups that computed their directions.
+	 * @return misses.
+	 **/
+	public long missCount() {
+		return misses.sum();
+	}
+
+
+	/**
+	 * Returns the number of entries evicted to stay within the budget.
+	 * @return evictions.
+	 **/
+	public long evictionCount() {
+		return evictions.sum();
+	}
+
+
+	/**
+	 * Returns a string representation of this.
+	 * @return a string with the counters, size and budget of this.
+	 **/
+	public String toString() {
+		return "DirectionsCache[hits=" + hitCount() + ", misses=" + missCount()
+				+ ", evictions=" + evictionCount() + ", size=" + size()
+				+ ", bytes=" + bytes() + "/" + maxBytes + "]";
+	}
+}
@@ -0,0 +1,137 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DirectionsCacheTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	public void testLookups() {
+		show("Lookups");
+		DirectionsCache cache = new DirectionsCache(1 << 20);
+		RouteFormatter walking = new WalkingRouteFormatter();
+		RouteFormatter driving = new DrivingRouteFormatter();
+		Route route = new RouteGenerator(1).route(100, 8);
+		Route copy = new RouteGenerator(1).route(100, 8);
+
+		String first = cache.computeDirections(walking, route, 0);
+		show("A miss computes the directions",
+				first.equals(walking.computeDirections(route, 0))
+				&& cache.missCount() == 1 && cache.hitCount() == 0);
+		show("An equal route built separately hits",
+				cache.computeDirections(walking, copy, 0) == first && cache.hitCount() == 1);
+		show("Another formatter class misses",
+				cache.computeDirections(driving, route, 0).equals(driving.computeDirections(route, 0))
+				&& cache.missCount() == 2);
+		show("Another heading misses",
+				cache.computeDirections(walking, route, 90).equals(walking.computeDirections(route, 90))
+				&& cache.missCount() == 3);
+		show("Another instance of the same formatter class hits",
+				cache.computeDirections(new WalkingRouteFormatter(), route, 0) == first
+				&& cache.hitCount() == 2 && cache.size() == 3);
+
+		// at 60 degrees north, where the models disagree on lengths
+		GeoSegment flat = new GeoSegment("Aleksanterinkatu",
+				new GeoPoint(60000000, 25000000), new GeoPoint(60000000, 25100000));
+		Route flatRoute = new Route(flat);
+		Route havRoute = new Route(flat.withModel(StandardDistanceModel.HAVERSINE));
+		cache.computeDirections(driving, flatRoute, 0);
+		show("An equal route measured by another model misses",
+				cache.computeDirections(driving, havRoute, 0).equals(driving.computeDirections(havRoute, 0))
+				&& !driving.computeDirections(havRoute, 0).equals(driving.computeDirections(flatRoute, 0))
+				&& cache.missCount() == 5);
+		cache.clear();
+		show("clear() empties the cache", cache.size() == 0 && cache.bytes() == 0);
+	}
+
+
+	public void testEviction() {
+		show("Eviction");
+		RouteFormatter walking = new WalkingRouteFormatter();
+		Route route = new RouteGenerator(2).route(40, 8);
+		long entry = DirectionsCache.ENTRY_BYTES + 40L * DirectionsCache.SEGMENT_BYTES
+				+ 2L * walking.computeDirections(route, 0).length();
+		DirectionsCache cache = new DirectionsCache(3 * entry, 1);
+		for (int heading = 0; heading < 3; heading++)
+			cache.computeDirections(walking, route, heading);
+		show("Entries within the budget are kept", cache.size() == 3 && cache.evictionCount() == 0);
+		cache.computeDirections(walking, route, 0);		// now most recently used
+		cache.computeDirections(walking, route, 3);
+		show("An entry over the budget evicts the least recently used",
+				cache.size() == 3 && cache.evictionCount() == 1 && cache.bytes() <= cache.getMaxBytes());
+		long hits = cache.hitCount();
+		cache.computeDirections(walking, route, 0);
+		cache.computeDirections(walking, route, 1);
+		show("The recently used entry stayed, the evicted one is gone",
+				cache.hitCount() == hits + 1);
+
+		DirectionsCache small = new DirectionsCache(entry - 1, 1);
+		String directions = small.computeDirections(walking, route, 0);
+		show("Directions larger than the budget are returned but not kept",
+				directions.equals(walking.computeDirections(route, 0)) && small.size() == 0);
+
+		// one street: one short line of directions, but 10000 segments
+		Route street = new RouteGenerator(3).route(10000, 10000);
+		DirectionsCache budget = new DirectionsCache(1 << 20, 1);
+		String line = budget.computeDirections(walking, street, 0);
+		show("The route counts against the budget, not only its directions",
+				2L * line.length() < budget.getMaxBytes() && budget.size() == 0);
+	}
+
+
+	public void testConcurrency() throws InterruptedException {
+		show("Concurrency");
+		final DirectionsCache cache = new DirectionsCache(1 << 15, 4);
+		final RouteFormatter driving = new DrivingRouteFormatter();
+		final Route[] routes = new Route[32];
+		final String[] expected = new String[routes.length];
+		for (int i = 0; i < routes.length; i++) {
+			routes[i] = new RouteGenerator(i).route(20, 4);
+			expected[i] = driving.computeDirections(routes[i], 0);
+		}
+		final AtomicBoolean ok = new AtomicBoolean(true);
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < 4; t++) {
+			final int seed = t;
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 5000; i++) {
+					int r = (i * 7 + seed) % routes.length;
+					if (!cache.computeDirections(driving, routes[r], 0).equals(expected[r]))
+						ok.set(false);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		show("Threads sharing a cache get the right directions", ok.get());
+		show("Every lookup is counted once", cache.hitCount() + cache.missCount() == 4 * 5000);
+		show("The budget is respected", cache.bytes() <= cache.getMaxBytes() && cache.evictionCount() > 0);
+	}
+
+
+	public static void main(String[] args) throws InterruptedException {
+		DirectionsCacheTest test = new DirectionsCacheTest();
+		test.testLookups();
+		test.testEviction();
+		test.testConcurrency();
+		System.out.println();
+		System.out.println("Test passed correctly");
+	}
+}
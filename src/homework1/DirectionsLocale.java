@@ -0,0 +1,112 @@
+package homework1;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A DirectionsLocale holds the wording of directions in one language: the
+ * phrase for each Turn, the formats of driving and walking lines and the
+ * decimal separator of numbers. RouteFormatters write their lines with
+ * the DirectionsLocale they are constructed with; ENGLISH gives the
+ * directions they have always given.
+ * <p>
+ * The formats are compiled into DirectionTemplates once, when the locale
+ * is constructed. DirectionsLocales are immutable.
+ */
+public final class DirectionsLocale {
+
+	/** English directions, with '.' as the decimal separator. */
+	public static final DirectionsLocale ENGLISH = new DirectionsLocale(english(),
+			"{turn} onto {name} and go {km:0.#} kilometers.\n",
+			"{turn} onto {name} and walk for {minutes:0} minutes.\n", '.');
+
+	private final String[] turnPhrases;		// indexed by Turn.ordinal()
+	private final DirectionTemplate driving;
+	private final DirectionTemplate walking;
+
+	// Abstract Function:
+	// The locale words turn t as turnPhrases[t.ordinal()], and formats
+	// driving and walking lines with driving and walking.
+
+	// Representation invariant:
+	// turnPhrases.length = Turn.values().length && no element of
+	// turnPhrases is null && driving != null && walking != null
+
+
+	private static Map<Turn, String> english() {
+		Map<Turn, String> phrases = new EnumMap<Turn, String>(Turn.class);
+		phrases.put(Turn.CONTINUE, "Continue");
+		phrases.put(Turn.SLIGHT_RIGHT, "Turn slight right");
+		phrases.put(Turn.RIGHT, "Turn right");
+		phrases.put(Turn.SHARP_RIGHT, "Turn sharp right");
+		phrases.put(Turn.U_TURN, "U-turn");
+		phrases.put(Turn.SLIGHT_LEFT, "Turn slight left");
+		phrases.put(Turn.LEFT, "Turn left");
+		phrases.put(Turn.SHARP_LEFT, "Turn sharp left");
+		phrases.put(Turn.NONE, "");
+		return phrases;
+	}
+
+
+	/**
+	 * Constructs a new DirectionsLocale.
+	 * @requires turnPhrases, drivingFormat, walkingFormat != null &&
+	 *           turnPhrases maps every Turn to a non-null phrase
+	 * @effects constructs a new DirectionsLocale that words each Turn as
+	 *          turnPhrases does, and formats lines with drivingFormat and
+	 *          walkingFormat (see DirectionTemplate), writing
+	 *          decimalSeparator in numbers.
+	 * @throws IllegalArgumentException if a Turn has no phrase or a format
+	 *         is not valid.
+	 */
+	public DirectionsLocale(Map<Turn, String> turnPhrases, String drivingFormat,
+			String walkingFormat, char decimalSeparator) {
+		Turn[] turns = Turn.values();
+		this.turnPhrases = new String[turns.length];
+		for (Turn turn : turns) {
+			String phrase = turnPhrases.get(turn);
+			if (phrase == null)
+				throw new IllegalArgumentException("no phrase for " + turn);
+			this.turnPhrases[turn.ordinal()] = phrase;
+		}
+		this.driving = DirectionTemplate.compile(drivingFormat, decimalSeparator);
+		this.walking = DirectionTemplate.compile(walkingFormat, decimalSeparator);
+		checkRep();
+	}
+
+
+	/**
+	 * Returns the phrase for a turn.
+	 * @requires turn != null
+	 * @return the words this locale gives directions to turn with.
+	 */
+	public String getTurnPhrase(Turn turn) {
+		return turnPhrases[turn.ordinal()];
+	}
+
+
+	/**
+	 * Returns the template of driving directions.
+	 * @return the compiled format of a line of DrivingRouteFormatter.
+	 */
+	public DirectionTemplate getDrivingTemplate() {
+		return driving;
+	}
+
+
+	/**
+	 * Returns the template of walking directions.
+	 * @return the compiled format of a line of WalkingRouteFormatter.
+	 */
+	public DirectionTemplate getWalkingTemplate() {
+		return walking;
+	}
+
+
+	private void checkRep() {
+		assert turnPhrases.length == Turn.values().length;
+		for (String phrase : turnPhrases)
+			assert phrase != null;
+		assert driving != null && walking != null;
+	}
+}
@@ -0,0 +1,426 @@
+package homework1;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A DirectionsServer serves walking and driving directions over HTTP, with
+ * the JDK's built-in com.sun.net.httpserver, so that the formatters can be
+ * used by other services.
+ * <p>
+ * The server answers two kinds of requests at <tt>/directions</tt>:
+ * <pre>
+ *   GET  /directions?from=LAT,LON&amp;to=LAT,LON[&amp;mode=M][&amp;heading=H]
+ *   POST /directions[?mode=M][&amp;heading=H]
+ * </pre>
+ * A GET request asks for the shortest route on the road network the
+ * server was started with. Points are in degrees; a point that is not an
+ * endpoint of a segment is moved to the nearer endpoint of its nearest
+ * segment. A POST request carries its own route: one segment per line,
+ * <tt>name,lat1,lon1,lat2,lon2</tt> in degrees, each starting where the one
+ * before ends; the name is everything before the last four commas. M is
+ * <tt>walking</tt> (the default) or <tt>driving</tt>, and H the initial
+ * heading, by default the start heading of the route.
+ * <p>
+ * The response is the directions as UTF-8 text, with status 200; 400 for
+ * a malformed request, 404 if there is no route between the points, 405
+ * for another method, and 413 for a POST body of more than MAX_BODY_BYTES.
+ * An unexpected failure is logged and answered with a fixed 500 response,
+ * which does not describe it to the client. Directions come from a
+ * DirectionsCache, so popular routes are formatted once.
+ * <p>
+ * Each request runs on a thread of its own. On a JDK that has virtual
+ * threads (Java 21 and later) they are virtual threads; otherwise they
+ * come from a cached pool of platform threads, which also creates a
+ * thread per concurrent request and reuses idle ones. Threads are never
+ * reused in the first case, so the search state of the graph and the
+ * index is lent from a pool to each request rather than kept per thread.
+ * <p>
+ * Usage: <tt>java homework1.DirectionsServer [port]</tt> serves the
+ * example segments on all addresses, on the given port (by default 8080).
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   network : RoadGraph    // the roads routes between points are found on
+ *   port : integer         // the port the server listens on
+ * </pre>
+ **/
+public class DirectionsServer {
+
+	/** The path requests are served at. */
+	public static final String PATH = "/directions";
+
+	/** The largest POST body accepted, in bytes: some 20000 segments. */
+	public static final int MAX_BODY_BYTES = 1 << 20;
+
+	private static final Logger LOGGER = Logger.getLogger(DirectionsServer.class.getName());
+
+	private static final long CACHE_BYTES = 64L << 20;
+
+	static {
+		// Without TCP_NODELAY the response headers and body go out in two
+		// packets, and Nagle's algorithm holds the body until the client's
+		// delayed ACK: 40 ms per request. The property is read when the
+		// first HttpServer is created, so it must be set before.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null)
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	private final RoadGraph graph;
+	private final SegmentIndex index;
+	private final DirectionsCache cache = new DirectionsCache(CACHE_BYTES);
+	private final RouteFormatter walking = new WalkingRouteFormatter();
+	private final RouteFormatter driving = new DrivingRouteFormatter();
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	// Abstract Function:
+	// network = graph, port = server.getAddress().getPort().
+
+	// Representation invariant:
+	// graph, index, server and executor != null && index holds the
+	// segments of graph.
+
+
+	/**
+	 * A BadRequest reports a request that cannot be served, as a 400
+	 * response unless another status is given.
+	 */
+	private static final class BadRequest extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		final int status;
+
+		BadRequest(String message) {
+			this(400, message);
+		}
+
+		BadRequest(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+
+	/**
+	 * Starts a new DirectionsServer on the loopback address.
+	 * @requires segments != null && 0 <= port < 65536
+	 * @effects starts a server whose network holds segments and their
+	 *          reverses, listening on port of the loopback address, or on
+	 *          a free port if port = 0.
+	 * @throws IOException if the server cannot listen on port.
+	 **/
+	public DirectionsServer(Collection<GeoSegment> segments, int port) throws IOException {
+		this(segments, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+	}
+
+
+	/**
+	 * Starts a new DirectionsServer.
+	 * @requires segments != null && address != null
+	 * @effects starts a server whose network holds segments and their
+	 *          reverses, listening on address.
+	 * @throws IOException if the server cannot listen on address.
+	 **/
+	public DirectionsServer(Collection<GeoSegment> segments, InetSocketAddress address)
+			throws IOException {
+		this.graph = new RoadGraph(segments, true);
+		this.index = new SegmentIndex(segments);
+		this.executor = newThreadPerRequestExecutor();
+		this.server = HttpServer.create(address, 0);
+		server.createContext(PATH, this::handle);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+
+	/**
+	 * Returns an executor that runs each task on a virtual thread if the
+	 * JDK has them, and on a cached platform thread otherwise.
+	 */
+	static ExecutorService newThreadPerRequestExecutor() {
+		try {
+			return (ExecutorService) Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();		// before Java 21
+		}
+	}
+
+
+	/**
+	 * Returns the port the server listens on.
+	 * @return port.
+	 **/
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+
+	/**
+	 * Returns the cache the server's directions come from.
+	 * @return the DirectionsCache of this, whose counters tell how many
+	 *         requests were answered from it.
+	 **/
+	public DirectionsCache getCache() {
+		return cache;
+	}
+
+
+	/**
+	 * Stops the server.
+	 * @modifies this
+	 * @effects stops listening, waits up to delaySeconds seconds for the
+	 *          requests being served to finish, and stops their threads.
+	 **/
+	public void stop(int delaySeconds) {
+		server.stop(delaySeconds);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+			Route route;
+			if (method.equals("GET")) {
+				route = shortestRoute(point(query, "from"), point(query, "to"));
+				if (route == null) {
+					respond(exchange, 404, "no route between the points\n");
+					return;
+				}
+			} else if (method.equals("POST")) {
+				route = parseRoute(readBody(exchange));
+			} else {
+				exchange.getResponseHeaders().set("Allow", "GET, POST");
+				respond(exchange, 405, "use GET or POST\n");
+				return;
+			}
+			RouteFormatter formatter = formatter(query.get("mode"));
+			double heading = heading(query.get("heading"), route);
+			respond(exchange, 200, cache.computeDirections(formatter, route, heading));
+		} catch (BadRequest e) {
+			respond(exchange, e.status, e.getMessage() + "\n");
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.SEVERE, exchange.getRequestMethod() + " " + exchange.getRequestURI(), e);
+			respond(exchange, 500, "internal error\n");
+		} finally {
+			exchange.close();
+		}
+	}
+
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+
+	// Reads the body of a request, rejecting it as soon as it is known to
+	// exceed MAX_BODY_BYTES: from its Content-Length if it has one, and
+	// otherwise (a chunked body) when that many bytes have been read.
+	private static String readBody(HttpExchange exchange) throws IOException, BadRequest {
+		InputStream in = exchange.getRequestBody();
+		byte[] buffer = new byte[8192];
+		String length = exchange.getRequestHeaders().getFirst("Content-Length");
+		if (length != null) {
+			long declared;
+			try {
+				declared = Long.parseLong(length.trim());
+			} catch (NumberFormatException e) {
+				throw new BadRequest("malformed Content-Length: " + length);
+			}
+			if (declared > MAX_BODY_BYTES)
+				throw tooLarge(in, buffer);
+		}
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		for (int n; (n = in.read(buffer)) > 0; ) {
+			if (body.size() + n > MAX_BODY_BYTES)
+				throw tooLarge(in, buffer);
+			body.write(buffer, 0, n);
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+
+	// Rejects a body that is too large. Up to MAX_BODY_BYTES more of it are
+	// read into buffer and dropped first: closing a connection with unread
+	// data resets it, and the client would lose the 413 response.
+	private static BadRequest tooLarge(InputStream in, byte[] buffer) throws IOException {
+		for (long left = MAX_BODY_BYTES, n; left > 0 && (n = in.read(buffer)) > 0; )
+			left -= n;
+		return new BadRequest(413, "body larger than " + MAX_BODY_BYTES + " bytes");
+	}
+
+
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		if (query == null)
+			return parameters;
+		for (String pair : query.split("&")) {
+			int eq = pair.indexOf('=');
+			String name = eq < 0 ? pair : pair.substring(0, eq);
+			String value = eq < 0 ? "" : pair.substring(eq + 1);
+			parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+					URLDecoder.decode(value, StandardCharsets.UTF_8));
+		}
+		return parameters;
+	}
+
+
+	private RouteFormatter formatter(String mode) throws BadRequest {
+		if (mode == null || mode.equals("walking"))
+			return walking;
+		if (mode.equals("driving"))
+			return driving;
+		throw new BadRequest("unknown mode: " + mode);
+	}
+
+
+	private static double heading(String value, Route route) throws BadRequest {
+		if (value == null)
+			return route.getStartHeading();
+		double heading = parseNumber(value, "heading");
+		if (!(0 <= heading && heading < 360))
+			throw new BadRequest("heading out of range: " + value);
+		return heading;
+	}
+
+
+	private static double parseNumber(String value, String what) throws BadRequest {
+		double number;
+		try {
+			number = Double.parseDouble(value.trim());
+		} catch (NumberFormatException e) {
+			throw new BadRequest("bad " + what + ": " + value);
+		}
+		if (Double.isNaN(number) || Double.isInfinite(number))
+			throw new BadRequest("bad " + what + ": " + value);
+		return number;
+	}
+
+
+	// Converts a latitude and a longitude in degrees to a GeoPoint.
+	private static GeoPoint toPoint(double latitude, double longitude, String text) throws BadRequest {
+		long lat = Math.round(latitude * 1000000);
+		long lon = Math.round(longitude * 1000000);
+		if (lat < GeoPoint.MIN_LATITUDE || lat > GeoPoint.MAX_LATITUDE
+				|| lon < GeoPoint.MIN_LONGITUDE || lon > GeoPoint.MAX_LONGITUDE)
+			throw new BadRequest("point out of range: " + text);
+		return new GeoPoint((int) lat, (int) lon);
+	}
+
+
+	private static GeoPoint point(Map<String, String> query, String name) throws BadRequest {
+		String value = query.get(name);
+		if (value == null)
+			throw new BadRequest("missing parameter: " + name);
+		int comma = value.indexOf(',');
+		if (comma < 0)
+			throw new BadRequest("expected " + name + "=LAT,LON: " + value);
+		return toPoint(parseNumber(value.substring(0, comma), name),
+				parseNumber(value.substring(comma + 1), name), value);
+	}
+
+
+	/**
+	 * Parses the segments of a POST request into a Route.
+	 * @throws BadRequest if body holds no segments, a malformed line, a
+	 *         segment whose endpoints are equal, or a segment that does
+	 *         not start where the one before ends.
+	 */
+	private static Route parseRoute(String body) throws BadRequest {
+		Route route = null;
+		int lineNumber = 0;
+		for (String line : body.split("\r?\n")) {
+			lineNumber++;
+			if (line.trim().isEmpty())
+				continue;
+			int[] commas = new int[4];
+			int end = line.length();
+			for (int i = 3; i >= 0; i--) {
+				end = line.lastIndexOf(',', end - 1);
+				if (end <= 0)
+					throw new BadRequest("line " + lineNumber + ": expected name,lat1,lon1,lat2,lon2");
+				commas[i] = end;
+			}
+			double[] numbers = new double[4];
+			for (int i = 0; i < 4; i++) {
+				String field = line.substring(commas[i] + 1, i < 3 ? commas[i + 1] : line.length());
+				numbers[i] = parseNumber(field, "coordinate on line " + lineNumber);
+			}
+			GeoPoint p1 = toPoint(numbers[0], numbers[1], line);
+			GeoPoint p2 = toPoint(numbers[2], numbers[3], line);
+			if (p1.equals(p2))
+				throw new BadRequest("line " + lineNumber + ": segment of zero length");
+			GeoSegment gs = new GeoSegment(line.substring(0, commas[0]).trim(), p1, p2);
+			if (route == null)
+				route = new Route(gs);
+			else if (gs.getP1().equals(route.getEnd()))
+				route = route.addSegment(gs);
+			else
+				throw new BadRequest("line " + lineNumber + ": segment does not start where the route ends");
+		}
+		if (route == null)
+			throw new BadRequest("no segments");
+		return route;
+	}
+
+
+	// Finds the shortest route between the nodes nearest to two points.
+	private Route shortestRoute(GeoPoint from, GeoPoint to) {
+		GeoPoint source = nearestNode(from);
+		GeoPoint target = nearestNode(to);
+		if (source == null || target == null)
+			return null;
+		return graph.shortestRoute(source, target);
+	}
+
+
+	private GeoPoint nearestNode(GeoPoint gp) {
+		if (graph.nodeOf(gp) >= 0)
+			return gp;
+		SegmentIndex.Snap snap = index.snap(gp);
+		if (snap == null)
+			return null;
+		GeoSegment gs = snap.getSegment();
+		return snap.getFraction() < 0.5 ? gs.getP1() : gs.getP2();
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		List<GeoSegment> segments = new ArrayList<GeoSegment>(Arrays.asList(ExampleGeoSegments.segments));
+		DirectionsServer server = new DirectionsServer(segments, new InetSocketAddress(port));
+		System.out.println("Serving directions at http://localhost:" + server.getPort() + PATH);
+	}
+}
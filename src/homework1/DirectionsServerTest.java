@@ -0,0 +1,136 @@
+package homework1;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+
+public class DirectionsServerTest {
+
+	private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	private URI uri;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private HttpResponse<String> get(String query) throws IOException, InterruptedException {
+		return http.send(HttpRequest.newBuilder(URI.create(uri + query)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+
+	private HttpResponse<String> post(String query, String body) throws IOException, InterruptedException {
+		return http.send(HttpRequest.newBuilder(URI.create(uri + query))
+				.POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+
+	private static String degrees(GeoPoint gp) {
+		return gp.getLatitude() / 1000000.0 + "," + gp.getLongitude() / 1000000.0;
+	}
+
+
+	public void test() throws IOException, InterruptedException {
+		GeoSegment[] segments = new RouteGenerator(4).segments(200, 8);
+		DirectionsServer server = new DirectionsServer(Arrays.asList(segments), 0);
+		uri = URI.create("http://127.0.0.1:" + server.getPort() + DirectionsServer.PATH);
+		try {
+			show("GET");
+			Route expected = RouteGenerator.toRoute(Arrays.copyOfRange(segments, 10, 60));
+			String query = "?from=" + degrees(segments[10].getP1()) + "&to=" + degrees(segments[59].getP2());
+			HttpResponse<String> response = get(query + "&mode=driving");
+			show("Driving directions of the shortest route",
+					response.statusCode() == 200 && response.body().equals(
+						new DrivingRouteFormatter().computeDirections(expected, expected.getStartHeading())));
+			response = get(query + "&heading=90");
+			show("Walking directions by default, from the given heading",
+					response.statusCode() == 200 && response.body().equals(
+						new WalkingRouteFormatter().computeDirections(expected, 90)));
+			GeoPoint near = new GeoPoint(segments[10].getP1().getLatitude() + 1,
+					segments[10].getP1().getLongitude());
+			response = get("?from=" + degrees(near) + "&to=" + degrees(segments[59].getP2()));
+			show("A point off the network is moved to the nearest node",
+					response.statusCode() == 200 && response.body().equals(
+						new WalkingRouteFormatter().computeDirections(expected, expected.getStartHeading())));
+			show("The same point twice has no route",
+					get("?from=" + degrees(segments[10].getP1()) + "&to=" + degrees(segments[10].getP1()))
+						.statusCode() == 404);
+
+			show("POST");
+			StringBuilder body = new StringBuilder();
+			for (int i = 10; i < 60; i++) {
+				GeoSegment gs = segments[i];
+				body.append(gs.getName()).append(',').append(degrees(gs.getP1())).append(',')
+					.append(degrees(gs.getP2())).append('\n');
+			}
+			response = post("?mode=driving", body.toString());
+			show("Directions of the posted segments",
+					response.statusCode() == 200 && response.body().equals(
+						new DrivingRouteFormatter().computeDirections(expected, expected.getStartHeading())));
+			response = post("", "Hanita, Street,32.1,35.1,32.2,35.2\n");
+			show("Names may contain commas",
+					response.statusCode() == 200 && response.body().contains("onto Hanita, Street and walk"));
+
+			show("Errors");
+			show("Missing point is 400", get("?from=32,35").statusCode() == 400);
+			show("Unknown mode is 400", get(query + "&mode=flying").statusCode() == 400);
+			show("Heading out of range is 400", get(query + "&heading=360").statusCode() == 400);
+			show("Disconnected segments are 400",
+					post("", "a,32.1,35.1,32.2,35.2\nb,32.3,35.3,32.4,35.4\n").statusCode() == 400);
+			show("Malformed segment is 400", post("", "a,32.1,35.1,32.2\n").statusCode() == 400);
+			show("Zero-length segment is 400", post("", "a,32.1,35.1,32.1,35.1\n").statusCode() == 400);
+			show("Non-finite coordinates are 400",
+					post("", "a,NaN,35.1,32.2,35.2\n").statusCode() == 400
+					&& get("?from=Infinity,35&to=32,35").statusCode() == 400);
+			show("Empty body is 400", post("", "").statusCode() == 400);
+			byte[] large = new byte[DirectionsServer.MAX_BODY_BYTES + 1];
+			Arrays.fill(large, (byte) 'a');
+			show("A body over MAX_BODY_BYTES is 413", http.send(HttpRequest.newBuilder(uri)
+					.POST(HttpRequest.BodyPublishers.ofByteArray(large)).build(),
+					HttpResponse.BodyHandlers.ofString()).statusCode() == 413);
+			// no Content-Length: the body is sent in chunks, and counted
+			show("... also without a Content-Length", http.send(HttpRequest.newBuilder(uri)
+					.POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(large))).build(),
+					HttpResponse.BodyHandlers.ofString()).statusCode() == 413);
+			show("DELETE is 405", http.send(HttpRequest.newBuilder(uri).DELETE().build(),
+					HttpResponse.BodyHandlers.ofString()).statusCode() == 405);
+
+			show("LoadGenerator");
+			List<String> workload = LoadGenerator.workload(segments, 50, 1);
+			LoadGenerator.Report report = LoadGenerator.run(uri, workload, 4, 500);
+			show("Requests are answered without errors (" + report + ")",
+					report.getRequests() > 0 && report.getErrors() == 0);
+			show("Percentiles are ordered",
+					report.getLatency(50) <= report.getLatency(99) && report.getLatency(99) <= report.getLatency(100));
+			show("Repeated routes come from the cache", server.getCache().hitCount() > 0);
+		} finally {
+			server.stop(0);
+		}
+	}
+
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		DirectionsServerTest test = new DirectionsServerTest();
+		test.test();
+		System.out.println();
+		System.out.println("Test passed correctly");
+	}
+}
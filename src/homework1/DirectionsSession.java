@@ -0,0 +1,148 @@
+package homework1;
+
+import java.util.Arrays;
+
+/**
+ * A DirectionsSession keeps the directions for a Route up to date while the
+ * Route is built one segment at a time.
+ * <p>
+ * Appending a segment to a Route changes only its last geographic feature,
+ * or adds a new one after it; all the features before stay as they were.
+ * A DirectionsSession therefore renders each line of the directions once:
+ * it keeps the text of the lines of all the features but the last, and
+ * after every append it only recomputes the line of the last feature. The
+ * cost of addSegment() does not depend on the length of the route.
+ * <p>
+ * getDirections() always equals
+ * <tt>formatter.computeDirections(route, heading)</tt>. The lines can also
+ * be read one by one, so that a view of the directions can update only the
+ * lines that changed: after an append, every line but the last of the
+ * lines before it is still the same.
+ * <p>
+ * DirectionsSessions are mutable and are not safe for use by several
+ * threads at once.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   formatter : RouteFormatter   // formats the directions
+ *   heading : angle              // the initial heading
+ *   route : Route                // the route built so far, or null
+ * </pre>
+ **/
+public class DirectionsSession {
+
+	private final RouteFormatter formatter;
+	private final double heading;
+	private Route route;
+
+	// the lines of all the features of route but the last
+	private final StringBuilder finished = new StringBuilder();
+	// lineStarts[i] is the index in finished of the line of feature i
+	private int[] lineStarts = new int[16];
+	// the line of the last feature of route
+	private String lastLine = "";
+	// the end heading of the feature before the last one, or heading
+	private double lastOrigHeading;
+
+	// Abstract Function:
+	// formatter = this.formatter, heading = this.heading, route = this.route.
+
+	// Representation invariant:
+	// formatter != null && 0 <= heading < 360 &&
+	// route == null => finished.length() == 0 && lastLine == "" &&
+	// route != null => finished + lastLine =
+	//                  formatter.computeDirections(route, heading) &&
+	//                  lineStarts[0..n-2] are the indices in finished of
+	//                  the lines of the first n-1 features of route, where
+	//                  n = route.getGeoFeatureCount().
+
+	private void checkRep() {
+		assert formatter != null : "formatter != null";
+		assert route != null || (finished.length() == 0 && lastLine.isEmpty()) : "no route, no directions";
+	}
+
+
+	/**
+	 * Constructs a new DirectionsSession with no route.
+	 * @requires formatter != null && 0 <= heading < 360
+	 * @effects constructs a DirectionsSession with this.formatter =
+	 *          formatter, this.heading = heading and route = null.
+	 **/
+	public DirectionsSession(RouteFormatter formatter, double heading) {
+		this.formatter = formatter;
+		this.heading = heading;
+		this.lastOrigHeading = heading;
+		checkRep();
+	}
+
+
+	/**
+	 * Appends a segment to the route of this.
+	 * @requires gs != null && (route == null || gs.p1 = route.end)
+	 * @modifies this
+	 * @effects route = new Route(gs) if route was null, and
+	 *          route = route.addSegment(gs) otherwise.
+	 **/
+	public void addSegment(GeoSegment gs) {
+		if (route == null) {
+			route = new Route(gs);
+		} else {
+			int features = route.getGeoFeatureCount();
+			GeoFeature previous = route.getLastGeoFeature();
+			route = route.addSegment(gs);
+			if (route.getGeoFeatureCount() > features) {
+				// the previous last feature is finished
+				if (features - 1 == lineStarts.length)
+					lineStarts = Arrays.copyOf(lineStarts, 2 * lineStarts.length);
+				lineStarts[features - 1] = finished.length();
+				finished.append(lastLine);
+				lastOrigHeading = previous.getEndHeading();
+			}
+		}
+		lastLine = formatter.computeLine(route.getLastGeoFeature(), lastOrigHeading);
+		checkRep();
+	}
+
+
+	/**
+	 * Returns the route of this.
+	 * @return route
+	 **/
+	public Route getRoute() {
+		return route;
+	}
+
+
+	/**
+	 * Returns the directions for the route of this.
+	 * @return formatter.computeDirections(route, heading), or "" if
+	 *         route == null.
+	 **/
+	public String getDirections() {
+		return finished.length() == 0 ? lastLine : finished + lastLine;
+	}
+
+
+	/**
+	 * Returns the number of lines of the directions.
+	 * @return the number of geographic features of route, or 0 if
+	 *         route == null.
+	 **/
+	public int getLineCount() {
+		return route == null ? 0 : route.getGeoFeatureCount();
+	}
+
+
+	/**
+	 * Returns a line of the directions.
+	 * @requires 0 <= i < getLineCount()
+	 * @return formatter.computeLine() of the i'th geographic feature of
+	 *         route, as it appears in getDirections().
+	 **/
+	public String getLine(int i) {
+		int last = getLineCount() - 1;
+		if (i == last)
+			return lastLine;
+		return finished.substring(lineStarts[i], i + 1 < last ? lineStarts[i + 1] : finished.length());
+	}
+}
@@ -0,0 +1,70 @@
+package homework1;
+
+public class DirectionsSessionTest {
+
+	private GeoSegment[] segments = ExampleGeoSegments.segments;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// Checks the session against computeDirections() after every append of
+	// a walk around the example loop, repeated laps times.
+	private boolean matches(RouteFormatter formatter, double heading, int laps) {
+		// 0 -> 1 -> 2 -> 3 -> 4 -> 5 -> 6 -> 7 -> 8 -> 9 -> 10 -> 11 -> 0
+		int[] loop = {0, 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12};
+		DirectionsSession session = new DirectionsSession(formatter, heading);
+		boolean ok = session.getDirections().isEmpty();
+		for (int lap = 0; lap < laps; lap++) {
+			for (int i : loop) {
+				session.addSegment(segments[i]);
+				ok &= session.getDirections().equals(
+					formatter.computeDirections(session.getRoute(), heading));
+				StringBuilder lines = new StringBuilder();
+				for (int line = 0; line < session.getLineCount(); line++)
+					lines.append(session.getLine(line));
+				ok &= lines.toString().equals(session.getDirections());
+			}
+		}
+		return ok;
+	}
+
+
+	public void test() {
+		show("getDirections()");
+		show("Walking directions and lines match computeDirections() after every append",
+			matches(new WalkingRouteFormatter(), 0, 3));
+		show("Driving directions and lines match computeDirections() after every append",
+			matches(new DrivingRouteFormatter(), segments[0].getHeading(), 3));
+		show("A route that keeps to one feature has one line",
+			oneFeature().split("\n").length == 1);
+		show("A session with no route has no lines",
+			new DirectionsSession(new WalkingRouteFormatter(), 0).getLineCount() == 0);
+	}
+
+
+	private String oneFeature() {
+		DirectionsSession session = new DirectionsSession(new DrivingRouteFormatter(), 0);
+		session.addSegment(segments[1]);
+		session.addSegment(segments[2]);
+		return session.getDirections();
+	}
+
+
+	public static void main(String[] args) {
+		DirectionsSessionTest sessionTest = new DirectionsSessionTest();
+		sessionTest.test();
+	}
+}
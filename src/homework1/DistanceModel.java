@@ -0,0 +1,33 @@
+package homework1;
+
+/**
+ * A DistanceModel measures the distance and the heading between two points
+ * of the earth. GeoSegments use one to compute their length and heading,
+ * and Routes use the model of their segments.
+ * <p>
+ * StandardDistanceModel holds the models that come with the package: the
+ * flat model GeoPoint has always used, and two models that are accurate
+ * anywhere on the globe. Implementations must be immutable and may be
+ * called by any number of threads at once.
+ */
+public interface DistanceModel {
+
+	/**
+	 * Computes the distance between two points.
+	 * @requires both points are valid GeoPoint coordinates, in millionths
+	 *           of a degree
+	 * @return the distance from (lat1, lon1) to (lat2, lon2), in
+	 *         kilometers.
+	 */
+	double distance(int lat1, int lon1, int lat2, int lon2);
+
+
+	/**
+	 * Computes the compass heading from one point to another.
+	 * @requires both points are valid GeoPoint coordinates, in millionths
+	 *           of a degree && (lat1 != lat2 || lon1 != lon2)
+	 * @return the compass heading h from (lat1, lon1) to (lat2, lon2), in
+	 *         degrees, such that 0 <= h < 360.
+	 */
+	double heading(int lat1, int lon1, int lat2, int lon2);
+}
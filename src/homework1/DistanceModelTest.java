@@ -0,0 +1,126 @@
+package homework1;
+
+import java.util.Iterator;
+import java.util.Random;
+
+public class DistanceModelTest {
+
+	private static final DistanceModel FLAT = StandardDistanceModel.FLAT;
+	private static final DistanceModel HAVERSINE = StandardDistanceModel.HAVERSINE;
+	private static final DistanceModel EQUIRECTANGULAR = StandardDistanceModel.EQUIRECTANGULAR;
+
+	private GeoSegment[] segments = ExampleGeoSegments.segments;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static boolean near(double a, double b, double tolerance) {
+		return Math.abs(a - b) <= tolerance;
+	}
+
+
+	private static double angle(double a, double b) {
+		double d = Math.abs(a - b);
+		return Math.min(d, 360 - d);
+	}
+
+
+	public void test() {
+		show("FLAT");
+		boolean same = true;
+		for (GeoSegment gs : segments) {
+			GeoPoint p1 = gs.getP1(), p2 = gs.getP2();
+			same &= FLAT.distance(p1.getLatitude(), p1.getLongitude(), p2.getLatitude(), p2.getLongitude())
+					== p1.distanceTo(p2)
+				&& FLAT.heading(p1.getLatitude(), p1.getLongitude(), p2.getLatitude(), p2.getLongitude())
+					== p1.headingTo(p2);
+		}
+		show("FLAT is distanceTo() and headingTo()", same);
+
+		show("HAVERSINE");
+		double degree = StandardDistanceModel.EARTH_RADIUS * Math.PI / 180;
+		show("A degree of longitude on the equator",
+			near(HAVERSINE.distance(0, 0, 0, 1000000), degree, 1e-9));
+		show("Equator to pole",
+			near(HAVERSINE.distance(0, 0, GeoPoint.MAX_LATITUDE, 0), 90 * degree, 1e-9));
+		show("Headings of due north, east, south and west",
+			near(HAVERSINE.heading(0, 0, 1000000, 0), 0, 1e-9)
+			&& near(HAVERSINE.heading(0, 0, 0, 1000000), 90, 1e-9)
+			&& near(HAVERSINE.heading(0, 0, -1000000, 0), 180, 1e-9)
+			&& near(HAVERSINE.heading(0, 0, 0, -1000000), 270, 1e-9));
+		show("Across the antimeridian",
+			near(HAVERSINE.distance(0, 179900000, 0, -179900000), 0.2 * degree, 1e-9)
+			&& near(HAVERSINE.heading(0, 179900000, 0, -179900000), 90, 1e-9));
+
+		show("EQUIRECTANGULAR");
+		Random random = new Random(9);
+		boolean close = true;
+		for (int i = 0; i < 100000; i++) {
+			int lat1 = random.nextInt(140000001) - 70000000;
+			int lon1 = random.nextInt(360000001) - 180000000;
+			int lat2 = lat1 + random.nextInt(1000001) - 500000;
+			int lon2 = lon1 + random.nextInt(1000001) - 500000;
+			if (lon2 > GeoPoint.MAX_LONGITUDE)
+				lon2 -= 360000000;
+			if (lon2 < GeoPoint.MIN_LONGITUDE)
+				lon2 += 360000000;
+			if (lat1 == lat2 && lon1 == lon2)
+				continue;
+			double h = HAVERSINE.distance(lat1, lon1, lat2, lon2);
+			double e = EQUIRECTANGULAR.distance(lat1, lon1, lat2, lon2);
+			close &= Math.abs(e - h) <= 0.001 * h
+				&& (h < 0.1 || angle(EQUIRECTANGULAR.heading(lat1, lon1, lat2, lon2),
+					HAVERSINE.heading(lat1, lon1, lat2, lon2)) < 0.5);
+		}
+		show("Within 0.1% of HAVERSINE up to 100 km apart", close);
+		show("Across the antimeridian",
+			near(EQUIRECTANGULAR.distance(0, 179900000, 0, -179900000), 0.2 * degree, 1e-6)
+			&& near(EQUIRECTANGULAR.heading(0, 179900000, 0, -179900000), 90, 1e-9));
+		show("Near the Technion, FLAT is within 1% of it",
+			near(FLAT.distance(32778000, 35021000, 32801000, 35061000),
+				EQUIRECTANGULAR.distance(32778000, 35021000, 32801000, 35061000),
+				0.01 * EQUIRECTANGULAR.distance(32778000, 35021000, 32801000, 35061000)));
+
+		show("GeoSegment & Route");
+		GeoSegment flat = segments[0];
+		GeoSegment round = new GeoSegment(flat.getName(), flat.getP1(), flat.getP2(), HAVERSINE);
+		GeoPoint p1 = flat.getP1(), p2 = flat.getP2();
+		show("A segment is measured by its model",
+			round.getLength() == HAVERSINE.distance(p1.getLatitude(), p1.getLongitude(), p2.getLatitude(), p2.getLongitude())
+			&& round.getModel() == HAVERSINE && flat.getModel() == FLAT);
+		show("The model is not part of equality", round.equals(flat) && round.hashCode() == flat.hashCode());
+		show("reverse() keeps the model", round.reverse().getModel() == HAVERSINE);
+		show("withModel() returns the same segment for the same model", flat.withModel(FLAT) == flat);
+		Route route = new Route(segments[0], EQUIRECTANGULAR).addSegment(segments[1]).addSegment(segments[2]);
+		double length = 0;
+		boolean remeasured = true;
+		for (Iterator<GeoSegment> it = route.getGeoSegments(); it.hasNext(); ) {
+			GeoSegment gs = it.next();
+			remeasured &= gs.getModel() == EQUIRECTANGULAR;
+			length += gs.getLength();
+		}
+		show("A route measures the segments added to it by its model",
+			remeasured && route.getModel() == EQUIRECTANGULAR && near(route.getLength(), length, 1e-12));
+		show("A route equals the same route measured otherwise",
+			route.equals(new Route(segments[0]).addSegment(segments[1]).addSegment(segments[2])));
+	}
+
+
+	public static void main(String[] args) {
+		DistanceModelTest modelTest = new DistanceModelTest();
+		modelTest.test();
+	}
+}
@@ -1,7 +1,6 @@
 package homework1;
 
-import java.text.DecimalFormat;
-import java.lang.Math;
+import java.io.IOException;
 
 /**
  * The DrivingDirections class creates a textual description of directions
@@ -25,6 +24,26 @@ import java.lang.Math;
  * should include no extra spaces other than those shown above.
  */
 public class DrivingRouteFormatter extends RouteFormatter {
+
+  	/**
+     * Constructs a DrivingRouteFormatter that gives directions in English.
+     * @effects constructs a new DrivingRouteFormatter with
+     *          DirectionsLocale.ENGLISH.
+     **/
+  	public DrivingRouteFormatter() {
+  	}
+
+
+  	/**
+     * Constructs a DrivingRouteFormatter that gives directions in locale.
+     * @requires locale != null
+     * @effects constructs a new DrivingRouteFormatter that writes each line with
+     *          the driving template of locale.
+     **/
+  	public DrivingRouteFormatter(DirectionsLocale locale) {
+  		super(locale);
+  	}
+
   
   	/**
      * Computes a single line of a multi-line directions String that
@@ -59,8 +78,26 @@ public class DrivingRouteFormatter extends RouteFormatter {
   		// and at:
   		// http://docs.oracle.com/javase/8/docs/api/java/text/DecimalFormat.html
 		   		
-  		return this.getTurnString(origHeading,geoFeature.getStartHeading())+" onto "+geoFeature.getName()
-  		+" and go "+ (new DecimalFormat("#.##").format((Math.round(geoFeature.getLength()*10))/10.0)) +" kilometers.\n";
+  		return appendedLine(geoFeature, origHeading);
+  	}
+
+
+  	/**
+     * Appends the line computeLine() returns to out, one part at a time.
+     * @requires geoFeature != null && out != null &&
+     *           0 <= origHeading < 360
+     * @param geoFeature the geographical feature to traverse.
+     * @param origHeading the initial heading.
+     * @param out the destination of the line.
+     * @modifies out
+     * @effects appends computeLine(geoFeature, origHeading) to out.
+     * @throws IOException if out throws IOException.
+     **/
+  	protected void appendLine(GeoFeature geoFeature, double origHeading, Appendable out)
+  			throws IOException {
+  		getLocale().getDrivingTemplate().render(out,
+  				this.getTurnString(origHeading, geoFeature.getStartHeading()),
+  				geoFeature.getName(), geoFeature.getLength());
   	}
 
 }
@@ -1,7 +1,7 @@
 package homework1;
 
-import java.util.LinkedList;
-import java.util.ListIterator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 
 /**
@@ -53,7 +53,9 @@ public class GeoFeature {
 	private final double endHeading;
 	private final double length;
 	private final String name;
-	private final LinkedList<GeoSegment> geoSegments;
+	// Persistent: a GeoFeature shares it with the GeoFeature it was
+	// extended from, so addSegment() does not copy it.
+	private final PersistentList<GeoSegment> geoSegments;
 	
   	// Abstract Function:
   	// A sequence of GeoSegments, all of which have the same name,
@@ -67,23 +69,26 @@ public class GeoFeature {
 	// and the name of the GeoSegment being added must match the name of the
 	// existing GeoFeature
 	
+	// Decides whether checkRep() walks all the segments (see ValidationPolicy).
+	private static final ValidationPolicy.Checker VALIDATION =
+			ValidationPolicy.checkerFor(GeoFeature.class);
+	
 	private void checkRep() {
 		assert this.name != null : "name != null ";
 		assert this.length >= 0 : "length >= 0";
 		assert this.geoSegments.size() > 0 : "sequence of GeoSegments can't be empty";
+		assert this.geoSegments.last().getP2().equals(this.end) : "last segment doesn't end at end";
+		if (!VALIDATION.fullCheck())
+			return;
 		
-		ListIterator<GeoSegment> listIterator = geoSegments.listIterator();
-		GeoSegment gsPrev = listIterator.next();
-		if(!listIterator.hasNext()){
-			assert  gsPrev.getName() == this.name : "segment with a different name";
-		}
-		while (listIterator.hasNext()) {
-			GeoSegment gsNext = listIterator.next();
-			assert  gsPrev.getName() == this.name : "segment with a different name";
-			if(listIterator.hasPrevious()){ //not first element
-				assert gsPrev.getP2().equals(gsNext.getP1()) : "not properly oriented";
-			}
-			gsPrev.equals(gsNext);
+		Iterator<GeoSegment> iterator = geoSegments.iterator();
+		GeoSegment gsPrev = iterator.next();
+		assert  gsPrev.getName() == this.name : "segment with a different name";
+		while (iterator.hasNext()) {
+			GeoSegment gsNext = iterator.next();
+			assert  gsNext.getName() == this.name : "segment with a different name";
+			assert gsPrev.getP2().equals(gsNext.getP1()) : "not properly oriented";
+			gsPrev = gsNext;
 		}
 		
 	}
@@ -105,8 +110,7 @@ public class GeoFeature {
   		start = gs.getP1();
   		end = gs.getP2();
   		length = gs.getLength();
-  		geoSegments = new  LinkedList<GeoSegment>();
-  		geoSegments.add(gs);
+  		geoSegments = PersistentList.<GeoSegment>empty().append(gs);
   		startHeading = gs.getHeading();
   		endHeading = gs.getHeading();
   		checkRep();
@@ -114,25 +118,33 @@ public class GeoFeature {
   	
   	
  	/**
-     * Constructs a new GeoFeature 
-     * @requires gs != null and gf != null
+     * Constructs a new GeoFeature that is gf with gs appended to its end.
+     * gf is not modified; the new GeoFeature shares gf's segments instead
+     * of copying them, so this takes constant time.
+     * @requires gs != null && gf != null && gs.p1 = gf.end &&
+     *           gs.name = gf.name
      * @effects Constructs a new GeoFeature, r, such that
-     *	        r.name = gs.name &&
-     *          r.startHeading = gs.heading &&
+     *	        r.name = gf.name &&
+     *          r.startHeading = gf.startHeading &&
      *          r.endHeading = gs.heading &&
-     *          r.start = gs.p1 &&
-     *          r.end = gs.p2
+     *          r.start = gf.start &&
+     *          r.end = gs.p2 &&
+     *          r.geoSegments = gf.geoSegments + [gs]
      **/
   	public GeoFeature(GeoSegment gs, GeoFeature gf) {
   		
-  		name = gs.getName();
+  		name = gf.name;
   		start = gf.start;
   		end = gs.getP2();
-  		length = gs.getLength() + gf.getLength();
-  		geoSegments = new  LinkedList<GeoSegment>(gf.geoSegments);
-  		geoSegments.add(gs);
+  		length = gs.getLength() + gf.length;
+  		geoSegments = gf.geoSegments.append(gs);
   		startHeading = gf.startHeading;
   		endHeading = gs.getHeading();
+  		// gf was verified when it was constructed; verify only gs.
+  		// names are interned by GeoSegment, so == compares them
+  		assert gs.getName() == gf.name : "segment with a different name";
+  		assert gf.end.equals(gs.getP1()) : "not properly oriented";
+  		checkRep();
   	}
 
  	/**
@@ -243,6 +255,16 @@ public class GeoFeature {
   	}
 
 
+  	/**
+  	 * Returns the number of segments of the feature.
+  	 * @return the length of geoSegments.
+  	 **/
+  	int getSegmentCount() {
+  		checkRep();
+  		return geoSegments.size();
+  	}
+
+
   	/**
      * Compares the argument with this GeoFeature for equality.
      * @return o != null && (o instanceof GeoFeature) &&
@@ -251,7 +273,8 @@ public class GeoFeature {
      **/
   	public boolean equals(Object o) {
   		checkRep();
-  		return o != null && (o instanceof GeoFeature) && this.geoSegments.equals(((GeoFeature)o).geoSegments);
+  		// geoSegments.equals() returns early on a different size or hash
+  		return o == this || (o instanceof GeoFeature && this.geoSegments.equals(((GeoFeature)o).geoSegments));
   	}
 
 
@@ -270,14 +293,33 @@ public class GeoFeature {
    	 * @return a string representation of this.
      **/
   	public String toString() {
+  		StringBuilder str = new StringBuilder();
+  		try {
+  			appendTo(str);
+  		} catch (IOException e) {
+  			throw new UncheckedIOException(e);	// StringBuilder never throws
+  		}
+  		return str.toString();
+  	}
+
+
+  	/**
+  	 * Appends the string representation of this to out, one segment at a
+  	 * time. The text is not built first, but iterating over the segments
+  	 * takes a snapshot of one reference per segment.
+  	 * @requires out != null
+  	 * @modifies out
+  	 * @effects appends toString() to out.
+  	 * @throws IOException if out throws IOException.
+     **/
+  	public void appendTo(Appendable out) throws IOException {
   		checkRep();
-  		String str = "{" + this.name + ":";
-		ListIterator<GeoSegment> listIterator = geoSegments.listIterator();
-  		while(listIterator.hasNext()){
-  			str += " " + listIterator.next().toString();
+  		out.append('{').append(this.name).append(':');
+		Iterator<GeoSegment> iterator = geoSegments.iterator();
+  		while(iterator.hasNext()){
+  			out.append(' ').append(iterator.next().toString());
   		}
-  		str += "}";
+  		out.append('}');
   		checkRep();
-  		return str;
   	}
 }
@@ -0,0 +1,141 @@
+package homework1;
+
+/**
+ * GeoKernels computes distances and headings for many points at once, from
+ * coordinates kept in int arrays of latitudes and longitudes in millionths
+ * of a degree, as in GeoPointStore and SegmentFile. Code that filters
+ * candidates for a nearest neighbour or builds a distance matrix calls one
+ * kernel instead of one GeoPoint method per pair, and needs no GeoPoints.
+ * <p>
+ * The results are those of GeoPoint.distanceTo() and GeoPoint.headingTo():
+ * distances to within one ulp and headings to within 1e-9 degrees.
+ * <p>
+ * When the incubating Vector API is available the kernels use the CPU's
+ * vector units, through homework1.vector.VectorGeoKernels. That class is
+ * kept apart because it only compiles with the module:
+ * <pre>
+ *   javac --add-modules jdk.incubator.vector src/homework1/*.java src/homework1/vector/*.java
+ *   java --add-modules jdk.incubator.vector ...
+ * </pre>
+ * Without the module, or with the system property
+ * <tt>homework1.vector=false</tt>, the kernels are plain loops over
+ * GeoPoint's scalar computations.
+ */
+public final class GeoKernels {
+
+	/**
+	 * A Backend computes the leading part of a bulk operation. Each method
+	 * fills out[0 .. k-1] for some k <= n of its choosing and returns k;
+	 * GeoKernels computes the rest. Implemented by the vector backend.
+	 */
+	public interface Backend {
+		int distances(int[] lat1, int[] lon1, int[] lat2, int[] lon2, double[] out, int n);
+		int distances(int lat, int lon, int[] lats, int[] lons, double[] out, int n);
+		int headings(int[] lat1, int[] lon1, int[] lat2, int[] lon2, double[] out, int n);
+		int headings(int lat, int lon, int[] lats, int[] lons, double[] out, int n);
+	}
+
+
+	/** System property that disables the vector backend when false. */
+	public static final String PROPERTY = "homework1.vector";
+
+	private static final Backend BACKEND = loadBackend();
+
+
+	private GeoKernels() {
+	}
+
+
+	private static Backend loadBackend() {
+		if (!Boolean.parseBoolean(System.getProperty(PROPERTY, "true")))
+			return null;
+		try {
+			return (Backend) Class.forName("homework1.vector.VectorGeoKernels")
+					.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;		// not compiled, or the module is missing
+		}
+	}
+
+
+	/**
+	 * Tells whether the kernels use the Vector API.
+	 * @return true iff the vector backend is in use.
+	 */
+	public static boolean isVectorized() {
+		return BACKEND != null;
+	}
+
+
+	// Not varargs, so that checking allocates nothing.
+	private static void check(int n, double[] out, int[] a, int[] b) {
+		if (n < 0 || out.length < n || a.length < n || b.length < n)
+			throw new IndexOutOfBoundsException("n = " + n + " exceeds an array length");
+	}
+
+
+	/**
+	 * Computes the distances between pairs of points.
+	 * @requires all arrays have at least n elements && all coordinates are
+	 *           valid GeoPoint coordinates
+	 * @modifies out
+	 * @effects out[i] = distance from (lat1[i], lon1[i]) to
+	 *          (lat2[i], lon2[i]) for 0 <= i < n, in kilometers.
+	 */
+	public static void distances(int[] lat1, int[] lon1, int[] lat2, int[] lon2, double[] out, int n) {
+		check(n, out, lat1, lon1);
+		check(n, out, lat2, lon2);
+		int i = BACKEND == null ? 0 : BACKEND.distances(lat1, lon1, lat2, lon2, out, n);
+		for (; i < n; i++)
+			out[i] = GeoPoint.distance(lat1[i], lon1[i], lat2[i], lon2[i]);
+	}
+
+
+	/**
+	 * Computes the distances from one point to many.
+	 * @requires lats, lons have at least n elements && all coordinates are
+	 *           valid GeoPoint coordinates
+	 * @modifies out
+	 * @effects out[i] = distance from (lat, lon) to (lats[i], lons[i]) for
+	 *          0 <= i < n, in kilometers.
+	 */
+	public static void distances(int lat, int lon, int[] lats, int[] lons, double[] out, int n) {
+		check(n, out, lats, lons);
+		int i = BACKEND == null ? 0 : BACKEND.distances(lat, lon, lats, lons, out, n);
+		for (; i < n; i++)
+			out[i] = GeoPoint.distance(lat, lon, lats[i], lons[i]);
+	}
+
+
+	/**
+	 * Computes the headings between pairs of points.
+	 * @requires all arrays have at least n elements && all coordinates are
+	 *           valid GeoPoint coordinates && no pair is of equal points
+	 * @modifies out
+	 * @effects out[i] = compass heading from (lat1[i], lon1[i]) to
+	 *          (lat2[i], lon2[i]) for 0 <= i < n, in degrees.
+	 */
+	public static void headings(int[] lat1, int[] lon1, int[] lat2, int[] lon2, double[] out, int n) {
+		check(n, out, lat1, lon1);
+		check(n, out, lat2, lon2);
+		int i = BACKEND == null ? 0 : BACKEND.headings(lat1, lon1, lat2, lon2, out, n);
+		for (; i < n; i++)
+			out[i] = GeoPoint.heading(lat1[i], lon1[i], lat2[i], lon2[i]);
+	}
+
+
+	/**
+	 * Computes the headings from one point to many.
+	 * @requires lats, lons have at least n elements && all coordinates are
+	 *           valid GeoPoint coordinates && (lat, lon) is not among them
+	 * @modifies out
+	 * @effects out[i] = compass heading from (lat, lon) to
+	 *          (lats[i], lons[i]) for 0 <= i < n, in degrees.
+	 */
+	public static void headings(int lat, int lon, int[] lats, int[] lons, double[] out, int n) {
+		check(n, out, lats, lons);
+		int i = BACKEND == null ? 0 : BACKEND.headings(lat, lon, lats, lons, out, n);
+		for (; i < n; i++)
+			out[i] = GeoPoint.heading(lat, lon, lats[i], lons[i]);
+	}
+}
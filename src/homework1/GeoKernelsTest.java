@@ -0,0 +1,96 @@
+package homework1;
+
+import java.util.Random;
+
+public class GeoKernelsTest {
+
+	private static final int N = 1001;		// not a multiple of any vector length
+
+	private int[] mLat1 = new int[N], mLon1 = new int[N], mLat2 = new int[N], mLon2 = new int[N];
+
+
+	public GeoKernelsTest() {
+		Random random = new Random(5);
+		for (int i = 0; i < N; i++) {
+			// half near the Technion, half anywhere
+			int spread = i % 2 == 0 ? 100000 : GeoPoint.MAX_LATITUDE;
+			mLat1[i] = 32778000 + random.nextInt(2 * 100000) - 100000;
+			mLon1[i] = 35021000 + random.nextInt(2 * 100000) - 100000;
+			mLat2[i] = Math.max(GeoPoint.MIN_LATITUDE,
+				Math.min(GeoPoint.MAX_LATITUDE, mLat1[i] + random.nextInt(2 * spread) - spread));
+			mLon2[i] = mLon1[i] + random.nextInt(2 * spread) - spread;
+			if (mLat2[i] == mLat1[i] && mLon2[i] == mLon1[i])
+				mLon2[i]++;
+		}
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static boolean sameHeading(double a, double b) {
+		double d = Math.abs(a - b);
+		return Math.min(d, 360 - d) <= 1e-9 && a >= 0 && a < 360;
+	}
+
+
+	public void test() {
+		show("GeoKernels (" + (GeoKernels.isVectorized() ? "vector" : "scalar") + ")");
+		double[] out = new double[N];
+
+		GeoKernels.distances(mLat1, mLon1, mLat2, mLon2, out, N);
+		boolean ok = true;
+		for (int i = 0; i < N; i++) {
+			double d = new GeoPoint(mLat1[i], mLon1[i]).distanceTo(new GeoPoint(mLat2[i], mLon2[i]));
+			ok &= Math.abs(out[i] - d) <= Math.ulp(d);
+		}
+		show("Pairwise distances equal distanceTo()", ok);
+
+		GeoKernels.headings(mLat1, mLon1, mLat2, mLon2, out, N);
+		ok = true;
+		for (int i = 0; i < N; i++)
+			ok &= sameHeading(out[i], new GeoPoint(mLat1[i], mLon1[i]).headingTo(new GeoPoint(mLat2[i], mLon2[i])));
+		show("Pairwise headings equal headingTo()", ok);
+
+		GeoPoint from = new GeoPoint(mLat1[0], mLon1[0]);
+		GeoKernels.distances(from.getLatitude(), from.getLongitude(), mLat2, mLon2, out, N);
+		ok = true;
+		for (int i = 0; i < N; i++) {
+			double d = from.distanceTo(new GeoPoint(mLat2[i], mLon2[i]));
+			ok &= Math.abs(out[i] - d) <= Math.ulp(d);
+		}
+		show("One-to-many distances equal distanceTo()", ok);
+
+		GeoKernels.headings(from.getLatitude(), from.getLongitude(), mLat2, mLon2, out, N - 1);
+		ok = out[N - 1] == from.distanceTo(new GeoPoint(mLat2[N - 1], mLon2[N - 1]));
+		for (int i = 0; i < N - 1; i++)
+			ok &= sameHeading(out[i], from.headingTo(new GeoPoint(mLat2[i], mLon2[i])));
+		show("One-to-many headings equal headingTo(), only n are written", ok);
+
+		boolean thrown = false;
+		try {
+			GeoKernels.distances(mLat1, mLon1, mLat2, new int[N - 1], out, N);
+		} catch (IndexOutOfBoundsException e) {
+			thrown = true;
+		}
+		show("Short arrays are rejected", thrown);
+	}
+
+
+	public static void main(String[] args) {
+		GeoKernelsTest kernelsTest = new GeoKernelsTest();
+		kernelsTest.test();
+	}
+}
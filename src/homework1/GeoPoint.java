@@ -1,6 +1,5 @@
 package homework1;
 
-import java.util.Objects;
 
 /**
  * A GeoPoint is a point on the earth. GeoPoints are immutable.
@@ -59,6 +58,9 @@ public class GeoPoint {
   	
   	
   	private int latitude, longitude;
+
+  	// The canonical GeoPoints, shared by GeoSegments (see intern()).
+  	private static final InternPool<GeoPoint> POOL = new InternPool<GeoPoint>();
   	
 	// Implementation hint:
 	// Doubles and floating point math can cause some problems. The exact
@@ -135,14 +137,59 @@ public class GeoPoint {
      **/
   	public double distanceTo(GeoPoint gp) {
   		checkRep();
-  		double x, y;
-  		x = Math.abs((gp.getLongitude() - this.getLongitude()) * KM_PER_DEGREE_LONGITUDE / 1000000);
-  		y = Math.abs((gp.getLatitude() - this.getLatitude() )* KM_PER_DEGREE_LATITUDE / 1000000);
+  		double distance = distance(this.latitude, this.longitude, gp.latitude, gp.longitude);
   		checkRep();
+  		return distance;
+  	}
+
+
+  	/**
+     * Computes the distance between two points given by their coordinates.
+     * This is the computation behind distanceTo(), exposed for classes
+     * that store coordinates without GeoPoint objects. The MathMode in use
+     * decides how the square is computed.
+     * @requires both points are valid GeoPoint coordinates
+     * @return the distance from (lat1, lon1) to (lat2, lon2), in
+     *         kilometers, using the flat-surface, near the Technion
+     *         approximation.
+     **/
+  	static double distance(int lat1, int lon1, int lat2, int lon2) {
+  		if (MathMode.fast)
+  			return Math.sqrt(distanceSquared(lat1, lon1, lat2, lon2));
+  		double x, y;
+  		x = Math.abs((lon2 - lon1) * KM_PER_DEGREE_LONGITUDE / 1000000);
+  		y = Math.abs((lat2 - lat1) * KM_PER_DEGREE_LATITUDE / 1000000);
   		return  Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2));
   	}
 
 
+  	/**
+     * Computes the square of the distance between GeoPoints, for code that
+     * only compares distances and so never needs the square root.
+     * @requires gp != null
+     * @return the square of distanceTo(gp), in square kilometers, to
+     *         within rounding.
+     **/
+  	public double distanceSquaredTo(GeoPoint gp) {
+  		checkRep();
+  		return distanceSquared(this.latitude, this.longitude, gp.latitude, gp.longitude);
+  	}
+
+
+  	/**
+     * Computes the square of the distance between two points given by
+     * their coordinates.
+     * @requires both points are valid GeoPoint coordinates
+     * @return the square of distance(lat1, lon1, lat2, lon2), to within
+     *         rounding.
+     **/
+  	static double distanceSquared(int lat1, int lon1, int lat2, int lon2) {
+  		double x = (lon2 - lon1) * KM_PER_DEGREE_LONGITUDE / 1000000;
+  		double y = (lat2 - lat1) * KM_PER_DEGREE_LATITUDE / 1000000;
+  		return x * x + y * y;
+  	}
+
+
   	/**
      * Computes the compass heading between GeoPoints.
      * @requires gp != null && !this.equals(gp)
@@ -163,9 +210,7 @@ public class GeoPoint {
 		 // increase in the counterclockwise direction. 
 		checkRep();
 		
-		double dist1 = (gp.latitude - this.latitude) * KM_PER_DEGREE_LATITUDE;
-		double dist2 = (gp.longitude - this.longitude) * KM_PER_DEGREE_LONGITUDE;
-		double returnVal = (Math.atan2(dist2, dist1) * 180 / Math.PI + 360)%360;
+		double returnVal = heading(this.latitude, this.longitude, gp.latitude, gp.longitude);
 
 		checkRep();
 		return returnVal;  	  
@@ -174,6 +219,24 @@ public class GeoPoint {
   	}
 
 
+  	/**
+     * Computes the compass heading between two points given by their
+     * coordinates. This is the computation behind headingTo(), exposed for
+     * classes that store coordinates without GeoPoint objects. The
+     * MathMode in use decides how atan2 is computed.
+     * @requires both points are valid GeoPoint coordinates &&
+     *           (lat1 != lat2 || lon1 != lon2)
+     * @return the compass heading h from (lat1, lon1) to (lat2, lon2), in
+     *         degrees, such that 0 <= h < 360.
+     **/
+  	static double heading(int lat1, int lon1, int lat2, int lon2) {
+		double dist1 = (lat2 - lat1) * KM_PER_DEGREE_LATITUDE;
+		double dist2 = (lon2 - lon1) * KM_PER_DEGREE_LONGITUDE;
+		double angle = MathMode.fast ? MathMode.atan2(dist2, dist1) : Math.atan2(dist2, dist1);
+		return (angle * 180 / Math.PI + 360)%360;
+  	}
+
+
   	/**
      * Compares the specified Object with this GeoPoint for equality.
      * @return gp != null && (gp instanceof GeoPoint) &&
@@ -192,10 +255,21 @@ public class GeoPoint {
      * @return a hash code value for this GeoPoint.
    	 **/
   	public int hashCode() {
-    	// This implementation will work, but you may want to modify it
-    	// for improved performance.
   		checkRep();
-    	return Objects.hash(latitude, longitude);
+  		// the value of Objects.hash(latitude, longitude), without boxing
+    	return 31 * (31 + latitude) + longitude;
+  	}
+
+
+  	/**
+     * Returns the canonical GeoPoint equal to this, like String.intern():
+     * for any GeoPoints p and q, p.intern() == q.intern() iff p.equals(q).
+     * Networks where many segments meet at one intersection need only keep
+     * one GeoPoint for it.
+     * @return the canonical GeoPoint gp such that gp.equals(this).
+     **/
+  	public GeoPoint intern() {
+  		return POOL.intern(this);
   	}
 
 
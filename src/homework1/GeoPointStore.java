@@ -0,0 +1,228 @@
+package homework1;
+
+import java.util.Arrays;
+
+/**
+ * A GeoPointStore holds a growable collection of points on the earth
+ * without allocating a GeoPoint object per point. Each point is packed into
+ * a single long, latitude in the high 32 bits and longitude in the low 32
+ * bits, and is addressed by an int id: the ids of the points are 0, 1, 2,
+ * ... in the order the points were added.
+ * <p>
+ * Distances and headings are computed exactly as GeoPoint.distanceTo() and
+ * GeoPoint.headingTo() compute them. Code that needs a GeoPoint can get an
+ * equal one from get(); it is created on demand and not retained.
+ * <p>
+ * Points cannot be removed or changed once added. A GeoPointStore is not
+ * safe for concurrent modification; once filled, it may be read by any
+ * number of threads.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   points : sequence of (latitude, longitude)  // in millionths of degrees
+ *   size : integer                              // number of points
+ * </pre>
+ **/
+public class GeoPointStore {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private long[] coordinates;
+	private int size;
+
+	// Abstract Function:
+	// size = this.size,
+	// points[i] = (latitude(coordinates[i]), longitude(coordinates[i]))
+	// for 0 <= i < size.
+
+	// Representation invariant:
+	// coordinates != null && 0 <= size <= coordinates.length &&
+	// every packed point in coordinates[0..size) is a valid GeoPoint.
+
+	private void checkRep() {
+		assert coordinates != null : "coordinates != null";
+		assert 0 <= size && size <= coordinates.length : "0 <= size <= capacity";
+	}
+
+
+	/**
+	 * Constructs an empty GeoPointStore.
+	 * @effects constructs a GeoPointStore with points = [].
+	 **/
+	public GeoPointStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+
+	/**
+	 * Constructs an empty GeoPointStore with room for capacity points
+	 * before it has to grow.
+	 * @requires capacity >= 0
+	 * @effects constructs a GeoPointStore with points = [].
+	 **/
+	public GeoPointStore(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("capacity < 0: " + capacity);
+		coordinates = new long[capacity];
+		size = 0;
+		checkRep();
+	}
+
+
+	/**
+	 * Packs a latitude and a longitude into a long.
+	 * @return a long from which latitude() and longitude() return the
+	 *         given values.
+	 **/
+	static long pack(int latitude, int longitude) {
+		return ((long)latitude << 32) | (longitude & 0xFFFFFFFFL);
+	}
+
+
+	/**
+	 * Returns the latitude of a packed point.
+	 * @return the latitude of packed, in millionths of degrees.
+	 **/
+	static int latitude(long packed) {
+		return (int)(packed >> 32);
+	}
+
+
+	/**
+	 * Returns the longitude of a packed point.
+	 * @return the longitude of packed, in millionths of degrees.
+	 **/
+	static int longitude(long packed) {
+		return (int)packed;
+	}
+
+
+	/**
+	 * Returns whether the given coordinates are those of a valid GeoPoint.
+	 * @return (MIN_LATITUDE <= latitude <= MAX_LATITUDE) &&
+	 *         (MIN_LONGITUDE <= longitude <= MAX_LONGITUDE)
+	 **/
+	static boolean isValid(int latitude, int longitude) {
+		return GeoPoint.MIN_LATITUDE <= latitude && latitude <= GeoPoint.MAX_LATITUDE
+				&& GeoPoint.MIN_LONGITUDE <= longitude && longitude <= GeoPoint.MAX_LONGITUDE;
+	}
+
+
+	/**
+	 * Adds a point to this.
+	 * @requires the point is a valid GeoPoint, i.e.
+	 *           (MIN_LATITUDE <= latitude <= MAX_LATITUDE) and
+	 *           (MIN_LONGITUDE <= longitude <= MAX_LONGITUDE)
+	 * @modifies this
+	 * @effects appends (latitude, longitude) to points.
+	 * @return the id of the added point, i.e. the old size.
+	 * @throws IllegalArgumentException if the point is not valid.
+	 **/
+	public int add(int latitude, int longitude) {
+		if (!isValid(latitude, longitude))
+			throw new IllegalArgumentException(
+					"invalid point: (" + latitude + ", " + longitude + ")");
+		if (size == coordinates.length)
+			coordinates = Arrays.copyOf(coordinates,
+					Math.max(DEFAULT_CAPACITY, coordinates.length + (coordinates.length >> 1)));
+		coordinates[size] = pack(latitude, longitude);
+		int id = size++;
+		checkRep();
+		return id;
+	}
+
+
+	/**
+	 * Adds a point to this.
+	 * @requires gp != null
+	 * @modifies this
+	 * @effects appends (gp.latitude, gp.longitude) to points.
+	 * @return the id of the added point, i.e. the old size.
+	 **/
+	public int add(GeoPoint gp) {
+		return add(gp.getLatitude(), gp.getLongitude());
+	}
+
+
+	/**
+	 * Returns the number of points in this.
+	 * @return the number of points in this.
+	 **/
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Returns the latitude of a point.
+	 * @requires 0 <= id < size
+	 * @return the latitude of points[id], in millionths of degrees.
+	 **/
+	public int getLatitude(int id) {
+		return latitude(coordinates[checkId(id)]);
+	}
+
+
+	/**
+	 * Returns the longitude of a point.
+	 * @requires 0 <= id < size
+	 * @return the longitude of points[id], in millionths of degrees.
+	 **/
+	public int getLongitude(int id) {
+		return longitude(coordinates[checkId(id)]);
+	}
+
+
+	/**
+	 * Returns a GeoPoint equal to a point of this.
+	 * @requires 0 <= id < size
+	 * @return a new GeoPoint gp such that gp.latitude = points[id].latitude
+	 *         && gp.longitude = points[id].longitude
+	 **/
+	public GeoPoint get(int id) {
+		long packed = coordinates[checkId(id)];
+		return new GeoPoint(latitude(packed), longitude(packed));
+	}
+
+
+	/**
+	 * Computes the distance between two points of this.
+	 * @requires 0 <= from < size && 0 <= to < size
+	 * @return get(from).distanceTo(get(to))
+	 **/
+	public double distance(int from, int to) {
+		long p = coordinates[checkId(from)];
+		long q = coordinates[checkId(to)];
+		return GeoPoint.distance(latitude(p), longitude(p), latitude(q), longitude(q));
+	}
+
+
+	/**
+	 * Computes the compass heading between two points of this.
+	 * @requires 0 <= from < size && 0 <= to < size &&
+	 *           points[from] != points[to]
+	 * @return get(from).headingTo(get(to))
+	 **/
+	public double heading(int from, int to) {
+		long p = coordinates[checkId(from)];
+		long q = coordinates[checkId(to)];
+		return GeoPoint.heading(latitude(p), longitude(p), latitude(q), longitude(q));
+	}
+
+
+	/**
+	 * Returns the packed representation of a point, as built by pack().
+	 * @requires 0 <= id < size
+	 * @return the packed representation of points[id].
+	 **/
+	long packed(int id) {
+		return coordinates[checkId(id)];
+	}
+
+
+	private int checkId(int id) {
+		if (id < 0 || id >= size)
+			throw new IndexOutOfBoundsException("id: " + id + ", size: " + size);
+		return id;
+	}
+}
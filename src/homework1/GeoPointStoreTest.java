@@ -0,0 +1,121 @@
+package homework1;
+
+import java.util.Random;
+
+public class GeoPointStoreTest {
+
+	private GeoPoint[] points = ExampleGeoSegments.points;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static boolean rejects(GeoPointStore store, int latitude, int longitude) {
+		try {
+			store.add(latitude, longitude);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	private static boolean outOfBounds(GeoPointStore store, int id) {
+		try {
+			store.get(id);
+			return false;
+		} catch (IndexOutOfBoundsException e) {
+			return true;
+		}
+	}
+
+
+	public void testAdd() {
+		show("add() and get()");
+		GeoPointStore store = new GeoPointStore(0);
+		boolean ids = true, same = true;
+		for (int i = 0; i < points.length; i++)
+			ids &= store.add(points[i]) == i;
+		show("Ids are given in the order of addition, past the initial capacity",
+				ids && store.size() == points.length);
+		for (int i = 0; i < points.length; i++)
+			same &= store.get(i).equals(points[i])
+				&& store.getLatitude(i) == points[i].getLatitude()
+				&& store.getLongitude(i) == points[i].getLongitude();
+		show("get() returns points equal to those added", same);
+		show("Ids outside 0..size-1 are rejected",
+				outOfBounds(store, -1) && outOfBounds(store, points.length));
+		show("Negative capacity is rejected", negativeCapacity());
+	}
+
+
+	private static boolean negativeCapacity() {
+		try {
+			new GeoPointStore(-1);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	public void testRange() {
+		show("Range checks");
+		GeoPointStore store = new GeoPointStore();
+		show("The corners of the valid range are accepted",
+				store.add(GeoPoint.MIN_LATITUDE, GeoPoint.MIN_LONGITUDE) == 0
+				&& store.add(GeoPoint.MAX_LATITUDE, GeoPoint.MAX_LONGITUDE) == 1
+				&& store.get(0).equals(new GeoPoint(GeoPoint.MIN_LATITUDE, GeoPoint.MIN_LONGITUDE))
+				&& store.get(1).equals(new GeoPoint(GeoPoint.MAX_LATITUDE, GeoPoint.MAX_LONGITUDE)));
+		show("Latitudes just outside the range are rejected",
+				rejects(store, GeoPoint.MIN_LATITUDE - 1, 0) && rejects(store, GeoPoint.MAX_LATITUDE + 1, 0));
+		show("Longitudes just outside the range are rejected",
+				rejects(store, 0, GeoPoint.MIN_LONGITUDE - 1) && rejects(store, 0, GeoPoint.MAX_LONGITUDE + 1));
+		show("Rejected points are not added", store.size() == 2);
+	}
+
+
+	public void testGeometry() {
+		show("distance() and heading()");
+		Random random = new Random(4);
+		GeoPointStore store = new GeoPointStore();
+		GeoPoint[] added = new GeoPoint[200];
+		for (int i = 0; i < added.length; i++) {
+			added[i] = new GeoPoint(32783098 + random.nextInt(200000) - 100000,
+					35014528 + random.nextInt(200000) - 100000);
+			store.add(added[i]);
+		}
+		boolean distances = true, headings = true;
+		for (int i = 0; i < added.length; i++) {
+			for (int j = 0; j < added.length; j++) {
+				distances &= store.distance(i, j) == added[i].distanceTo(added[j]);
+				if (!added[i].equals(added[j]))
+					headings &= store.heading(i, j) == added[i].headingTo(added[j]);
+			}
+		}
+		show("distance() equals GeoPoint.distanceTo()", distances);
+		show("heading() equals GeoPoint.headingTo()", headings);
+	}
+
+
+	public static void main(String[] args) {
+		GeoPointStoreTest test = new GeoPointStoreTest();
+		test.testAdd();
+		test.testRange();
+		test.testGeometry();
+		System.out.println();
+		System.out.println("Test passed correctly");
+	}
+}
@@ -1,6 +1,5 @@
 package homework1;
 
-import java.util.Objects;
 
 /**
  * A GeoSegment models a straight line segment on the earth. GeoSegments 
@@ -39,7 +38,10 @@ import java.util.Objects;
  *   p2 : GeoPoint       // second endpoint of the segment
  *   length : real       // straight-line distance between p1 and p2, in kilometers
  *   heading : angle     // compass heading from p1 to p2, in degrees
+ *   model : DistanceModel // measures length and heading; FLAT by default
  * </pre>
+ * The model is not part of a GeoSegment's identity: segments with the same
+ * name and endpoints are equal whatever their models.
  **/
 public class GeoSegment  {
 
@@ -53,6 +55,7 @@ public class GeoSegment  {
 		assert this.p1 != null : "p1 != null";
 		assert this.p2 != null : "p2 != null";
 		assert this.name != null : "name != null";
+		assert this.model != null : "model != null";
 		assert this.length >= 0 : "length >= 0";
 		assert 0 <= this.heading && this.heading <= 360;
 	}
@@ -60,18 +63,69 @@ public class GeoSegment  {
 	private String name;
 	private GeoPoint p1, p2;
 	private double length, heading;
+	private DistanceModel model;
 
   	/**
      * Constructs a new GeoSegment with the specified name and endpoints.
      * @requires name != null && p1 != null && p2 != null
      * @effects constructs a new GeoSegment with the specified name and endpoints.
+     *          The name and endpoints are interned (see String.intern() and
+     *          GeoPoint.intern()), so that all segments share one String per
+     *          name and one GeoPoint per location, and names can be compared
+     *          with ==.
      **/
   	public GeoSegment(String name, GeoPoint p1, GeoPoint p2) {
+  		this(name, p1, p2, StandardDistanceModel.FLAT);
+  	}
+
+
+  	/**
+     * Constructs a new GeoSegment with the specified name and endpoints,
+     * whose length and heading are measured by model.
+     * @requires name != null && p1 != null && p2 != null && model != null
+     * @effects constructs a new GeoSegment with the specified name and
+     *          endpoints, interned as by GeoSegment(name, p1, p2), such that
+     *          length = model.distance(p1, p2) and
+     *          heading = model.heading(p1, p2).
+     **/
+  	public GeoSegment(String name, GeoPoint p1, GeoPoint p2, DistanceModel model) {
+  		init(name.intern(), p1.intern(), p2.intern(), model);
+  	}
+
+
+  	/**
+  	 * Constructs a GeoSegment from a name and endpoints that are already
+  	 * interned, for decoders that intern each value once rather than once
+  	 * per segment.
+  	 * @requires name == name.intern() && p1 == p1.intern() &&
+  	 *           p2 == p2.intern() && model != null
+  	 * @return a GeoSegment equal to new GeoSegment(name, p1, p2, model).
+  	 **/
+  	static GeoSegment ofInterned(String name, GeoPoint p1, GeoPoint p2, DistanceModel model) {
+  		GeoSegment segment = new GeoSegment();
+  		segment.init(name, p1, p2, model);
+  		return segment;
+  	}
+
+
+  	// Constructs a GeoSegment for ofInterned() to initialize.
+  	private GeoSegment() {
+  	}
+
+
+  	// Sets the fields from an interned name and endpoints.
+  	private void init(String name, GeoPoint p1, GeoPoint p2, DistanceModel model) {
   		this.name = name;
   		this.p1 = p1;
   		this.p2 = p2;
-  		length = p1.distanceTo(p2);
-  		heading = p1.headingTo(p2);
+  		this.model = model;
+  		if (model == StandardDistanceModel.FLAT) {
+  			length = p1.distanceTo(p2);
+  			heading = p1.headingTo(p2);
+  		} else {
+  			length = model.distance(p1.getLatitude(), p1.getLongitude(), p2.getLatitude(), p2.getLongitude());
+  			heading = model.heading(p1.getLatitude(), p1.getLongitude(), p2.getLatitude(), p2.getLongitude());
+  		}
   		checkRep();
   	}
 
@@ -83,12 +137,38 @@ public class GeoSegment  {
      **/
   	public GeoSegment reverse() {
   		checkRep();
-  		GeoSegment segment = new GeoSegment(name, p2, p1);
+  		GeoSegment segment = ofInterned(name, p2, p1, model);
   		checkRep();
   		return segment;
   	}
 
 
+  	/**
+     * Returns a GeoSegment like this one, measured by another model.
+     * @requires model != null
+     * @return this if model is the model of this, and otherwise a new
+     *         GeoSegment gs such that gs.name = this.name && gs.p1 = this.p1
+     *         && gs.p2 = this.p2, measured by model.
+     **/
+  	public GeoSegment withModel(DistanceModel model) {
+  		checkRep();
+  		if (model == this.model)
+  			return this;
+  		return ofInterned(name, p1, p2, model);
+  	}
+
+
+  	/**
+     * Returns the model that measures this GeoSegment.
+     * @return the DistanceModel that computed the length and heading of
+     *         this.
+     **/
+  	public DistanceModel getModel() {
+  		checkRep();
+  		return model;
+  	}
+
+
   	/**
   	 * Returns the name of this GeoSegment.
      * @return the name of this GeoSegment.
@@ -149,7 +229,7 @@ public class GeoSegment  {
    	 **/
   	public boolean equals(Object gs) {
   		checkRep();
-  		return gs != null && (gs instanceof GeoSegment) && ((GeoSegment)gs).getName().equals(this.name) 
+  		return gs != null && (gs instanceof GeoSegment) && ((GeoSegment)gs).getName() == this.name 
   				&& ((GeoSegment)gs).p1.equals(this.p1 )&& ((GeoSegment)gs).p2 .equals(this.p2);
   	}
 
@@ -159,10 +239,10 @@ public class GeoSegment  {
      * @return a hash code value for this.
      **/
   	public int hashCode() {
-    	// This implementation will work, but you may want to modify it 
-    	// for improved performance. 
   		checkRep();
-  		return Objects.hash(name, p2.hashCode(), p1.hashCode());
+  		// the value of Objects.hash(name, p2.hashCode(), p1.hashCode()),
+  		// without the varargs array and boxing
+  		return 31 * (31 * (31 + name.hashCode()) + p2.hashCode()) + p1.hashCode();
   	}
 
 
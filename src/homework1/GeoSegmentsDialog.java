@@ -4,19 +4,32 @@ import java.awt.Frame;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.util.Arrays;
+import java.util.List;
 import javax.swing.JDialog;
 import javax.swing.JList;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import javax.swing.JButton;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.JLabel;
+import javax.swing.SwingWorker;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 /**
  * A JDailog GUI for choosing a GeoSegemnt and adding it to the route shown
  * by RoutDirectionGUI.
  * <p>
+ * Only the segments that start at the end of the route are listed, and
+ * typing in the name field narrows them to the segments whose names start
+ * with the text typed. The segments are found in a SegmentNameIndex by a
+ * background worker; keys typed while it is busy are searched for
+ * together when it is done. The list has a fixed cell size, so it renders
+ * only its visible rows however many segments match.
+ * <p>
  * A figure showing this GUI can be found in homework assignment #1.
  */
 public class GeoSegmentsDialog extends JDialog {
@@ -25,31 +38,102 @@ public class GeoSegmentsDialog extends JDialog {
 
 	// the RouteDirectionsGUI that this JDialog was opened from
 	private RouteFormatterGUI parent;
-	
-	// a control contained in this 
+
+	// the segments to choose from
+	private final SegmentNameIndex index;
+
+	// the running search, and whether the query changed since it started
+	private SearchWorker searcher = null;
+	private boolean changed = false;
+
+	// the controls contained in this, and the model of the list
 	private JList<GeoSegment> lstSegments;
-	
+	private JTextField txtName;
+	private final TailListModel<GeoSegment> found = new TailListModel<GeoSegment>();
+
+
+	/**
+	 * A SearchWorker finds the segments that match a query.
+	 */
+	private final class SearchWorker extends SwingWorker<List<GeoSegment>, Void> {
+
+		private final String prefix;
+		private final GeoPoint from;
+
+		SearchWorker(String prefix, GeoPoint from) {
+			this.prefix = prefix;
+			this.from = from;
+		}
+
+		protected List<GeoSegment> doInBackground() {
+			return index.find(prefix, from);
+		}
+
+		protected void done() {
+			searcher = null;
+			try {
+				found.setTail(0, get());
+			} catch (Exception e) {
+				throw new IllegalStateException(e);		// find() does not throw
+			}
+			if (found.getSize() > 0)
+				lstSegments.setSelectedIndex(0);
+			if (changed)
+				search();
+		}
+	}
+
+
 	/**
 	 * Creates a new GeoSegmentsDialog JDialog.
 	 * @effects Creates a new GeoSegmentsDialog JDialog with owner-frame
-	 * 			owner and parent pnlParent
+	 * 			owner and parent pnlParent, for choosing among
+	 * 			ExampleGeoSegments.segments
 	 */
 	public GeoSegmentsDialog(Frame owner, RouteFormatterGUI pnlParent) {
+		this(owner, pnlParent, new SegmentNameIndex(Arrays.asList(ExampleGeoSegments.segments)));
+	}
+
+
+	/**
+	 * Creates a new GeoSegmentsDialog JDialog.
+	 * @requires index != null
+	 * @effects Creates a new GeoSegmentsDialog JDialog with owner-frame
+	 * 			owner and parent pnlParent, for choosing among the segments
+	 * 			of index
+	 */
+	public GeoSegmentsDialog(Frame owner, RouteFormatterGUI pnlParent, SegmentNameIndex index) {
 		// create a modal JDialog with the an owner Frame (a modal window
 		// in one that doesn't allow other windows to be active at the
 		// same time).
 		super(owner, "Please choose a GeoSegment", true);
 		
 		this.parent = pnlParent;
+		this.index = index;
 		
-		lstSegments = new JList<GeoSegment>(ExampleGeoSegments.segments);
+		lstSegments = new JList<GeoSegment>(found);
 		lstSegments.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		RouteFormatterGUI.fixCellSize(lstSegments,
+				"GeoSegment: Derech Hashalom Street (32000000,35000000)-(32000000,35000000)");
 		
 		JScrollPane segmentScroller = new JScrollPane(lstSegments);
 		
 		JLabel segmentLable = new JLabel("Geo Segments:");
 		segmentLable.setLabelFor(lstSegments);
 		
+		txtName = new JTextField();
+		txtName.getDocument().addDocumentListener(new DocumentListener() {
+			public void insertUpdate(DocumentEvent e) {
+				search();
+			}
+			public void removeUpdate(DocumentEvent e) {
+				search();
+			}
+			public void changedUpdate(DocumentEvent e) {
+				search();
+			}
+		});
+
 		JButton addButton = new JButton("Add");
 	    JButton cancelButton = new JButton("cancel");
 	     
@@ -58,6 +142,8 @@ public class GeoSegmentsDialog extends JDialog {
 	          if(lstSegments.getSelectedValue()!=null){
 	  
 	        	  parent.addSegment(lstSegments.getSelectedValue());
+	        	  // the route ends elsewhere now
+	        	  search();
 	        
 	        	  
 	          }
@@ -89,6 +175,14 @@ public class GeoSegmentsDialog extends JDialog {
 		c.gridx = 0;
 		c.gridy = 1;
 		c.gridwidth = 1;
+		c.gridheight = 1;
+		c.insets = new Insets(0,0,5,0);
+		gridbag.setConstraints(txtName, c);
+		this.add(txtName);
+		
+		c.gridx = 0;
+		c.gridy = 2;
+		c.gridwidth = 1;
 		c.gridheight = 5;
 		c.insets = new Insets(0,0,0,0);
 		gridbag.setConstraints(segmentScroller, c);
@@ -98,7 +192,7 @@ public class GeoSegmentsDialog extends JDialog {
 		
 		c.anchor = GridBagConstraints.LAST_LINE_START;
 		c.gridx = 0;
-		c.gridy = 6;
+		c.gridy = 7;
 		c.gridwidth = 1;
 		c.gridheight = 1;
 		c.insets = new Insets(0,0,20,0);
@@ -107,11 +201,37 @@ public class GeoSegmentsDialog extends JDialog {
 		
 		c.anchor = GridBagConstraints.LAST_LINE_END;
 		c.gridx = 0;
-		c.gridy = 6;
+		c.gridy = 7;
 		c.gridwidth = 1;
 		c.gridheight = 1;
 		c.insets = new Insets(0,0,20,0);
 		gridbag.setConstraints(cancelButton, c);
 		this.add(cancelButton);
 	}
+
+
+	/**
+	 * Shows or hides this.
+	 * @effects Lists the segments that can be added to the route before
+	 * 			showing this.
+	 */
+	public void setVisible(boolean visible) {
+		if(visible)
+			search();
+		super.setVisible(visible);
+	}
+
+
+	// Starts a search for the segments that match the name typed and
+	// start at the end of the route, or marks the query changed if a
+	// search is running.
+	private void search() {
+		if(searcher != null){
+			changed = true;
+			return;
+		}
+		changed = false;
+		searcher = new SearchWorker(txtName.getText(), parent.getRouteEnd());
+		searcher.execute();
+	}
 }
@@ -0,0 +1,107 @@
+package homework1;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An InternPool holds one canonical instance of each distinct value, so
+ * that equal immutable values can share a single object: intern(x) returns
+ * the same object for all x that are equal. It is the flyweight pool
+ * behind GeoPoint.intern(), as the JVM's string table is behind
+ * String.intern().
+ * <p>
+ * The pool refers to its instances weakly: an instance that is no longer
+ * referenced anywhere else is dropped from the pool by the garbage
+ * collector, so a pool never keeps values alive. InternPools may be used
+ * by any number of threads at once.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   instances : set of T   // the canonical instances, no two of them equal
+ * </pre>
+ **/
+public final class InternPool<T> {
+
+	private final ConcurrentHashMap<Ref<T>, Ref<T>> map = new ConcurrentHashMap<Ref<T>, Ref<T>>();
+	private final ReferenceQueue<T> cleared = new ReferenceQueue<T>();
+
+	// Abstract Function:
+	// instances = {r.get() | r in map.keySet() && r.get() != null}
+
+	// Representation invariant:
+	// map.get(r) == r for every key r && no two keys have equal, non-null
+	// referents.
+
+
+	/**
+	 * Returns the canonical instance of a value.
+	 * @requires value != null
+	 * @modifies this
+	 * @effects adds value to instances if no instance equals it.
+	 * @return the element of instances that equals value.
+	 **/
+	public T intern(T value) {
+		expunge();
+		Ref<T> ref = new Ref<T>(value, cleared);
+		while (true) {
+			Ref<T> existing = map.putIfAbsent(ref, ref);
+			if (existing == null)
+				return value;
+			T instance = existing.get();
+			if (instance != null)
+				return instance;
+			map.remove(existing, existing);		// collected since the lookup
+		}
+	}
+
+
+	/**
+	 * Returns the number of canonical instances in this. Instances that are
+	 * no longer referenced may still be counted until they are collected.
+	 * @return the size of instances.
+	 **/
+	public int size() {
+		expunge();
+		return map.size();
+	}
+
+
+	// Removes the entries whose instance has been collected.
+	private void expunge() {
+		Object ref;
+		while ((ref = cleared.poll()) != null)
+			map.remove(ref);
+	}
+
+
+	/**
+	 * A Ref is a weak reference that is equal to the Refs to equal values,
+	 * and keeps the hash code of its value after it is cleared.
+	 */
+	private static final class Ref<T> extends WeakReference<T> {
+
+		private final int hash;
+
+		Ref(T value, ReferenceQueue<T> queue) {
+			super(value, queue);
+			hash = value.hashCode();
+		}
+
+		public boolean equals(Object o) {
+			if (o == this)
+				return true;
+			if (!(o instanceof Ref))
+				return false;
+			Ref<?> other = (Ref<?>) o;
+			if (hash != other.hash)
+				return false;
+			T value = get();
+			return value != null && value.equals(other.get());
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
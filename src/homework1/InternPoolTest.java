@@ -0,0 +1,72 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+public class InternPoolTest {
+
+	private GeoSegment[] segments = ExampleGeoSegments.segments;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	public void test() {
+		show("GeoPoint.intern()");
+		GeoPoint p = new GeoPoint(32783098, 35014528);
+		GeoPoint q = new GeoPoint(32783098, 35014528);
+		show("Equal points intern to the same object", p != q && p.intern() == q.intern());
+		show("Different points intern to different objects",
+			p.intern() != new GeoPoint(32783098, 35014529).intern());
+		show("intern() returns an equal point", p.intern().equals(p));
+
+		show("GeoSegment");
+		boolean shared = true;
+		for (int i = 1; i < segments.length; i++) {
+			for (int j = 0; j < i; j++) {
+				if (segments[i].getP1().equals(segments[j].getP2()))
+					shared &= segments[i].getP1() == segments[j].getP2();
+				if (segments[i].getName().equals(segments[j].getName()))
+					shared &= segments[i].getName() == segments[j].getName();
+			}
+		}
+		show("Segments share their points and names", shared);
+		String name = new String("Hankin Road");
+		GeoSegment built = new GeoSegment(name, new GeoPoint(1, 2), new GeoPoint(3, 4));
+		show("Names built at run time are interned", built.getName() == "Hankin Road");
+		show("reverse() keeps the interned points",
+			built.reverse().getP1() == built.getP2() && built.reverse().getName() == built.getName());
+
+		show("InternPool");
+		InternPool<List<Integer>> pool = new InternPool<List<Integer>>();
+		ConcurrentHashMap<Integer, List<Integer>> first = new ConcurrentHashMap<Integer, List<Integer>>();
+		boolean same = IntStream.range(0, 100000).parallel().allMatch(i -> {
+			List<Integer> value = new ArrayList<Integer>();
+			value.add(i % 1000);
+			List<Integer> canonical = pool.intern(value);
+			return first.computeIfAbsent(i % 1000, k -> canonical) == canonical;
+		});
+		show("Threads interning equal values get the same instance", same);
+		show("One instance per distinct value", pool.size() == 1000);
+	}
+
+
+	public static void main(String[] args) {
+		InternPoolTest poolTest = new InternPoolTest();
+		poolTest.test();
+	}
+}
@@ -0,0 +1,241 @@
+package homework1;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * LoadGenerator measures a DirectionsServer under load: a number of client
+ * threads send requests back to back for a given time, and the report
+ * gives the throughput and the latency percentiles of the responses.
+ * <p>
+ * A workload is a list of requests, each a query string that starts with
+ * '?': a query alone is sent as a GET request, and a query followed by a
+ * newline and a body as a POST request. Each client goes through the list from its own offset,
+ * around and around, so the clients ask for different routes at the same
+ * time.
+ * <p>
+ * Usage: <tt>java homework1.LoadGenerator</tt> starts a DirectionsServer on
+ * a free loopback port with a synthetic city of
+ * <tt>homework1.load.segments</tt> segments (default 2000), runs
+ * <tt>homework1.load.clients</tt> clients (default 8) against it for
+ * <tt>homework1.load.millis</tt> milliseconds (default 5000) after a
+ * warm-up of half as long, and prints the report. The workload is half
+ * GET requests between random points and half POST requests of random
+ * parts of the city, for walking and driving directions.
+ */
+public final class LoadGenerator {
+
+	/**
+	 * A Report holds the results of a load run. Reports are immutable.
+	 */
+	public static final class Report {
+
+		private final long[] latencies;		// sorted, in nanoseconds
+		private final long errors;
+		private final long nanos;
+
+		private Report(long[] latencies, long errors, long nanos) {
+			this.latencies = latencies;
+			this.errors = errors;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Returns the number of responses.
+		 * @return the number of requests that got a response.
+		 */
+		public int getRequests() {
+			return latencies.length;
+		}
+
+		/**
+		 * Returns the number of failed requests.
+		 * @return the number of responses with a status other than 200,
+		 *         and of requests that got no response.
+		 */
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * Returns the throughput.
+		 * @return responses per second over the run.
+		 */
+		public double getThroughput() {
+			return latencies.length * 1e9 / nanos;
+		}
+
+		/**
+		 * Returns a latency percentile.
+		 * @requires 0 <= p <= 100
+		 * @return the smallest latency, in milliseconds, that p percent of
+		 *         the responses did not exceed; 0 if there were none.
+		 */
+		public double getLatency(double p) {
+			if (latencies.length == 0)
+				return 0;
+			int rank = (int) Math.ceil(p / 100 * latencies.length);
+			return latencies[Math.max(0, Math.min(latencies.length - 1, rank - 1))] / 1e6;
+		}
+
+		/**
+		 * Returns a string representation of this.
+		 * @return the counts, throughput and p50, p99 and maximum latency.
+		 */
+		public String toString() {
+			return String.format(Locale.ROOT,
+					"%d requests, %d errors, %.0f requests/s, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+					getRequests(), errors, getThroughput(), getLatency(50), getLatency(99), getLatency(100));
+		}
+	}
+
+
+	private LoadGenerator() {
+	}
+
+
+	/**
+	 * Runs a workload against a server.
+	 * @requires uri is the address of a DirectionsServer's PATH &&
+	 *           workload is not empty && clients > 0 && millis >= 0
+	 * @effects sends the requests of workload to uri from clients threads
+	 *          for millis milliseconds.
+	 * @return the report of the run.
+	 * @throws InterruptedException if interrupted while waiting for the
+	 *         clients.
+	 */
+	public static Report run(final URI uri, final List<String> workload, int clients, long millis)
+			throws InterruptedException {
+		final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		final long deadline = System.nanoTime() + millis * 1000000;
+		final long[][] latencies = new long[clients][];
+		final int[] counts = new int[clients];
+		final long[] errors = new long[clients];
+		Thread[] threads = new Thread[clients];
+		long start = System.nanoTime();
+		for (int c = 0; c < clients; c++) {
+			final int client = c;
+			threads[c] = new Thread(() -> {
+				long[] own = new long[1024];
+				int n = 0;
+				int next = client * workload.size() / clients;
+				while (System.nanoTime() < deadline) {
+					HttpRequest request = request(uri, workload.get(next));
+					next = (next + 1) % workload.size();
+					long sent = System.nanoTime();
+					try {
+						HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+						if (response.statusCode() != 200)
+							errors[client]++;
+					} catch (IOException e) {
+						errors[client]++;
+						continue;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+					if (n == own.length)
+						own = Arrays.copyOf(own, 2 * n);
+					own[n++] = System.nanoTime() - sent;
+				}
+				latencies[client] = own;
+				counts[client] = n;
+			}, "load-client-" + c);
+			threads[c].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		long nanos = System.nanoTime() - start;
+
+		int total = 0;
+		long failed = 0;
+		for (int c = 0; c < clients; c++) {
+			total += counts[c];
+			failed += errors[c];
+		}
+		long[] all = new long[total];
+		for (int c = 0, at = 0; c < clients; at += counts[c], c++)
+			System.arraycopy(latencies[c], 0, all, at, counts[c]);
+		Arrays.sort(all);
+		return new Report(all, failed, nanos);
+	}
+
+
+	private static HttpRequest request(URI uri, String work) {
+		int newline = work.indexOf('\n');
+		if (newline < 0)
+			return HttpRequest.newBuilder(URI.create(uri + work)).GET().build();
+		return HttpRequest.newBuilder(URI.create(uri + work.substring(0, newline)))
+				.header("Content-Type", "text/plain; charset=utf-8")
+				.POST(HttpRequest.BodyPublishers.ofString(work.substring(newline + 1))).build();
+	}
+
+
+	private static String degrees(GeoPoint gp) {
+		return gp.getLatitude() / 1000000.0 + "," + gp.getLongitude() / 1000000.0;
+	}
+
+
+	/**
+	 * Makes a workload over a city.
+	 * @requires segments is a connected sequence of segments && size > 0
+	 * @return size requests, alternately GET requests between distinct
+	 *         endpoints of segments and POST requests of runs of up to 50
+	 *         consecutive segments, for walking and driving directions.
+	 */
+	static List<String> workload(GeoSegment[] segments, int size, long seed) {
+		Random random = new Random(seed);
+		List<String> workload = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			String mode = random.nextBoolean() ? "walking" : "driving";
+			if (i % 2 == 0) {
+				GeoPoint from = segments[random.nextInt(segments.length)].getP1();
+				GeoPoint to;
+				do {
+					to = segments[random.nextInt(segments.length)].getP2();
+				} while (to.equals(from));
+				workload.add("?from=" + degrees(from) + "&to=" + degrees(to) + "&mode=" + mode);
+			} else {
+				int first = random.nextInt(segments.length);
+				int last = Math.min(segments.length, first + 1 + random.nextInt(50));
+				StringBuilder body = new StringBuilder("?mode=").append(mode).append('\n');
+				for (int s = first; s < last; s++) {
+					GeoSegment gs = segments[s];
+					body.append(gs.getName()).append(',').append(degrees(gs.getP1()))
+						.append(',').append(degrees(gs.getP2())).append('\n');
+				}
+				workload.add(body.toString());
+			}
+		}
+		return workload;
+	}
+
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int segmentCount = Integer.getInteger("homework1.load.segments", 2000);
+		int clients = Integer.getInteger("homework1.load.clients", 8);
+		long millis = Long.getLong("homework1.load.millis", 5000);
+
+		GeoSegment[] segments = new RouteGenerator(1).segments(segmentCount, 8);
+		DirectionsServer server = new DirectionsServer(Arrays.asList(segments), 0);
+		try {
+			URI uri = URI.create("http://127.0.0.1:" + server.getPort() + DirectionsServer.PATH);
+			List<String> workload = workload(segments, 1000, 1);
+			System.out.println("Warm-up: " + run(uri, workload, clients, millis / 2));
+			System.out.println(clients + " clients, " + segmentCount + " segments, "
+					+ Runtime.getRuntime().availableProcessors() + " CPUs");
+			System.out.println(run(uri, workload, clients, millis));
+			System.out.println(server.getCache());
+		} finally {
+			server.stop(0);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package homework1;
+
+import java.util.Locale;
+
+/**
+ * A MathMode selects how GeoPoint computes distances and headings, the two
+ * computations behind every GeoSegment.
+ * <p>
+ * EXACT uses Math.atan2(), Math.pow() and Math.sqrt(), as GeoPoint always
+ * has. FAST gives the same results to within rounding, for less work:
+ * <ul>
+ * <li>Distances square with a multiplication instead of Math.pow(). The
+ *     result differs from EXACT by at most one ulp, and is usually the
+ *     same double.</li>
+ * <li>Headings use a table-driven atan2: the ratio of the smaller to the
+ *     larger coordinate difference, z in [0, 1], is rounded to the
+ *     nearest of 257 table points c = i/256, and
+ *     atan(z) = atan(c) + atan((z - c) / (1 + zc)), the second term being
+ *     a 5th degree polynomial in a value no larger than 1/512. The
+ *     truncation error of the polynomial is below 1e-19 radians, so the
+ *     error is that of double rounding: at most 1e-12 degrees from EXACT.
+ *     </li>
+ * </ul>
+ * Turn directions compare headings against whole degrees, so both modes
+ * give the same directions but for headings that fall within 1e-12
+ * degrees of a threshold.
+ * <p>
+ * The mode is chosen for the whole process with the system property
+ * <tt>homework1.math</tt> (<tt>exact</tt> or <tt>fast</tt>; EXACT when it
+ * is not set), and can be changed at runtime by setDefault(). Changing the
+ * mode does not change GeoSegments that already exist, which keep the
+ * length and heading they were constructed with.
+ */
+public enum MathMode {
+
+	/** Distances and headings computed with the java.lang.Math functions. */
+	EXACT,
+
+	/** Distances without Math.pow() and headings with a table-driven atan2. */
+	FAST;
+
+
+	/** System property selecting the mode. */
+	public static final String PROPERTY = "homework1.math";
+
+	/** Maximum difference between FAST and EXACT headings, in degrees. */
+	public static final double MAX_HEADING_ERROR = 1e-12;
+
+	// Read by GeoPoint on every distance and heading.
+	static volatile boolean fast = parse(System.getProperty(PROPERTY), EXACT) == FAST;
+
+	private static final int STEPS = 256;
+	// ATAN[i] = atan(i / STEPS)
+	private static final double[] ATAN = new double[STEPS + 1];
+
+	static {
+		for (int i = 0; i <= STEPS; i++)
+			ATAN[i] = Math.atan((double) i / STEPS);
+	}
+
+
+	/**
+	 * Parses a mode name, ignoring case.
+	 * @return the mode named by value, or dflt if value == null.
+	 * @throws IllegalArgumentException if value names no mode.
+	 */
+	static MathMode parse(String value, MathMode dflt) {
+		if (value == null)
+			return dflt;
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("unknown math mode: " + value);
+		}
+	}
+
+
+	/**
+	 * Returns the mode in use.
+	 * @return the mode GeoPoint computes distances and headings with.
+	 */
+	public static MathMode getDefault() {
+		return fast ? FAST : EXACT;
+	}
+
+
+	/**
+	 * Sets the mode in use.
+	 * @requires mode != null
+	 * @modifies the mode in use
+	 * @effects GeoPoint computes distances and headings with mode from now
+	 *          on.
+	 */
+	public static void setDefault(MathMode mode) {
+		if (mode == null)
+			throw new NullPointerException();
+		fast = mode == FAST;
+	}
+
+
+	/**
+	 * Computes the angle of the point (x, y), as Math.atan2(y, x) does, to
+	 * within MAX_HEADING_ERROR degrees.
+	 * @requires x, y are finite
+	 * @return the angle theta in radians, -pi <= theta <= pi, of the polar
+	 *         coordinates of (x, y); 0 if x = y = 0.
+	 */
+	static double atan2(double y, double x) {
+		double ax = Math.abs(x);
+		double ay = Math.abs(y);
+		if (ax == 0 && ay == 0)
+			return 0;
+		boolean steep = ay > ax;
+		double z = steep ? ax / ay : ay / ax;
+		int i = (int) (z * STEPS + 0.5);
+		double c = (double) i / STEPS;
+		double t = (z - c) / (1 + z * c);
+		double t2 = t * t;
+		double angle = ATAN[i] + t * (1 - t2 * (1.0 / 3 - t2 * 0.2));
+		if (steep)
+			angle = Math.PI / 2 - angle;
+		if (x < 0)
+			angle = Math.PI - angle;
+		return y < 0 ? -angle : angle;
+	}
+}
@@ -0,0 +1,102 @@
+package homework1;
+
+import java.util.Random;
+
+public class MathModeTest {
+
+	private static final int CORPUS = 200000;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static double degrees(double radians) {
+		return radians * 180 / Math.PI;
+	}
+
+
+	// The largest difference between MathMode.atan2() and Math.atan2(), in
+	// degrees, over random points and points on the axes and diagonals.
+	private static double atan2Error() {
+		Random random = new Random(1);
+		double max = 0;
+		for (int i = 0; i < 1000000; i++) {
+			double x = (random.nextInt(2000001) - 1000000) * 93.681;
+			double y = (random.nextInt(2000001) - 1000000) * 110.901;
+			max = Math.max(max, Math.abs(degrees(MathMode.atan2(y, x) - Math.atan2(y, x))));
+		}
+		double[] special = {0, 1, -1, 2.5, -2.5};
+		for (double x : special) {
+			for (double y : special) {
+				double exact = x == 0 && y == 0 ? 0 : Math.atan2(y, x);
+				max = Math.max(max, Math.abs(degrees(MathMode.atan2(y, x) - exact)));
+			}
+		}
+		return max;
+	}
+
+
+	public void test() {
+		MathMode saved = MathMode.getDefault();
+		GeoSegment[] corpus = new RouteGenerator(3).segments(CORPUS, 8);
+		int n = corpus.length;
+		double[] exactHeading = new double[n], fastHeading = new double[n];
+		double[] exactDistance = new double[n], fastDistance = new double[n];
+		for (MathMode mode : MathMode.values()) {
+			MathMode.setDefault(mode);
+			for (int i = 0; i < n; i++) {
+				GeoPoint p1 = corpus[i].getP1(), p2 = corpus[i].getP2();
+				(mode == MathMode.FAST ? fastHeading : exactHeading)[i] = p1.headingTo(p2);
+				(mode == MathMode.FAST ? fastDistance : exactDistance)[i] = p1.distanceTo(p2);
+			}
+		}
+		MathMode.setDefault(saved);
+
+		show("atan2()");
+		show("Within MAX_HEADING_ERROR of Math.atan2()", atan2Error() <= MathMode.MAX_HEADING_ERROR);
+
+		show("headingTo() & distanceTo()");
+		boolean headings = true, distances = true;
+		for (int i = 0; i < n; i++) {
+			headings &= Math.abs(fastHeading[i] - exactHeading[i]) <= MathMode.MAX_HEADING_ERROR
+				&& fastHeading[i] >= 0 && fastHeading[i] < 360;
+			distances &= Math.abs(fastDistance[i] - exactDistance[i]) <= Math.ulp(exactDistance[i]);
+		}
+		show("FAST headings are within MAX_HEADING_ERROR of EXACT ones", headings);
+		show("FAST distances are within one ulp of EXACT ones", distances);
+		GeoPoint p1 = corpus[0].getP1(), p2 = corpus[0].getP2();
+		show("distanceSquaredTo() is the square of distanceTo()",
+			Math.abs(p1.distanceSquaredTo(p2) - Math.pow(p1.distanceTo(p2), 2)) < 1e-12);
+
+		show("getTurnString()");
+		RouteFormatter formatter = new WalkingRouteFormatter();
+		boolean same = true;
+		for (int i = 1; i < n; i++) {
+			same &= formatter.getTurnString(exactHeading[i - 1], exactHeading[i])
+				.equals(formatter.getTurnString(fastHeading[i - 1], fastHeading[i]));
+		}
+		show("Same turns in both modes over " + CORPUS + " segments", same);
+
+		show("parse()");
+		show("Names are parsed ignoring case", MathMode.parse(" Fast", MathMode.EXACT) == MathMode.FAST);
+		show("No name gives the default", MathMode.parse(null, MathMode.EXACT) == MathMode.EXACT);
+	}
+
+
+	public static void main(String[] args) {
+		MathModeTest modeTest = new MathModeTest();
+		modeTest.test();
+	}
+}
@@ -0,0 +1,129 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A MinHeap is a priority queue of int items ordered by double keys, kept in
+ * primitive arrays so that adding and removing items allocates nothing
+ * once the heap has grown to its working size.
+ * <p>
+ * The same item may be added more than once; graph searches use this in
+ * place of a decrease-key operation and skip the stale entries when they
+ * are removed.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   entries : bag of (key : real, item : integer)
+ * </pre>
+ **/
+final class MinHeap {
+
+	private double[] keys;
+	private int[] items;
+	private int size;
+
+	// Abstract Function:
+	// entries = {(keys[i], items[i]) | 0 <= i < size}
+
+	// Representation invariant:
+	// 0 <= size <= keys.length == items.length &&
+	// keys[(i - 1) / 2] <= keys[i] for 0 < i < size.
+
+
+	/**
+	 * Constructs an empty MinHeap.
+	 * @effects constructs a MinHeap with entries = {}.
+	 **/
+	MinHeap() {
+		keys = new double[16];
+		items = new int[16];
+	}
+
+
+	/**
+	 * Returns whether this is empty.
+	 * @return entries = {}
+	 **/
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+
+	/**
+	 * Removes all entries.
+	 * @modifies this
+	 * @effects entries = {}
+	 **/
+	void clear() {
+		size = 0;
+	}
+
+
+	/**
+	 * Adds an entry.
+	 * @modifies this
+	 * @effects adds (key, item) to entries.
+	 **/
+	void add(double key, int item) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			items = Arrays.copyOf(items, size * 2);
+		}
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (keys[parent] <= key)
+				break;
+			keys[i] = keys[parent];
+			items[i] = items[parent];
+			i = parent;
+		}
+		keys[i] = key;
+		items[i] = item;
+	}
+
+
+	/**
+	 * Returns the smallest key.
+	 * @requires entries != {}
+	 * @return the smallest key in entries.
+	 **/
+	double peekKey() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return keys[0];
+	}
+
+
+	/**
+	 * Removes an entry with the smallest key.
+	 * @requires entries != {}
+	 * @modifies this
+	 * @effects removes an entry with the smallest key from entries.
+	 * @return the item of the removed entry.
+	 **/
+	int poll() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		int top = items[0];
+		size--;
+		double key = keys[size];
+		int item = items[size];
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && keys[child + 1] < keys[child])
+				child++;
+			if (key <= keys[child])
+				break;
+			keys[i] = keys[child];
+			items[i] = items[child];
+			i = child;
+		}
+		keys[i] = key;
+		items[i] = item;
+		return top;
+	}
+}
@@ -0,0 +1,218 @@
+package homework1;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A PersistentList is an immutable sequence of elements that supports
+ * appending an element at its end in constant time. PersistentLists are
+ * immutable.
+ * <p>
+ * Appending never copies: the new list holds a reference to the list it was
+ * created from, so a list and all the lists that were built by appending to
+ * it share the storage of their common prefix. This makes it suitable for
+ * representing immutable objects, such as Route and GeoFeature, that are
+ * built one element at a time.
+ * <p>
+ * The hash code of a list is computed when the list is created, from the
+ * hash code of its prefix, so hashCode() takes constant time and equals()
+ * can tell most unequal lists apart without visiting their elements. The
+ * elements must therefore not change their hash codes once appended.
+ * <p>
+ * Iteration visits the elements in the order in which they were appended.
+ * The links run from the end of a list to its start, so an iterator first
+ * copies the elements into an array: iterating takes memory linear in the
+ * size of the list. The iterators returned by this class do not support
+ * removal.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   elements : sequence    // the elements of this list, in append order
+ *   size : integer         // the number of elements in this list
+ * </pre>
+ **/
+final class PersistentList<E> implements Iterable<E> {
+
+	private static final PersistentList<?> EMPTY = new PersistentList<Object>(null, null, 0, 1);
+
+	private final PersistentList<E> prefix;
+	private final E last;
+	private final int size;
+	private final int hash;		// java.util.List.hashCode() of elements
+
+	// Abstract Function:
+	// elements = prefix.elements + [last] if size > 0, and [] otherwise.
+
+	// Representation invariant:
+	// size >= 0,
+	// size == 0 => prefix == null,
+	// size > 0 => prefix != null && prefix.size == size - 1,
+	// hash == 1 if size == 0, and 31 * prefix.hash + hash of last otherwise.
+
+	private void checkRep() {
+		assert size >= 0 : "size >= 0";
+		assert size > 0 || prefix == null : "the empty list has no prefix";
+		assert size == 0 || (prefix != null && prefix.size == size - 1) : "prefix size";
+		assert hash == (size == 0 ? 1 : 31 * prefix.hash + hashOf(last)) : "stale hash";
+	}
+
+
+	private static int hashOf(Object e) {
+		return e == null ? 0 : e.hashCode();
+	}
+
+
+	private PersistentList(PersistentList<E> prefix, E last, int size, int hash) {
+		this.prefix = prefix;
+		this.last = last;
+		this.size = size;
+		this.hash = hash;
+		checkRep();
+	}
+
+
+	/**
+	 * Returns the empty list.
+	 * @return a list l such that l.elements = [].
+	 **/
+	@SuppressWarnings("unchecked")
+	static <E> PersistentList<E> empty() {
+		return (PersistentList<E>)EMPTY;
+	}
+
+
+	/**
+	 * Creates a new list that is equal to this list with e appended to its
+	 * end. This list is not modified and shares its storage with the result.
+	 * @return a new list l such that l.elements = this.elements + [e].
+	 **/
+	PersistentList<E> append(E e) {
+		return new PersistentList<E>(this, e, size + 1, 31 * hash + hashOf(e));
+	}
+
+
+	/**
+	 * Returns the last element of this list.
+	 * @requires size > 0
+	 * @return the last element of this list.
+	 **/
+	E last() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return last;
+	}
+
+
+	/**
+	 * Returns this list without its last element.
+	 * @requires size > 0
+	 * @return the list l such that l.elements + [this.last()] = this.elements.
+	 **/
+	PersistentList<E> withoutLast() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return prefix;
+	}
+
+
+	/**
+	 * Returns the number of elements in this list.
+	 * @return the number of elements in this list.
+	 **/
+	int size() {
+		return size;
+	}
+
+
+	/**
+	 * Returns the elements of this list as an array.
+	 * @return a new array a such that a[i] = this.elements[i] for
+	 *         0 <= i < size.
+	 **/
+	Object[] toArray() {
+		Object[] a = new Object[size];
+		PersistentList<E> node = this;
+		for (int i = size - 1; i >= 0; i--) {
+			a[i] = node.last;
+			node = node.prefix;
+		}
+		return a;
+	}
+
+
+	/**
+	 * Returns an Iterator over the elements of this list, in append order.
+	 * The iterator holds a snapshot array of the elements, see toArray().
+	 * @return an Iterator over the elements of this list, in append order.
+	 **/
+	public Iterator<E> iterator() {
+		final Object[] a = toArray();
+		return new Iterator<E>() {
+			private int next = 0;
+
+			public boolean hasNext() {
+				return next < a.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			public E next() {
+				if (next >= a.length)
+					throw new NoSuchElementException();
+				return (E)a[next++];
+			}
+		};
+	}
+
+
+	/**
+	 * Compares the specified Object with this list for equality.
+	 * @return o != null && (o instanceof PersistentList) &&
+	 *         o.elements and this.elements contain the same elements in
+	 *         the same order.
+	 **/
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof PersistentList))
+			return false;
+		PersistentList<?> a = this;
+		PersistentList<?> b = (PersistentList<?>)o;
+		if (a.size != b.size || a.hash != b.hash)
+			return false;
+		// compare from the end; stop as soon as both lists share a prefix
+		while (a != b) {
+			Object x = a.last, y = b.last;
+			if (x == null ? y != null : !x.equals(y))
+				return false;
+			a = a.prefix;
+			b = b.prefix;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Returns a hash code for this. The hash code is computed in the same
+	 * way as java.util.List.hashCode(), but in constant time.
+	 * @return a hash code for this.
+	 **/
+	public int hashCode() {
+		return hash;
+	}
+
+
+	/**
+	 * Returns a string representation of this.
+	 * @return a string representation of this.
+	 **/
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		Object[] a = toArray();
+		for (int i = 0; i < a.length; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append(a[i]);
+		}
+		return sb.append("]").toString();
+	}
+}
@@ -0,0 +1,373 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A RoadGraph is a road network built from a collection of GeoSegments that
+ * can find the shortest Route between two GeoPoints. RoadGraphs are
+ * immutable and may be queried by any number of threads at once.
+ * <p>
+ * The nodes of the graph are the distinct endpoints of the segments, two
+ * endpoints being the same node iff they are equal GeoPoints. Every segment
+ * is an edge from its p1 to its p2 whose weight is the segment's length.
+ * A segment can only be traveled from p1 to p2, as Route.addSegment()
+ * requires; a graph built with twoWay = true also contains the reverse()
+ * of every segment.
+ * <p>
+ * Adjacency is stored in compressed sparse row form: the outgoing edges of
+ * node v are edges offsets[v] .. offsets[v+1]-1, and each edge is a target
+ * node, a weight and an index into the segment array. Node coordinates are
+ * kept in a GeoPointStore.
+ * <p>
+ * When all the segments are measured by FLAT or all by HAVERSINE, queries
+ * use A* with the distance to the destination, in that model, as the
+ * heuristic. Both models are metrics, and a segment's length is that
+ * model's distance between its endpoints, so the heuristic never
+ * overestimates. Otherwise, when the segments are measured by different
+ * models or by a model that is not known to be a metric, the heuristic
+ * could overestimate and queries use Dijkstra's algorithm instead.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   nodes : set of GeoPoint         // the distinct endpoints of the segments
+ *   edges : set of GeoSegment       // the segments that can be traveled
+ * </pre>
+ **/
+public class RoadGraph {
+
+	private final GeoPointStore points;
+	private final Map<GeoPoint, Integer> nodeIds;
+	private final GeoSegment[] segments;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] edgeSegments;
+	private final double[] weights;
+	// the model of all the edges, if it is a metric, and otherwise null
+	private final DistanceModel heuristic;
+
+	// Search state, lent to one query at a time and reused across queries.
+	private final StatePool<Search> searches = new StatePool<Search>(Search::new);
+
+	// Abstract Function:
+	// nodes = {points.get(v) | 0 <= v < points.size()},
+	// edges = {segments[edgeSegments[e]] | 0 <= e < targets.length}.
+	// The edges leaving node v are e with offsets[v] <= e < offsets[v+1],
+	// and edge e goes to node targets[e] with weight weights[e].
+
+	// Representation invariant:
+	// offsets.length = points.size() + 1 && offsets[0] = 0 &&
+	// offsets is non-decreasing && offsets[points.size()] = targets.length &&
+	// targets, edgeSegments and weights all have length targets.length &&
+	// nodeIds maps points.get(v) to v for every node v.
+
+	private void checkRep() {
+		assert offsets.length == points.size() + 1 : "one offset per node, plus one";
+		assert offsets[0] == 0 && offsets[offsets.length - 1] == targets.length : "offsets span the edges";
+		assert edgeSegments.length == targets.length && weights.length == targets.length
+				: "edge columns of different lengths";
+		assert nodeIds.size() == points.size() : "one id per node";
+	}
+
+
+	/**
+	 * Constructs a RoadGraph whose segments are traveled only from p1 to p2.
+	 * @requires segments != null && no element of segments is null
+	 * @effects constructs a RoadGraph with edges = segments.
+	 **/
+	public RoadGraph(Collection<GeoSegment> segments) {
+		this(segments, false);
+	}
+
+
+	/**
+	 * Constructs a RoadGraph.
+	 * @requires segments != null && no element of segments is null
+	 * @effects constructs a RoadGraph with edges = segments if !twoWay, and
+	 *          edges = segments + {gs.reverse() | gs in segments} if twoWay.
+	 **/
+	public RoadGraph(Collection<GeoSegment> segments, boolean twoWay) {
+		List<GeoSegment> edges = new ArrayList<GeoSegment>(twoWay ? 2 * segments.size() : segments.size());
+		for (GeoSegment gs : segments) {
+			edges.add(gs);
+			if (twoWay)
+				edges.add(gs.reverse());
+		}
+		this.segments = edges.toArray(new GeoSegment[edges.size()]);
+
+		int m = this.segments.length;
+		points = new GeoPointStore();
+		nodeIds = new HashMap<GeoPoint, Integer>();
+		int[] from = new int[m];
+		int[] to = new int[m];
+		for (int i = 0; i < m; i++) {
+			from[i] = nodeOf(this.segments[i].getP1(), true);
+			to[i] = nodeOf(this.segments[i].getP2(), true);
+		}
+
+		// counting sort of the edges by source node
+		int n = points.size();
+		offsets = new int[n + 1];
+		for (int i = 0; i < m; i++)
+			offsets[from[i] + 1]++;
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] += offsets[v];
+		int[] next = new int[n];
+		System.arraycopy(offsets, 0, next, 0, n);
+		targets = new int[m];
+		edgeSegments = new int[m];
+		weights = new double[m];
+		for (int i = 0; i < m; i++) {
+			int e = next[from[i]]++;
+			targets[e] = to[i];
+			edgeSegments[e] = i;
+			weights[e] = this.segments[i].getLength();
+		}
+		heuristic = metricOf(this.segments);
+		checkRep();
+	}
+
+
+	// Returns the model that measures all of segments if it is FLAT or
+	// HAVERSINE, and null otherwise.
+	private static DistanceModel metricOf(GeoSegment[] segments) {
+		if (segments.length == 0)
+			return null;
+		DistanceModel model = segments[0].getModel();
+		if (model != StandardDistanceModel.FLAT && model != StandardDistanceModel.HAVERSINE)
+			return null;
+		for (GeoSegment gs : segments)
+			if (gs.getModel() != model)
+				return null;
+		return model;
+	}
+
+
+	private int nodeOf(GeoPoint gp, boolean add) {
+		Integer id = nodeIds.get(gp);
+		if (id == null) {
+			if (!add)
+				return -1;
+			id = points.add(gp);
+			nodeIds.put(gp, id);
+		}
+		return id;
+	}
+
+
+	/**
+	 * Returns the number of nodes of this.
+	 * @return the size of nodes.
+	 **/
+	public int nodeCount() {
+		return points.size();
+	}
+
+
+	/**
+	 * Returns the number of edges of this.
+	 * @return the size of edges.
+	 **/
+	public int edgeCount() {
+		return targets.length;
+	}
+
+
+	/**
+	 * Returns the node id of a point.
+	 * @requires gp != null
+	 * @return the id of the node equal to gp, or -1 if gp is not in nodes.
+	 **/
+	public int nodeOf(GeoPoint gp) {
+		return nodeOf(gp, false);
+	}
+
+
+	/**
+	 * Finds a shortest Route between two points.
+	 * @requires from != null && to != null
+	 * @return a Route r made of edges such that r.start = from, r.end = to
+	 *         and no such Route is shorter than r; or null if from equals
+	 *         to, either point is not in nodes, or to cannot be reached
+	 *         from from.
+	 **/
+	public Route shortestRoute(GeoPoint from, GeoPoint to) {
+		int source = nodeOf(from);
+		int target = nodeOf(to);
+		if (source < 0 || target < 0 || source == target)
+			return null;
+		Search search = search();
+		try {
+			if (!search.run(source, target, true))
+				return null;
+			return toRoute(search.path(target));
+		} finally {
+			release(search);
+		}
+	}
+
+
+	/**
+	 * Builds the Route that follows a sequence of edges.
+	 * @requires edges.length > 0 && edges are consecutive edges of this
+	 * @return the Route made of the segments of edges, in order.
+	 **/
+	Route toRoute(int[] edges) {
+		Route route = new Route(segments[edgeSegments[edges[0]]]);
+		for (int i = 1; i < edges.length; i++)
+			route = route.addSegment(segments[edgeSegments[edges[i]]]);
+		return route;
+	}
+
+
+	/**
+	 * Borrows a search state; the caller owns it until it passes it to
+	 * release().
+	 * @return a Search on this that no other caller holds.
+	 **/
+	Search search() {
+		return searches.borrow();
+	}
+
+
+	/**
+	 * Returns a search state borrowed by search(), for reuse by later
+	 * queries.
+	 * @requires search was returned by this.search() and is no longer used
+	 **/
+	void release(Search search) {
+		searches.release(search);
+	}
+
+
+	// Accessors for the compressed rows, for code that walks the graph.
+
+	GeoPointStore points() {
+		return points;
+	}
+
+	int firstEdge(int v) {
+		return offsets[v];
+	}
+
+	int endEdge(int v) {
+		return offsets[v + 1];
+	}
+
+	int target(int e) {
+		return targets[e];
+	}
+
+	double weight(int e) {
+		return weights[e];
+	}
+
+	GeoSegment segment(int e) {
+		return segments[edgeSegments[e]];
+	}
+
+
+	/**
+	 * A Search holds the state of one A* or Dijkstra search over the
+	 * enclosing graph. Arrays are allocated once and tagged with a search
+	 * generation, so starting a new search costs nothing and a search only
+	 * touches the nodes it reaches.
+	 */
+	final class Search {
+
+		private final double[] dist = new double[nodeCount()];
+		private final int[] parentEdge = new int[nodeCount()];
+		private final int[] parentNode = new int[nodeCount()];
+		private final int[] seen = new int[nodeCount()];
+		private final MinHeap queue = new MinHeap();
+		private int generation = 0;
+		private int settled;
+
+		/**
+		 * Runs a search from source until target is settled.
+		 * @requires source, target are nodes
+		 * @effects computes shortest distances from source; uses the A*
+		 *          heuristic iff useHeuristic and the graph has one.
+		 * @return whether target was reached.
+		 */
+		boolean run(int source, int target, boolean useHeuristic) {
+			if (++generation == 0) {
+				Arrays.fill(seen, 0);
+				generation = 1;
+			}
+			useHeuristic &= heuristic != null;
+			settled = 0;
+			queue.clear();
+			reach(source, 0, -1, -1);
+			queue.add(useHeuristic ? estimate(source, target) : 0, source);
+			while (!queue.isEmpty()) {
+				double key = queue.peekKey();
+				int v = queue.poll();
+				double h = useHeuristic ? estimate(v, target) : 0;
+				if (key > dist[v] + h)
+					continue;		// stale entry
+				settled++;
+				if (v == target)
+					return true;
+				for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+					int w = targets[e];
+					double d = dist[v] + weights[e];
+					if (seen[w] != generation || d < dist[w]) {
+						reach(w, d, e, v);
+						queue.add(useHeuristic ? d + estimate(w, target) : d, w);
+					}
+				}
+			}
+			return false;
+		}
+
+		private double estimate(int v, int target) {
+			return heuristic.distance(points.getLatitude(v), points.getLongitude(v),
+					points.getLatitude(target), points.getLongitude(target));
+		}
+
+		private void reach(int v, double d, int edge, int parent) {
+			seen[v] = generation;
+			dist[v] = d;
+			parentEdge[v] = edge;
+			parentNode[v] = parent;
+		}
+
+		/**
+		 * Returns the number of nodes settled by the last search.
+		 * @return the number of nodes settled by the last search.
+		 */
+		int settled() {
+			return settled;
+		}
+
+		/**
+		 * Returns the distance found by the last search.
+		 * @requires the last search reached target
+		 * @return the length of a shortest path from source to target.
+		 */
+		double distance(int target) {
+			return dist[target];
+		}
+
+		/**
+		 * Returns the edges of the path found by the last search.
+		 * @requires the last search reached target && target != source
+		 * @return the edges of a shortest path from source to target, in
+		 *         order.
+		 */
+		int[] path(int target) {
+			int n = 0;
+			for (int v = target; parentEdge[v] >= 0; v = parentNode[v])
+				n++;
+			int[] edges = new int[n];
+			for (int v = target; parentEdge[v] >= 0; v = parentNode[v])
+				edges[--n] = parentEdge[v];
+			return edges;
+		}
+	}
+}
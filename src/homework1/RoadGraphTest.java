@@ -0,0 +1,146 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class RoadGraphTest {
+
+	private static final double tolerance = 1e-9;
+
+	private GeoPoint[] points = ExampleGeoSegments.points;
+	private RoadGraph mOneWay;
+	private RoadGraph mTwoWay;
+
+
+	public RoadGraphTest() {
+		mOneWay = new RoadGraph(Arrays.asList(ExampleGeoSegments.segments));
+		mTwoWay = new RoadGraph(Arrays.asList(ExampleGeoSegments.segments), true);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static boolean connected(Route r) {
+		Iterator<GeoSegment> it = r.getGeoSegments();
+		GeoPoint end = r.getStart();
+		double length = 0;
+		while (it.hasNext()) {
+			GeoSegment gs = it.next();
+			if (!gs.getP1().equals(end))
+				return false;
+			end = gs.getP2();
+			length += gs.getLength();
+		}
+		return end.equals(r.getEnd()) && Math.abs(length - r.getLength()) < tolerance;
+	}
+
+
+	public void test() {
+		show("construction");
+		show("Every distinct endpoint is a node", mOneWay.nodeCount() == points.length);
+		show("One-way graphs have one edge per segment",
+			mOneWay.edgeCount() == ExampleGeoSegments.segments.length);
+		show("Two-way graphs also have the reversed segments",
+			mTwoWay.edgeCount() == 2 * ExampleGeoSegments.segments.length);
+
+		show("shortestRoute()");
+		Route r = mOneWay.shortestRoute(points[0], points[5]);
+		show("One-way route follows Hankin, Trumpeldor and Hagalil",
+			r != null && connected(r) && r.getStart().equals(points[0])
+			&& r.getEnd().equals(points[5]));
+		Route around = mOneWay.shortestRoute(points[1], points[0]);
+		boolean forward = around != null;
+		for (Iterator<GeoSegment> it = around.getGeoSegments(); it.hasNext(); )
+			forward &= Arrays.asList(ExampleGeoSegments.segments).contains(it.next());
+		show("Segments are not traveled backwards in one-way graphs",
+			forward && around.getLength() > ExampleGeoSegments.segments[0].getLength());
+		show("Unknown points give no route",
+			mOneWay.shortestRoute(new GeoPoint(0, 0), points[0]) == null);
+		show("A point has no route to itself",
+			mOneWay.shortestRoute(points[0], points[0]) == null);
+
+		boolean valid = true, optimal = true;
+		RoadGraph.Search dijkstra = mTwoWay.search();
+		for (int i = 0; i < points.length; i++) {
+			for (int j = 0; j < points.length; j++) {
+				if (i == j)
+					continue;
+				Route route = mTwoWay.shortestRoute(points[i], points[j]);
+				valid &= route != null && connected(route)
+					&& route.getStart().equals(points[i]) && route.getEnd().equals(points[j]);
+				int s = mTwoWay.nodeOf(points[i]), t = mTwoWay.nodeOf(points[j]);
+				dijkstra.run(s, t, false);
+				optimal &= route != null
+					&& Math.abs(route.getLength() - dijkstra.distance(t)) < tolerance;
+			}
+		}
+		show("Two-way routes exist between all points and are connected", valid);
+		show("A* finds routes as short as Dijkstra's", optimal);
+
+		show("other distance models");
+		show("HAVERSINE routes at 60 degrees north are as short as Dijkstra's",
+			optimal(StandardDistanceModel.HAVERSINE));
+		show("EQUIRECTANGULAR routes at 60 degrees north are as short as Dijkstra's",
+			optimal(StandardDistanceModel.EQUIRECTANGULAR));
+	}
+
+
+	// Compares shortestRoute() with Dijkstra's search on random two-way
+	// grids near 60 degrees north, where the models disagree with FLAT.
+	private static boolean optimal(DistanceModel model) {
+		Random random = new Random(7);
+		boolean ok = true;
+		for (int g = 0; g < 50; g++) {
+			GeoPoint[][] grid = new GeoPoint[8][8];
+			for (int i = 0; i < 8; i++)
+				for (int j = 0; j < 8; j++)
+					grid[i][j] = new GeoPoint(60000000 + i * 2000 + random.nextInt(1000),
+						25000000 + j * 4000 + random.nextInt(2000));
+			List<GeoSegment> segments = new ArrayList<GeoSegment>();
+			for (int i = 0; i < 8; i++) {
+				for (int j = 0; j < 8; j++) {
+					if (i + 1 < 8 && random.nextInt(4) > 0)
+						segments.add(new GeoSegment("Katu", grid[i][j], grid[i + 1][j], model));
+					if (j + 1 < 8 && random.nextInt(4) > 0)
+						segments.add(new GeoSegment("Tie", grid[i][j], grid[i][j + 1], model));
+				}
+			}
+			RoadGraph graph = new RoadGraph(segments, true);
+			RoadGraph.Search dijkstra = graph.search();
+			for (int q = 0; q < 20; q++) {
+				GeoPoint from = grid[random.nextInt(8)][random.nextInt(8)];
+				GeoPoint to = grid[random.nextInt(8)][random.nextInt(8)];
+				int s = graph.nodeOf(from), t = graph.nodeOf(to);
+				if (s < 0 || t < 0 || s == t)
+					continue;
+				Route route = graph.shortestRoute(from, to);
+				boolean reached = dijkstra.run(s, t, false);
+				ok &= reached == (route != null)
+					&& (route == null || Math.abs(route.getLength() - dijkstra.distance(t)) < tolerance);
+			}
+		}
+		return ok;
+	}
+
+
+	public static void main(String[] args) {
+		RoadGraphTest graphTest = new RoadGraphTest();
+		graphTest.test();
+	}
+}
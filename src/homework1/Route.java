@@ -1,9 +1,8 @@
 package homework1;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.ListIterator;
-import java.util.Objects;
 
 /**
  * A Route is a path that traverses arbitrary GeoSegments, regardless
@@ -32,18 +31,22 @@ import java.util.Objects;
  *   geoSegments : sequence      // a sequence of segments that make up this Route
  *   length : real               // total length of the route, in kilometers
  *   endingGeoSegment : GeoSegment  // last GeoSegment of the route
+ *   model : DistanceModel       // the model that measures every segment
  * </pre>
  **/
 public class Route {
 
-	private final LinkedList<GeoFeature> geoFeatures;
-	private final LinkedList<GeoSegment> geoSegments;
+	// Both sequences are persistent: a Route shares them with the Route it
+	// was extended from, so addSegment() does not copy them.
+	private final PersistentList<GeoFeature> geoFeatures;
+	private final PersistentList<GeoSegment> geoSegments;
 	private final double length;
 	private final GeoPoint start;
 	private final GeoPoint end;
 	private final double startHeading;
 	private final double endHeading;
 	private final GeoSegment endingGeoSegment;
+	private final DistanceModel model;
 
 	
 	// Abstract Function:
@@ -55,15 +58,24 @@ public class Route {
 	// start != null, end != null,  0 < startHeading < 360, 0 < endHeading < 360
 	// length > 0, geoFeatures != null, geoSegments != null.
 	
+	// Decides whether checkRep() walks the last GeoFeature (see ValidationPolicy).
+	private static final ValidationPolicy.Checker VALIDATION =
+			ValidationPolicy.checkerFor(Route.class);
+	
 	private void checkRep(){
 		assert geoFeatures.size() > 0 && geoSegments.size() > 0 && length > 0 ;
 		assert start!= null && end != null;
 		assert 0 <= startHeading && startHeading  < 360 && 0 <= endHeading && endHeading <360;
-		assert geoSegments.getLast().equals(endingGeoSegment);
-		Iterator<GeoSegment> it = geoFeatures.getLast().getGeoSegments();
+		assert geoSegments.last().equals(endingGeoSegment);
+		assert geoFeatures.last().getEnd().equals(end);
+		assert endingGeoSegment.getModel() == model : "segment measured by another model";
+		if (!VALIDATION.fullCheck())
+			return;
+		Iterator<GeoSegment> it = geoFeatures.last().getGeoSegments();
+		GeoSegment gs = null;
 		while(it.hasNext())
-			it.next();
-		assert it.equals(endingGeoSegment);
+			gs = it.next();
+		assert endingGeoSegment.equals(gs);
 	}
 
   	/**
@@ -77,20 +89,32 @@ public class Route {
      **/
   	public Route(GeoSegment gs) { 
   		
-  		this.geoSegments = new LinkedList<GeoSegment>();
-  		this.geoFeatures = new LinkedList<GeoFeature>();
-  		this.geoSegments.add(gs);
+  		this.model = gs.getModel();
+  		this.geoSegments = PersistentList.<GeoSegment>empty().append(gs);
+  		this.geoFeatures = PersistentList.<GeoFeature>empty().append(new GeoFeature(gs));
   		this.length = gs.getLength();
-  		this.geoFeatures.add(new GeoFeature(gs));
   		start = gs.getP1();
   		end = gs.getP2();
   		startHeading = gs.getHeading();
   		endHeading = gs.getHeading();
-  		this.endingGeoSegment = new GeoSegment(gs.getName(), gs.getP1(), gs.getP2());
+  		this.endingGeoSegment = gs;
 
   		checkRep();
   	}
   	
+  	/**
+  	 * Constructs a new Route whose segments are all measured by a given
+  	 * model. Segments measured by another model, including gs, are
+  	 * replaced by gs.withModel(model) as they are added.
+     * @requires gs != null && model != null
+     * @effects Constructs a new Route, r, such that
+     *	        r.model = model &&
+     *	        r.geoSegments = [gs.withModel(model)]
+     **/
+  	public Route(GeoSegment gs, DistanceModel model) {
+  		this(gs.withModel(model));
+  	}
+  	
   	/**
   	 * Constructs a new Route on base a given route r and adds geoSegment
      * @requires gs != null, r != null
@@ -102,22 +126,20 @@ public class Route {
      **/
   	private Route(Route r, GeoSegment gs){
   		
+  		this.model = r.model;
+  		gs = gs.withModel(r.model);
+  		this.geoSegments = r.geoSegments.append(gs);
   		
-  		this.geoSegments = new LinkedList<GeoSegment>(r.geoSegments);
-  		this.geoSegments.add(gs);
-  		
- 		this.geoFeatures = new LinkedList<GeoFeature>(r.geoFeatures);
-  		if (geoFeatures.getLast().getName().equals(gs.getName())) //check if there is a such geoFeature in the list.
+  		GeoFeature lastGeoFeature = r.geoFeatures.last();
+  		// names are interned by GeoSegment, so == compares them
+  		if (lastGeoFeature.getName() == gs.getName()) //check if there is a such geoFeature in the list.
   		{
   			//Change last geoFeature in the list with a new one.
-  			GeoFeature lastGeoFeature = this.geoFeatures.getLast(); 
-  			this.geoFeatures.removeLast();
-  			this.geoFeatures.addLast(lastGeoFeature.addSegment(gs));  			
+  			this.geoFeatures = r.geoFeatures.withoutLast().append(lastGeoFeature.addSegment(gs));
   		}
   		else {
   			//otherwise, create a new feature
-  			this.geoFeatures.addLast(new GeoFeature(gs));
-  			
+  			this.geoFeatures = r.geoFeatures.append(new GeoFeature(gs));
   		}
   		
   		this.length = r.length + gs.getLength();
@@ -125,8 +147,10 @@ public class Route {
   		end = gs.getP2();
   		startHeading = r.startHeading;
   		endHeading = gs.getHeading();
-  		endingGeoSegment = new GeoSegment(gs.getName(), gs.getP1(), gs.getP2());
+  		endingGeoSegment = gs;
 
+  		// r was verified when it was constructed; verify only gs.
+  		assert r.end.equals(gs.getP1()) : "not properly oriented";
   		checkRep();
   		
   	}
@@ -187,9 +211,20 @@ public class Route {
   	}
 
 
+  	/**
+  	 * Returns the model that measures the segments of the route.
+  	 * @return model
+  	 **/
+  	public DistanceModel getModel() {
+  		checkRep();
+  		return this.model;
+  	}
+
+
   	/**
      * Creates a new route that is equal to this route with gs appended to
-     * its end.
+     * its end. If gs is measured by another model than this route, the
+     * route gets gs.withModel(model) instead.
    	 * @requires gs != null && gs.p1 == this.end
      * @return a new Route r such that
      *         r.end = gs.p2 &&
@@ -204,6 +239,36 @@ public class Route {
   	}
 
 
+  	/**
+  	 * Returns the last geographic feature of the route.
+  	 * @return the last element of geoFeatures.
+  	 **/
+  	GeoFeature getLastGeoFeature() {
+  		checkRep();
+  		return this.geoFeatures.last();
+  	}
+
+
+  	/**
+  	 * Returns the number of geographic features of the route.
+  	 * @return the length of geoFeatures.
+  	 **/
+  	int getGeoFeatureCount() {
+  		checkRep();
+  		return this.geoFeatures.size();
+  	}
+
+
+  	/**
+  	 * Returns the number of segments of the route.
+  	 * @return the length of geoSegments.
+  	 **/
+  	int getSegmentCount() {
+  		checkRep();
+  		return this.geoSegments.size();
+  	}
+
+
     /**
      * Returns an Iterator of GeoFeature objects. The concatenation
      * of the GeoFeatures, in order, is equivalent to this route. No two
@@ -256,9 +321,18 @@ public class Route {
      **/
   	public boolean equals(Object o) {
   		checkRep();
+  		if (o == this)
+  			return true;
   		if(o != null && o instanceof Route){
-  			checkRep();
-  			return this.geoFeatures.equals(((Route)o).geoFeatures);
+  			Route r = (Route)o;
+  			// Equal routes have as many segments and equal hash codes; both
+  			// are kept up to date by addSegment(), so most unequal routes
+  			// are told apart without comparing features. Lengths are not
+  			// compared: equal routes measured by different models differ
+  			// in length.
+  			if (this.geoSegments.size() != r.geoSegments.size() || this.hashCode() != r.hashCode())
+  				return false;
+  			return this.geoFeatures.equals(r.geoFeatures);
   		}
   		checkRep();
   		return false;
@@ -271,7 +345,9 @@ public class Route {
      **/
   	public int hashCode() {
   		checkRep();
-    	return Objects.hash(geoSegments.hashCode(), geoFeatures.hashCode());
+  		// Both hash codes are cached by PersistentList and rolled forward
+  		// by addSegment(), so this takes constant time.
+    	return 31 * (31 + geoSegments.hashCode()) + geoFeatures.hashCode();
   	}
 
 
@@ -280,12 +356,31 @@ public class Route {
      * @return a string representation of this.
      **/
   	public String toString() {
-  		String str = "";
-		ListIterator<GeoFeature> listIterator = geoFeatures.listIterator();
-  		while(listIterator.hasNext()){
-  			str += " " + listIterator.next().toString();
+  		StringBuilder str = new StringBuilder();
+  		try {
+  			appendTo(str);
+  		} catch (IOException e) {
+  			throw new UncheckedIOException(e);	// StringBuilder never throws
+  		}
+  		return str.toString();
+  	}
+
+
+    /**
+     * Appends the string representation of this to out, one feature at a
+     * time. The text is not built first, but iterating over the features
+     * takes a snapshot of one reference per feature.
+     * @requires out != null
+     * @modifies out
+     * @effects appends toString() to out.
+     * @throws IOException if out throws IOException.
+     **/
+  	public void appendTo(Appendable out) throws IOException {
+		Iterator<GeoFeature> iterator = geoFeatures.iterator();
+  		while(iterator.hasNext()){
+  			out.append(' ');
+  			iterator.next().appendTo(out);
   		}
-  		return str;
   	}
 
 }
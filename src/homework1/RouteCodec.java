@@ -0,0 +1,269 @@
+package homework1;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RouteCodec encodes Routes into a compact binary form, for storing them
+ * and sending them between services, and decodes them back. A Route
+ * decoded from the encoding of r equals r and is measured by the same
+ * model. encodeToString() and decode(String) give the same form as URL-safe
+ * Base64 text.
+ * <p>
+ * The encoding is a polyline: the start of the route, then each point
+ * as the difference from the one before, written as a zig-zag varint so
+ * that the short segments of a street take one or two bytes per
+ * coordinate. Points are grouped by GeoFeature, each with its name and
+ * the number of its segments. A varint holds 7 bits per byte, least
+ * significant first, with the high bit set on all bytes but the last; a
+ * zig-zag varint holds the signed value v as the varint of
+ * (v << 1) ^ (v >> 31).
+ * <pre>
+ *   version   byte      1
+ *   model     byte      the ordinal of the StandardDistanceModel
+ *   features  varint    number of GeoFeatures
+ *   start     zig-zag varint latitude, zig-zag varint longitude
+ *   for each GeoFeature:
+ *     nameId    varint  index of the name among the distinct names, in
+ *                       order of first use; a new name is followed by
+ *                       its UTF-8 length as a varint and its bytes
+ *     segments  varint  number of segments
+ *     for each segment: zig-zag varint latitude delta, zig-zag varint
+ *                       longitude delta from p1 to p2
+ * </pre>
+ * Everything needed to rebuild a segment comes before it, so decoding is
+ * a single pass over the bytes. It takes about 6 bytes per segment of a
+ * city route, where toString() takes about 60 characters.
+ */
+public final class RouteCodec {
+
+	private static final int VERSION = 1;
+
+	private static final StandardDistanceModel[] MODELS = StandardDistanceModel.values();
+
+
+	private RouteCodec() {
+	}
+
+
+	/**
+	 * Encodes a route.
+	 * @requires route != null
+	 * @return the encoding of route.
+	 * @throws IllegalArgumentException if route is not measured by a
+	 *         StandardDistanceModel.
+	 */
+	public static byte[] encode(Route route) {
+		DistanceModel model = route.getModel();
+		if (!(model instanceof StandardDistanceModel))
+			throw new IllegalArgumentException("cannot encode a route measured by " + model);
+		Writer out = new Writer(16 + route.getGeoFeatureCount() * 8);
+		out.buffer[out.size++] = VERSION;
+		out.buffer[out.size++] = (byte) ((StandardDistanceModel) model).ordinal();
+		out.writeVarint(route.getGeoFeatureCount());
+		GeoPoint start = route.getStart();
+		int lat = start.getLatitude();
+		int lon = start.getLongitude();
+		out.writeZigZag(lat);
+		out.writeZigZag(lon);
+
+		Map<String, Integer> nameIds = new HashMap<String, Integer>();
+		Iterator<GeoFeature> features = route.getGeoFeatures();
+		while (features.hasNext()) {
+			GeoFeature feature = features.next();
+			Integer id = nameIds.get(feature.getName());
+			if (id != null) {
+				out.writeVarint(id);
+			} else {
+				out.writeVarint(nameIds.size());
+				byte[] name = feature.getName().getBytes(StandardCharsets.UTF_8);
+				out.writeVarint(name.length);
+				out.write(name);
+				nameIds.put(feature.getName(), nameIds.size());
+			}
+			out.writeVarint(feature.getSegmentCount());
+			Iterator<GeoSegment> segments = feature.getGeoSegments();
+			while (segments.hasNext()) {
+				GeoPoint p2 = segments.next().getP2();
+				out.writeZigZag(p2.getLatitude() - lat);
+				out.writeZigZag(p2.getLongitude() - lon);
+				lat = p2.getLatitude();
+				lon = p2.getLongitude();
+			}
+		}
+		return out.toByteArray();
+	}
+
+
+	/**
+	 * Encodes a route as text.
+	 * @requires route != null
+	 * @return the encoding of route in URL-safe Base64, without padding.
+	 * @throws IllegalArgumentException if route is not measured by a
+	 *         StandardDistanceModel.
+	 */
+	public static String encodeToString(Route route) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(encode(route));
+	}
+
+
+	/**
+	 * Decodes a route encoded as text.
+	 * @requires text != null
+	 * @return the route r such that encodeToString(r) = text.
+	 * @throws IllegalArgumentException if text is not such an encoding.
+	 */
+	public static Route decode(String text) {
+		return decode(Base64.getUrlDecoder().decode(text));
+	}
+
+
+	/**
+	 * Decodes a route.
+	 * @requires bytes != null
+	 * @return the route r such that encode(r) = bytes.
+	 * @throws IllegalArgumentException if bytes is not such an encoding.
+	 */
+	public static Route decode(byte[] bytes) {
+		Reader in = new Reader(bytes);
+		if (in.readByte() != VERSION)
+			throw in.error("unsupported version");
+		int modelId = in.readByte();
+		if (modelId >= MODELS.length)
+			throw in.error("unknown model " + modelId);
+		DistanceModel model = MODELS[modelId];
+		int featureCount = in.readVarint();
+		if (featureCount <= 0)
+			throw in.error("route without features");
+		GeoPoint p1 = point(in, in.readZigZag(), in.readZigZag());
+
+		List<String> names = new ArrayList<String>();
+		Route route = null;
+		for (int f = 0; f < featureCount; f++) {
+			int nameId = in.readVarint();
+			if (nameId == names.size())
+				names.add(in.readString().intern());
+			else if (nameId < 0 || nameId > names.size())
+				throw in.error("undefined name " + nameId);
+			String name = names.get(nameId);
+			int segmentCount = in.readVarint();
+			if (segmentCount <= 0)
+				throw in.error("feature without segments");
+			for (int s = 0; s < segmentCount; s++) {
+				GeoPoint p2 = point(in, p1.getLatitude() + in.readZigZag(),
+						p1.getLongitude() + in.readZigZag());
+				GeoSegment gs = GeoSegment.ofInterned(name, p1, p2, model);
+				route = route == null ? new Route(gs) : route.addSegment(gs);
+				p1 = p2;
+			}
+		}
+		if (in.position != bytes.length)
+			throw in.error("trailing bytes");
+		return route;
+	}
+
+
+	private static GeoPoint point(Reader in, int latitude, int longitude) {
+		if (latitude < GeoPoint.MIN_LATITUDE || latitude > GeoPoint.MAX_LATITUDE
+				|| longitude < GeoPoint.MIN_LONGITUDE || longitude > GeoPoint.MAX_LONGITUDE)
+			throw in.error("point out of range");
+		return new GeoPoint(latitude, longitude).intern();
+	}
+
+
+	/**
+	 * A Writer appends varints to a growing byte array.
+	 */
+	private static final class Writer {
+		byte[] buffer;
+		int size;
+
+		Writer(int capacity) {
+			buffer = new byte[capacity];
+		}
+
+		private void ensure(int n) {
+			if (size + n > buffer.length)
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + n));
+		}
+
+		void writeVarint(int value) {
+			ensure(5);
+			while ((value & ~0x7f) != 0) {
+				buffer[size++] = (byte) ((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			buffer[size++] = (byte) value;
+		}
+
+		void writeZigZag(int value) {
+			writeVarint((value << 1) ^ (value >> 31));
+		}
+
+		void write(byte[] bytes) {
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, buffer, size, bytes.length);
+			size += bytes.length;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(buffer, size);
+		}
+	}
+
+
+	/**
+	 * A Reader reads varints from a byte array, and reports malformed input
+	 * with its position.
+	 */
+	private static final class Reader {
+		final byte[] bytes;
+		int position;
+
+		Reader(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		int readByte() {
+			if (position >= bytes.length)
+				throw error("unexpected end");
+			return bytes[position++] & 0xff;
+		}
+
+		int readVarint() {
+			int value = 0;
+			for (int shift = 0; shift < 35; shift += 7) {
+				int b = readByte();
+				value |= (b & 0x7f) << shift;
+				if ((b & 0x80) == 0)
+					return value;
+			}
+			throw error("varint too long");
+		}
+
+		int readZigZag() {
+			int v = readVarint();
+			return (v >>> 1) ^ -(v & 1);
+		}
+
+		String readString() {
+			int length = readVarint();
+			if (length < 0 || length > bytes.length - position)
+				throw error("bad name length");
+			String s = new String(bytes, position, length, StandardCharsets.UTF_8);
+			position += length;
+			return s;
+		}
+
+		IllegalArgumentException error(String why) {
+			return new IllegalArgumentException("malformed route encoding: " + why
+					+ " at byte " + position);
+		}
+	}
+}
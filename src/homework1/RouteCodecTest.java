@@ -0,0 +1,97 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class RouteCodecTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static boolean sameSegments(Route a, Route b) {
+		Iterator<GeoSegment> i = a.getGeoSegments(), j = b.getGeoSegments();
+		while (i.hasNext() && j.hasNext()) {
+			if (!i.next().equals(j.next()))
+				return false;
+		}
+		return !i.hasNext() && !j.hasNext();
+	}
+
+
+	private static boolean rejects(byte[] bytes) {
+		try {
+			RouteCodec.decode(bytes);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	public void testRoundTrip() {
+		show("Round trip");
+		Route route = new RouteGenerator(5).route(10000, 8);
+		byte[] bytes = RouteCodec.encode(route);
+		Route decoded = RouteCodec.decode(bytes);
+		show("Decoded route equals the route", decoded.equals(route) && sameSegments(decoded, route));
+		show("Decoded route has the same features, length and headings",
+				decoded.getGeoFeatureCount() == route.getGeoFeatureCount()
+				&& decoded.getLength() == route.getLength()
+				&& decoded.getStartHeading() == route.getStartHeading()
+				&& decoded.getEndHeading() == route.getEndHeading());
+		int text = route.toString().length();
+		show("Encoding is at least 10 times smaller than toString() (" + bytes.length + " bytes, "
+				+ text + " characters)", bytes.length * 10 <= text);
+		show("Text encoding round trips", RouteCodec.decode(RouteCodec.encodeToString(route)).equals(route));
+
+		GeoPoint p1 = new GeoPoint(GeoPoint.MIN_LATITUDE, GeoPoint.MIN_LONGITUDE);
+		GeoPoint p2 = new GeoPoint(GeoPoint.MAX_LATITUDE, GeoPoint.MAX_LONGITUDE);
+		Route extreme = new Route(new GeoSegment("\u05d4\u05e0\u05d9\u05d8\u05d4", p1, p2),
+				StandardDistanceModel.HAVERSINE)
+				.addSegment(new GeoSegment("Hanita", p2, p1))
+				.addSegment(new GeoSegment("\u05d4\u05e0\u05d9\u05d8\u05d4", p1, p2));
+		Route decoded2 = RouteCodec.decode(RouteCodec.encode(extreme));
+		show("Extreme coordinates, repeated and non-ASCII names and the model survive",
+				decoded2.equals(extreme) && decoded2.getModel() == StandardDistanceModel.HAVERSINE
+				&& decoded2.getGeoFeatureCount() == 3);
+	}
+
+
+	public void testMalformed() {
+		show("Malformed encodings");
+		byte[] bytes = RouteCodec.encode(new RouteGenerator(6).route(20, 4));
+		show("Truncated encoding rejected", rejects(Arrays.copyOf(bytes, bytes.length - 1)));
+		show("Trailing bytes rejected", rejects(Arrays.copyOf(bytes, bytes.length + 1)));
+		byte[] version = bytes.clone();
+		version[0] = 9;
+		show("Unknown version rejected", rejects(version));
+		byte[] model = bytes.clone();
+		model[1] = 9;
+		show("Unknown model rejected", rejects(model));
+		show("Empty encoding rejected", rejects(new byte[0]));
+		// one feature from (0,0) whose name id is a five-byte varint of -1
+		byte[] negative = {bytes[0], 0, 1, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f, 1, 2, 2};
+		show("Negative name id rejected", rejects(negative));
+	}
+
+
+	public static void main(String[] args) {
+		RouteCodecTest test = new RouteCodecTest();
+		test.testRoundTrip();
+		test.testMalformed();
+		System.out.println();
+		System.out.println("Test passed correctly");
+	}
+}
@@ -1,14 +1,53 @@
 package homework1;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
-import java.util.LinkedList;
 /**
  * A RouteFormatter class knows how to create a textual description of
  * directions from one location to another. The class is abstract to
  * support different textual descriptions.
+ * <p>
+ * RouteFormatters keep no state between calls, so one instance may be
+ * shared by any number of threads, as BatchFormatter does; subclasses
+ * must do the same.
  */
 public abstract class RouteFormatter {
 
+	private final DirectionsLocale locale;
+
+
+  	/**
+     * Constructs a RouteFormatter that gives directions in English.
+     * @effects constructs a new RouteFormatter with
+     *          DirectionsLocale.ENGLISH.
+     **/
+  	protected RouteFormatter() {
+  		this(DirectionsLocale.ENGLISH);
+  	}
+
+
+  	/**
+     * Constructs a RouteFormatter that gives directions in locale.
+     * @requires locale != null
+     * @effects constructs a new RouteFormatter with locale.
+     **/
+  	protected RouteFormatter(DirectionsLocale locale) {
+  		if (locale == null)
+  			throw new NullPointerException();
+  		this.locale = locale;
+  	}
+
+
+  	/**
+     * Returns the locale of this.
+     * @return the DirectionsLocale this formatter words directions with.
+     **/
+  	public DirectionsLocale getLocale() {
+  		return locale;
+  	}
+
+
   	/**
      * Give directions for following this Route, starting at its start point
      * and facing in the specified heading.
@@ -25,7 +64,33 @@ public abstract class RouteFormatter {
 		// feature in this route and concatenate the results into a single
 		// String.
   		
-  		String dir = "";
+  		StringBuilder dir = new StringBuilder();
+  		try {
+  			computeDirections(route, heading, dir);
+  		} catch (IOException e) {
+  			throw new UncheckedIOException(e);	// StringBuilder never throws
+  		}
+  		return dir.toString();
+  	}
+
+
+  	/**
+     * Writes directions for following this Route, starting at its start
+     * point and facing in the specified heading, to out. The directions are
+     * written one line at a time, so no more than a line of text is held
+     * at once; out may be a Writer on a file or socket. Iterating over the
+     * route takes a snapshot of its features, one reference per feature.
+     * @requires route != null && out != null &&
+     * 			0 <= heading < 360
+     * @param route the route for which to print directions.
+   	 * @param heading the initial heading.
+   	 * @param out the destination of the directions.
+     * @modifies out
+     * @effects appends computeDirections(route, heading) to out.
+     * @throws IOException if out throws IOException.
+     **/
+  	public void computeDirections(Route route, double heading, Appendable out)
+  			throws IOException {
   		double startHeading = heading;
   		Iterator<GeoFeature> it = route.getGeoFeatures();
   		GeoFeature gf;
@@ -33,12 +98,10 @@ public abstract class RouteFormatter {
   		while(it.hasNext()){
   			
   			gf = it.next();
-  			dir+=computeLine(gf, startHeading);
+  			appendLine(gf, startHeading, out);
   			startHeading = gf.getEndHeading();
   			
   		}
-  		
-  		return dir;
   	}
 
 
@@ -55,15 +118,55 @@ public abstract class RouteFormatter {
   	public abstract String computeLine(GeoFeature geoFeature, double origHeading);
 
 
+  	/**
+     * Appends a single line of a multi-line directions String that
+     * represents the instructions for traversing a single geographic
+     * feature to out. The default implementation appends
+     * computeLine(geoFeature, origHeading); subclasses should override it
+     * to append the parts of the line directly, and may then implement
+     * computeLine() by calling it with a StringBuilder.
+     * @requires geoFeature != null && out != null
+     * @param geoFeature the geographical feature to traverse.
+   	 * @param origHeading the initial heading.
+   	 * @param out the destination of the line.
+     * @modifies out
+     * @effects appends computeLine(geoFeature, origHeading) to out.
+     * @throws IOException if out throws IOException.
+     */
+  	protected void appendLine(GeoFeature geoFeature, double origHeading, Appendable out)
+  			throws IOException {
+  		out.append(computeLine(geoFeature, origHeading));
+  	}
+
+
+  	/**
+     * Returns the line that appendLine() appends, for subclasses that
+     * implement computeLine() in terms of appendLine().
+     * @requires geoFeature != null && appendLine() is overridden
+     * @param geoFeature the geographical feature to traverse.
+   	 * @param origHeading the initial heading.
+     * @return the String appendLine(geoFeature, origHeading, ...) appends.
+     */
+  	protected final String appendedLine(GeoFeature geoFeature, double origHeading) {
+  		StringBuilder line = new StringBuilder(64);
+  		try {
+  			appendLine(geoFeature, origHeading, line);
+  		} catch (IOException e) {
+  			throw new UncheckedIOException(e);	// StringBuilder never throws
+  		}
+  		return line.toString();
+  	}
+
+
   	/**
      * Computes directions to turn based on the heading change.
      * @requires 0 <= oldHeading < 360 &&
      *           0 <= newHeading < 360
      * @param origHeading the start heading.
    	 * @param newHeading the desired new heading.
-     * @return English directions to go from the old heading to the new
-     * 		   one. Let the angle from the original heading to the new
-     * 		   heading be a. The turn should be annotated as:
+     * @return the phrase of the locale of this for Turn.of(origHeading,
+     * 		   newHeading); in English, with a the angle from the original
+     * 		   heading to the new heading:
      * <p>
      * <pre>
      * Continue             if a < 10
@@ -75,30 +178,7 @@ public abstract class RouteFormatter {
      * and likewise for left turns.
      */
   	protected String getTurnString(double origHeading, double newHeading) {
-  		
-  		double a = newHeading - origHeading;
-  		//double a = origHeading - newHeading  ;
-
-  		//System.out.println("a = " + a);
-  		if( (-10 < a && a < 10) || (350 <= a && a < 360) || (-360 <= a && a < -350))
-  			return "Continue";
-  		if((a >= 10 && a < 60) || (-350 <= a && a < -300))
-  			return "Turn slight right";
-  		if((a >= 60 && a < 120) || (-300 <= a && a < -240))
-  			return "Turn right";
-  		if((a >= 120 && a < 179) || (-240 <= a && a < -181))
-  			return "Turn sharp right";
-  		if(a >= 179 && a < 181 )
-  			return "U-turn";
-  		if( (a>= -60 && a < -10) || (300 <= a && a < 350))
-  			return "Turn slight left";
-  		if((a>=-120 && a < -60) || (240 <= a && a < 300))
-  			return "Turn left";
-  		if((a>=-179 && a < -120) || (181 <= a && a < 240))
-  			return "Turn sharp left";
-  		if(a <= -179 && a > -181)
-  			return "U-turn";
-  		return "";
+  		return locale.getTurnPhrase(Turn.of(origHeading, newHeading));
   	}
 
 }
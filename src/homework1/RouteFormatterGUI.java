@@ -3,26 +3,137 @@ package homework1;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * A JPanel GUI for representing a Route. This Route is shown as a list of
  * GeoSegments. In addition, walking directions and driving directions for
  * traversing this route are shown.
  * <p>
+ * The directions are computed off the event dispatch thread: addSegment()
+ * only checks the segment, shows it in the list of segments and queues it,
+ * and a background worker appends the queued segments to the route and
+ * sends the lines of the directions that changed back to the event
+ * dispatch thread. Segments added while the worker is busy are appended
+ * together, and their changes are shown at once, at most once a frame.
+ * clear() cancels the worker. The segments and the directions are shown
+ * in JLists with a fixed cell size over TailListModels, so an update
+ * repaints only the rows that changed and the GUI stays responsive
+ * however long the route is.
+ * <p>
  * A figure showing this GUI can be found in homework assignment #1.
  */
 public class RouteFormatterGUI extends JPanel {
 
 	private static final long serialVersionUID = 1L;
 
-	private Route route = null;				// Route shown in this
+	// the longest a worker appends segments before showing the changes
+	private static final long FRAME_NANOS = 16000000;
+
+	// the example lines that the cell sizes of the lists are taken from
+	private static final String SEGMENT_PROTOTYPE =
+			"GeoSegment: Derech Hashalom Street (32000000,35000000)-(32000000,35000000)";
+	private static final String DIRECTIONS_PROTOTYPE =
+			"Turn slight right onto Derech Hashalom Street and go 10.5 kilometers.";
+
+	// the end of the last segment added, or null if none was
+	private GeoPoint end = null;
+
+	// the segments added but not yet appended to the directions, and the
+	// directions they are appended to; the sessions are used by one worker
+	// at a time, and replaced, with a new queue, by clear()
+	private Queue<GeoSegment> pending = new ConcurrentLinkedQueue<GeoSegment>();
+	private DirectionsSession walkingDirections = null;
+	private DirectionsSession drivingDirections = null;
+	private DirectionsWorker worker = null;
 
 	private GeoSegmentsDialog dlgSegments;	// secondary window
 
-	// some of the controls contained in this
+	// some of the controls contained in this, and their models
 	private JList<GeoSegment> lstSegments;
-	private JTextArea txtWalkingDirections;
-	private JTextArea txtDrivingDirections;
+	private JList<String> lstWalkingDirections;
+	private JList<String> lstDrivingDirections;
+	private final TailListModel<GeoSegment> segments = new TailListModel<GeoSegment>();
+	private final TailListModel<String> walkingLines = new TailListModel<String>();
+	private final TailListModel<String> drivingLines = new TailListModel<String>();
+
+
+	/**
+	 * An Update holds the lines of the directions that changed after a
+	 * batch of segments was appended: the lines from walkingFrom and
+	 * drivingFrom on, without their line separators.
+	 */
+	private static final class Update {
+		final int walkingFrom;
+		final List<String> walking;
+		final int drivingFrom;
+		final List<String> driving;
+
+		Update(int walkingFrom, List<String> walking, int drivingFrom, List<String> driving) {
+			this.walkingFrom = walkingFrom;
+			this.walking = walking;
+			this.drivingFrom = drivingFrom;
+			this.driving = driving;
+		}
+	}
+
+
+	/**
+	 * A DirectionsWorker appends the segments of a queue to a pair of
+	 * DirectionsSessions until the queue is empty or the worker is
+	 * cancelled, and publishes the changed lines after every batch.
+	 */
+	private final class DirectionsWorker extends SwingWorker<Void, Update> {
+
+		private final Queue<GeoSegment> queue;
+		private final DirectionsSession walking;
+		private final DirectionsSession driving;
+
+		DirectionsWorker(Queue<GeoSegment> queue, DirectionsSession walking,
+				DirectionsSession driving) {
+			this.queue = queue;
+			this.walking = walking;
+			this.driving = driving;
+		}
+
+		protected Void doInBackground() {
+			GeoSegment gs;
+			while (!isCancelled() && (gs = queue.poll()) != null) {
+				// the lines before the last one cannot change
+				int walkingFrom = Math.max(0, walking.getLineCount() - 1);
+				int drivingFrom = Math.max(0, driving.getLineCount() - 1);
+				long deadline = System.nanoTime() + FRAME_NANOS;
+				do {
+					walking.addSegment(gs);
+					driving.addSegment(gs);
+				} while (System.nanoTime() < deadline && !isCancelled()
+						&& (gs = queue.poll()) != null);
+				publish(new Update(walkingFrom, lines(walking, walkingFrom),
+						drivingFrom, lines(driving, drivingFrom)));
+			}
+			return null;
+		}
+
+		protected void process(List<Update> updates) {
+			if (isCancelled())
+				return;
+			for (Update update : updates) {
+				walkingLines.setTail(update.walkingFrom, update.walking);
+				drivingLines.setTail(update.drivingFrom, update.driving);
+			}
+			showLast(lstWalkingDirections);
+			showLast(lstDrivingDirections);
+		}
+
+		protected void done() {
+			// segments queued after the last poll, while this was finishing
+			if (this == worker && !isCancelled() && !queue.isEmpty())
+				startWorker();
+		}
+	}
 
 
 	/**
@@ -36,27 +147,28 @@ public class RouteFormatterGUI extends JPanel {
 		dlgSegments.pack();
 
 		// create components
-		lstSegments = new JList<>(new DefaultListModel<GeoSegment>());
+		lstSegments = new JList<GeoSegment>(segments);
 		lstSegments.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		fixCellSize(lstSegments, SEGMENT_PROTOTYPE);
 		JScrollPane scrlSegments = new JScrollPane(lstSegments);
 		scrlSegments.setPreferredSize(new Dimension(450, 100));
 
 		JLabel lblSegments = new JLabel("Route's GeoSegments:");
 		lblSegments.setLabelFor(lstSegments);
 
-		txtWalkingDirections = new JTextArea();
-		txtWalkingDirections.setEditable(false);
-		JScrollPane scrlWalkingDirections = new JScrollPane(txtWalkingDirections);
+		lstWalkingDirections = new JList<String>(walkingLines);
+		fixCellSize(lstWalkingDirections, DIRECTIONS_PROTOTYPE);
+		JScrollPane scrlWalkingDirections = new JScrollPane(lstWalkingDirections);
 		scrlWalkingDirections.setPreferredSize(new Dimension(400, 70));
 		JLabel lblWalkingDirections = new JLabel("Walking Directions:");
-		lblWalkingDirections.setLabelFor(txtWalkingDirections);
+		lblWalkingDirections.setLabelFor(lstWalkingDirections);
 
-		txtDrivingDirections = new JTextArea();
-		txtDrivingDirections.setEditable(false);
-		JScrollPane scrlDrivingDirections = new JScrollPane(txtDrivingDirections);
+		lstDrivingDirections = new JList<String>(drivingLines);
+		fixCellSize(lstDrivingDirections, DIRECTIONS_PROTOTYPE);
+		JScrollPane scrlDrivingDirections = new JScrollPane(lstDrivingDirections);
 		scrlDrivingDirections.setPreferredSize(new Dimension(400, 70));
 		JLabel lblDrivingDirections = new JLabel("Driving Directions:");
-		lblDrivingDirections.setLabelFor(txtDrivingDirections);
+		lblDrivingDirections.setLabelFor(lstDrivingDirections);
 
 		JButton btnAddSegment = new JButton("Add GeoSegment");
 		btnAddSegment.addActionListener(new ActionListener() {
@@ -65,6 +177,13 @@ public class RouteFormatterGUI extends JPanel {
 			}
 		});
 
+		JButton btnClear = new JButton("Clear Route");
+		btnClear.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				clear();
+			}
+		});
+
 		// arrange components on grid
 		this.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 		GridBagLayout gridbag = new GridBagLayout();
@@ -129,6 +248,45 @@ public class RouteFormatterGUI extends JPanel {
 		c.anchor = GridBagConstraints.SOUTH;
 		gridbag.setConstraints(btnAddSegment, c);
 		this.add(btnAddSegment);
+
+		c.gridx = 1;
+		c.gridy = 4;
+		gridbag.setConstraints(btnClear, c);
+		this.add(btnClear);
+	}
+
+
+	// Sets the cell size of list to that of prototype, so that list lays
+	// out and renders only its visible rows.
+	static void fixCellSize(JList<?> list, String prototype) {
+		Dimension size = new DefaultListCellRenderer()
+				.getListCellRendererComponent(list, prototype, 0, false, false).getPreferredSize();
+		list.setFixedCellWidth(size.width);
+		list.setFixedCellHeight(size.height);
+	}
+
+
+	private static void showLast(JList<?> list) {
+		int size = list.getModel().getSize();
+		if (size > 0)
+			list.ensureIndexIsVisible(size - 1);
+	}
+
+
+	// Returns the lines of session from from on, without their separators.
+	private static List<String> lines(DirectionsSession session, int from) {
+		List<String> lines = new ArrayList<String>(session.getLineCount() - from);
+		for (int i = from; i < session.getLineCount(); i++) {
+			String line = session.getLine(i);
+			lines.add(line.endsWith("\n") ? line.substring(0, line.length() - 1) : line);
+		}
+		return lines;
+	}
+
+
+	private void startWorker() {
+		worker = new DirectionsWorker(pending, walkingDirections, drivingDirections);
+		worker.execute();
 	}
 
 
@@ -139,29 +297,59 @@ public class RouteFormatterGUI extends JPanel {
 	 * 			defined by Route.addSegment(). In addition, updates the
 	 * 			walking direction and the driving direction of the GUI
 	 * 			with the return value of
-	 * 			RouteDirection.computeDirections(this.route,0)
+	 * 			RouteDirection.computeDirections(this.route,0). The
+	 * 			segment is shown at once; the directions are computed in
+	 * 			the background and shown when they are ready.
 	 */
 	public void addSegment(GeoSegment segment) {
-		DefaultListModel<GeoSegment> model =
-				(DefaultListModel<GeoSegment>)(this.lstSegments.getModel());
-		
-		if(route == null){
-			if(segment != null){
-				route = new Route(segment);
-				model.addElement(segment);
-			}
+		if(end == null){
+			if(segment == null)
+				return;
+			walkingDirections = new DirectionsSession(new WalkingRouteFormatter(), 0);
+			drivingDirections = new DirectionsSession(new DrivingRouteFormatter(),
+					segment.getHeading());
 		}
-		else if(segment==null || segment.getP1() != route.getEnd())
-				JOptionPane.showMessageDialog(this, "The segment cannot be added.");
-		
-		else{
-			route = route.addSegment(segment);
-			model.addElement(segment);
+		else if(segment==null || !segment.getP1().equals(end)){
+			JOptionPane.showMessageDialog(this, "The segment cannot be added.");
+			return;
 		}
-		WalkingRouteFormatter wr = new WalkingRouteFormatter();
-		txtWalkingDirections.setText(wr.computeDirections(route, 0));
-		DrivingRouteFormatter dr = new DrivingRouteFormatter();
-		txtDrivingDirections.setText(dr.computeDirections(route, route.getStartHeading()));
+		end = segment.getP2();
+		segments.add(segment);
+		showLast(lstSegments);
+		pending.add(segment);
+		// a running worker polls the queue again before it finishes, and
+		// restarts itself if it missed the segment
+		if(worker == null || worker.isDone())
+			startWorker();
+	}
+
+
+	/**
+	 * Returns the end of the Route shown by this.
+	 * @return the end of the last segment added to the route shown by
+	 * 			this, or null if no segment was.
+	 */
+	public GeoPoint getRouteEnd() {
+		return end;
+	}
+
+
+	/**
+	 * Removes all the segments of the Route shown by this.
+	 * @effects Cancels the computation of the directions, if it is
+	 * 			running, and shows an empty route with no directions.
+	 */
+	public void clear() {
+		if(worker != null)
+			worker.cancel(false);
+		worker = null;
+		pending = new ConcurrentLinkedQueue<GeoSegment>();
+		walkingDirections = null;
+		drivingDirections = null;
+		end = null;
+		segments.clear();
+		walkingLines.clear();
+		drivingLines.clear();
 	}
 
 
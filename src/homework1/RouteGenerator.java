@@ -0,0 +1,107 @@
+package homework1;
+
+import java.util.Random;
+
+/**
+ * A RouteGenerator makes synthetic, connected sequences of GeoSegments that
+ * look like a drive through a city, for benchmarks and tests that need
+ * routes of any size.
+ * <p>
+ * Segments are a random walk: each one is 30 to 300 meters long and turns
+ * away from the heading of the one before by a normally distributed angle,
+ * so that the directions contain every kind of turn. The walk starts at
+ * the Ziv square and bounces off the edges of the globe's coordinates. A
+ * new street name is taken every featureLength segments, so a route of n
+ * segments has about n / featureLength GeoFeatures.
+ * <p>
+ * The same seed always gives the same segments.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   seed : long                  // the seed of the random walk
+ * </pre>
+ **/
+public class RouteGenerator {
+
+	private static final int START_LATITUDE = 32783098;
+	private static final int START_LONGITUDE = 35014528;
+
+	private final long seed;
+
+	// Abstract Function:
+	// seed = this.seed
+
+	// Representation invariant:
+	// true
+
+
+	/**
+	 * Constructs a RouteGenerator.
+	 * @effects constructs a RouteGenerator with this.seed = seed.
+	 **/
+	public RouteGenerator(long seed) {
+		this.seed = seed;
+	}
+
+
+	/**
+	 * Generates a connected sequence of segments.
+	 * @requires n >= 0 && featureLength > 0
+	 * @return an array s of n segments such that s[i].p2 = s[i+1].p1 for
+	 *         all 0 <= i < n-1, and s[i].name = s[j].name iff
+	 *         i / featureLength = j / featureLength.
+	 **/
+	public GeoSegment[] segments(int n, int featureLength) {
+		Random random = new Random(seed);
+		GeoSegment[] segments = new GeoSegment[n];
+		GeoPoint p1 = new GeoPoint(START_LATITUDE, START_LONGITUDE);
+		double heading = random.nextDouble() * 360;
+		String name = null;
+		for (int i = 0; i < n; i++) {
+			if (i % featureLength == 0)
+				name = "Street " + (i / featureLength);
+			heading = (heading + random.nextGaussian() * 30 + 360) % 360;
+			double km = 0.03 + random.nextDouble() * 0.27;
+			double radians = Math.toRadians(heading);
+			int lat = p1.getLatitude()
+					+ (int) Math.round(km * Math.cos(radians) / GeoPoint.KM_PER_DEGREE_LATITUDE * 1000000);
+			int lon = p1.getLongitude()
+					+ (int) Math.round(km * Math.sin(radians) / GeoPoint.KM_PER_DEGREE_LONGITUDE * 1000000);
+			if (lat < GeoPoint.MIN_LATITUDE || lat > GeoPoint.MAX_LATITUDE
+					|| lon < GeoPoint.MIN_LONGITUDE || lon > GeoPoint.MAX_LONGITUDE) {
+				// turn back the way we came
+				heading = (heading + 180) % 360;
+				lat = 2 * p1.getLatitude() - lat;
+				lon = 2 * p1.getLongitude() - lon;
+			}
+			GeoPoint p2 = new GeoPoint(lat, lon);
+			segments[i] = new GeoSegment(name, p1, p2);
+			p1 = p2;
+		}
+		return segments;
+	}
+
+
+	/**
+	 * Generates a Route.
+	 * @requires n > 0 && featureLength > 0
+	 * @return the Route made of segments(n, featureLength), in order.
+	 **/
+	public Route route(int n, int featureLength) {
+		return toRoute(segments(n, featureLength));
+	}
+
+
+	/**
+	 * Builds the Route that follows a sequence of segments.
+	 * @requires segments.length > 0 &&
+	 *           segments[i].p2 = segments[i+1].p1 for all i
+	 * @return the Route made of segments, in order.
+	 **/
+	public static Route toRoute(GeoSegment[] segments) {
+		Route route = new Route(segments[0]);
+		for (int i = 1; i < segments.length; i++)
+			route = route.addSegment(segments[i]);
+		return route;
+	}
+}
@@ -0,0 +1,64 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class RouteGeneratorTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static boolean connected(GeoSegment[] segments) {
+		for (int i = 1; i < segments.length; i++) {
+			if (!segments[i - 1].getP2().equals(segments[i].getP1()))
+				return false;
+		}
+		return true;
+	}
+
+
+	private static int features(Route route) {
+		int count = 0;
+		for (Iterator<GeoFeature> it = route.getGeoFeatures(); it.hasNext(); it.next())
+			count++;
+		return count;
+	}
+
+
+	public void test() {
+		RouteGenerator generator = new RouteGenerator(7);
+		GeoSegment[] segments = generator.segments(1000, 8);
+
+		show("segments()");
+		show("Makes the requested number of segments", segments.length == 1000);
+		show("Segments are connected", connected(segments));
+		show("The same seed makes the same segments",
+			Arrays.equals(segments, new RouteGenerator(7).segments(1000, 8)));
+		show("A different seed makes different segments",
+			!segments[999].equals(new RouteGenerator(8).segments(1000, 8)[999]));
+
+		show("route()");
+		Route route = generator.route(1000, 8);
+		show("One feature per street", features(route) == 125);
+		show("Route ends where the last segment ends", route.getEnd().equals(segments[999].getP2()));
+		show("Single segment route", features(generator.route(1, 8)) == 1);
+	}
+
+
+	public static void main(String[] args) {
+		RouteGeneratorTest generatorTest = new RouteGeneratorTest();
+		generatorTest.test();
+	}
+}
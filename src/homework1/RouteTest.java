@@ -0,0 +1,158 @@
+package homework1;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+public class RouteTest {
+
+	private GeoSegment[] segments = ExampleGeoSegments.segments;
+
+	private Route mRoute;		// Hankin Road -> Trumpeldor Avenue -> Hagalil
+	private Route mLonger;		// mRoute extended along Hagalil
+	private Route mBranch;		// mRoute extended onto Hanita
+
+
+	public RouteTest() {
+		mRoute = new Route(segments[0]);
+		mRoute = mRoute.addSegment(segments[1]);
+		mRoute = mRoute.addSegment(segments[2]);
+		mRoute = mRoute.addSegment(segments[3]);
+		mLonger = mRoute.addSegment(segments[4]);
+		mBranch = mLonger.addSegment(segments[5]);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static int count(Iterator<?> it) {
+		int n = 0;
+		while (it.hasNext()) {
+			it.next();
+			n++;
+		}
+		return n;
+	}
+
+
+	private boolean segmentsInOrder(Route r, int n) {
+		Iterator<GeoSegment> it = r.getGeoSegments();
+		for (int i = 0; i < n; i++) {
+			if (!it.hasNext() || !it.next().equals(segments[i]))
+				return false;
+		}
+		return !it.hasNext();
+	}
+
+
+	public void test() {
+		show("getGeoSegments()");
+		show("Segments are returned in the order they were added",
+			segmentsInOrder(mRoute, 4) && segmentsInOrder(mLonger, 5)
+			&& segmentsInOrder(mBranch, 6));
+
+		show("getGeoFeatures()");
+		show("Same-named segments are merged into one feature",
+			count(mRoute.getGeoFeatures()) == 3 && count(mLonger.getGeoFeatures()) == 3);
+		show("A differently named segment starts a new feature",
+			count(mBranch.getGeoFeatures()) == 4);
+		Iterator<GeoFeature> it = mLonger.getGeoFeatures();
+		it.next();
+		it.next();
+		GeoFeature hagalil = it.next();
+		show("The last feature is extended by addSegment()",
+			hagalil.getName().equals("Hagalil") && count(hagalil.getGeoSegments()) == 2);
+
+		show("immutability");
+		show("Extending a route does not change it",
+			segmentsInOrder(mRoute, 4) && count(mRoute.getGeoFeatures()) == 3);
+		show("Two routes extended from the same route are independent",
+			!mRoute.addSegment(segments[4]).equals(mRoute)
+			&& mRoute.addSegment(segments[4]).equals(mLonger));
+
+		show("equals() & hashCode()");
+		Route copy = new Route(segments[0]).addSegment(segments[1])
+			.addSegment(segments[2]).addSegment(segments[3]);
+		show("Routes built from the same segments are equal",
+			copy.equals(mRoute) && copy.hashCode() == mRoute.hashCode());
+		show("Routes of different length are not equal",
+			!mLonger.equals(mRoute));
+		List<GeoSegment> list = new ArrayList<GeoSegment>();
+		for (Iterator<GeoSegment> gss = mRoute.getLastGeoFeature().getGeoSegments(); gss.hasNext(); )
+			list.add(gss.next());
+		show("A feature's hash code is that of the List of its segments",
+			mRoute.getLastGeoFeature().hashCode() == list.hashCode());
+		Route other = new Route(segments[0]).addSegment(segments[1])
+			.addSegment(segments[2]).addSegment(segments[3].reverse().reverse());
+		Route shorter = new Route(segments[0]).addSegment(segments[1]).addSegment(segments[2]);
+		show("Routes of the same size with a different segment are not equal",
+			!shorter.addSegment(segments[2].reverse()).equals(mRoute) && other.equals(mRoute));
+		Route driven = new Route(segments[0], StandardDistanceModel.HAVERSINE).addSegment(segments[1])
+			.addSegment(segments[2]).addSegment(segments[3]);
+		show("Routes measured by different models are equal",
+			driven.equals(mRoute) && driven.hashCode() == mRoute.hashCode());
+		GeoPoint p = new GeoPoint(32123456, 35123456);
+		show("GeoPoint and GeoSegment hash codes are those of Objects.hash()",
+			p.hashCode() == Objects.hash(p.getLatitude(), p.getLongitude())
+			&& segments[1].hashCode() == Objects.hash(segments[1].getName(),
+				segments[1].getP2().hashCode(), segments[1].getP1().hashCode()));
+
+		show("getLength()");
+		double length = 0;
+		for (int i = 0; i < 5; i++)
+			length += segments[i].getLength();
+		show("Length is the sum of the segments' lengths",
+			Math.abs(mLonger.getLength() - length) < 1e-9);
+
+		show("toString() & appendTo()");
+		String expected = "";
+		for (Iterator<GeoFeature> features = mBranch.getGeoFeatures(); features.hasNext(); ) {
+			GeoFeature gf = features.next();
+			String feature = "{" + gf.getName() + ":";
+			for (Iterator<GeoSegment> gss = gf.getGeoSegments(); gss.hasNext(); )
+				feature += " " + gss.next();
+			expected += " " + feature + "}";
+		}
+		show("toString() lists the features and their segments", mBranch.toString().equals(expected));
+		StringWriter route = new StringWriter(), walking = new StringWriter();
+		try {
+			mBranch.appendTo(route);
+			new WalkingRouteFormatter().computeDirections(mBranch, 0, walking);
+		} catch (IOException e) {
+			show("appendTo() threw " + e, false);
+		}
+		show("appendTo() writes toString()", route.toString().equals(expected));
+		show("computeDirections() writes the same directions to a Writer",
+			walking.toString().equals(new WalkingRouteFormatter().computeDirections(mBranch, 0)));
+
+		show("long routes");
+		Route r = new Route(segments[0]);
+		GeoSegment back = segments[0].reverse();
+		for (int i = 0; i < 20000; i++)
+			r = r.addSegment(i % 2 == 0 ? back : segments[0]);
+		show("A route of 20001 segments is built and iterated",
+			count(r.getGeoSegments()) == 20001 && count(r.getGeoFeatures()) == 1);
+	}
+
+
+	public static void main(String[] args) {
+		RouteTest routeTest = new RouteTest();
+		routeTest.test();
+	}
+}
@@ -0,0 +1,391 @@
+package homework1;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A SegmentFile is a collection of GeoSegments read from a binary segment
+ * file that is mapped into memory. Opening a SegmentFile reads only its
+ * header; the operating system pages the rest of the file in as it is
+ * used, and GeoPoints and GeoSegments are created from the mapped bytes
+ * only when asked for. SegmentFiles are immutable and may be read by any
+ * number of threads at once.
+ * <p>
+ * A segment file holds the columns of a SegmentTable. All numbers are
+ * big-endian:
+ * <pre>
+ *   header    magic     int   0x48573153 ("HW1S")
+ *             version   int   2
+ *             model     int   the ordinal of the StandardDistanceModel of
+ *                             the segments
+ *             points    int   number of points
+ *             segments  int   number of segments
+ *             names     int   number of names
+ *             nameBytes int   size of the name data, in bytes
+ *   points    (latitude int, longitude int) for each point
+ *   segments  (p1 int, p2 int, nameId int) for each segment, where p1
+ *             and p2 are point indexes and nameId a name index
+ *   names     (nameCount + 1) int offsets into the name data, followed
+ *             by the name data: the UTF-8 encoded names, one after another
+ * </pre>
+ * Version 1 files have no model field; their segments are FLAT.
+ * Each block is mapped on its own, so a block may not exceed 2 GB: up to
+ * 268 million points and 178 million segments.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   segments : sequence of GeoSegment   // the segments of the file
+ *   size : integer                      // number of segments
+ *   points : sequence of GeoPoint       // the distinct endpoints
+ *   names : sequence of String          // the distinct names
+ *   model : DistanceModel               // the model of all the segments
+ * </pre>
+ **/
+public class SegmentFile {
+
+	private static final int MAGIC = 0x48573153;
+	private static final int VERSION = 2;
+	private static final int HEADER_BYTES = 28;
+	private static final int VERSION_1_HEADER_BYTES = 24;
+	private static final StandardDistanceModel[] MODELS = StandardDistanceModel.values();
+	private static final int POINT_BYTES = 8;
+	private static final int SEGMENT_BYTES = 12;
+
+	private final int pointCount;
+	private final int segmentCount;
+	private final int nameCount;
+	private final DistanceModel model;
+	private final ByteBuffer points;
+	private final ByteBuffer segments;
+	private final ByteBuffer nameOffsets;
+	private final ByteBuffer nameData;
+	// Names decoded so far. Races only decode a name twice, and Strings
+	// are safe to publish without synchronization.
+	private final String[] names;
+
+	// Abstract Function:
+	// size = segmentCount, model = this.model,
+	// points[i] = GeoPoint(points.getInt(8i), points.getInt(8i + 4)),
+	// names[i] = the UTF-8 string of nameData between nameOffsets[i] and
+	//            nameOffsets[i+1],
+	// segments[i] = GeoSegment(names[segments.getInt(12i + 8)],
+	//                          points[segments.getInt(12i)],
+	//                          points[segments.getInt(12i + 4)], model).
+
+	// Representation invariant:
+	// the buffers hold exactly pointCount points, segmentCount segments,
+	// and nameCount + 1 name offsets && names.length = nameCount &&
+	// names[i] == null or names[i] is the i-th name.
+
+	private void checkRep() {
+		assert points.capacity() == (long) pointCount * POINT_BYTES : "points block size";
+		assert segments.capacity() == (long) segmentCount * SEGMENT_BYTES : "segments block size";
+		assert nameOffsets.capacity() == (nameCount + 1) * 4 : "name offsets size";
+		assert names.length == nameCount : "one name slot per name";
+	}
+
+
+	private SegmentFile(int pointCount, int segmentCount, int nameCount, DistanceModel model,
+			ByteBuffer points, ByteBuffer segments, ByteBuffer nameOffsets, ByteBuffer nameData) {
+		this.pointCount = pointCount;
+		this.segmentCount = segmentCount;
+		this.nameCount = nameCount;
+		this.model = model;
+		this.points = points;
+		this.segments = segments;
+		this.nameOffsets = nameOffsets;
+		this.nameData = nameData;
+		this.names = new String[nameCount];
+		checkRep();
+	}
+
+
+	/**
+	 * Writes the segments of a SegmentTable to a segment file.
+	 * @requires file != null && table != null
+	 * @modifies the file named file
+	 * @effects replaces the contents of file with the segment file for
+	 *          table.segments, such that open(file).segments =
+	 *          table.segments and open(file).model = table.model.
+	 * @throws IOException if the file cannot be written.
+	 * @throws IllegalArgumentException if table.model is not a
+	 *         StandardDistanceModel.
+	 **/
+	public static void write(Path file, SegmentTable table) throws IOException {
+		DistanceModel model = table.getModel();
+		if (!(model instanceof StandardDistanceModel))
+			throw new IllegalArgumentException("cannot write segments measured by " + model);
+		GeoPointStore store = table.getPoints();
+		byte[][] encoded = new byte[table.nameCount()][];
+		int nameBytes = 0;
+		for (int i = 0; i < encoded.length; i++) {
+			encoded[i] = table.nameOf(i).getBytes(StandardCharsets.UTF_8);
+			nameBytes += encoded[i].length;
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(((StandardDistanceModel) model).ordinal());
+			out.writeInt(store.size());
+			out.writeInt(table.size());
+			out.writeInt(encoded.length);
+			out.writeInt(nameBytes);
+			for (int id = 0; id < store.size(); id++) {
+				out.writeInt(store.getLatitude(id));
+				out.writeInt(store.getLongitude(id));
+			}
+			for (int i = 0; i < table.size(); i++) {
+				out.writeInt(table.getP1(i));
+				out.writeInt(table.getP2(i));
+				out.writeInt(table.getNameId(i));
+			}
+			int offset = 0;
+			out.writeInt(offset);
+			for (byte[] name : encoded) {
+				offset += name.length;
+				out.writeInt(offset);
+			}
+			for (byte[] name : encoded)
+				out.write(name);
+		}
+	}
+
+
+	/**
+	 * Writes segments to a segment file.
+	 * @requires file != null && segments != null && no element of segments
+	 *           is null
+	 * @modifies the file named file
+	 * @effects replaces the contents of file with the segment file for
+	 *          segments, such that open(file).segments = segments.
+	 * @throws IOException if the file cannot be written.
+	 * @throws IllegalArgumentException if the segments have different
+	 *         models, or a model that is not a StandardDistanceModel.
+	 **/
+	public static void write(Path file, GeoSegment[] segments) throws IOException {
+		write(file, SegmentTable.load(segments));
+	}
+
+
+	/**
+	 * Maps a segment file into memory.
+	 * @requires file != null
+	 * @return a SegmentFile whose segments are those of file.
+	 * @throws IOException if the file cannot be read or is not a valid
+	 *         segment file.
+	 **/
+	public static SegmentFile open(Path file) throws IOException {
+		// the mapping stays valid after the channel is closed
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < VERSION_1_HEADER_BYTES)
+				throw new IOException(file + " is not a segment file");
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					Math.min(fileSize, HEADER_BYTES));
+			if (header.getInt(0) != MAGIC)
+				throw new IOException(file + " is not a segment file");
+			int version = header.getInt(4);
+			if (version != VERSION && version != 1)
+				throw new IOException(file + " has unsupported version " + version);
+			int headerBytes = version == 1 ? VERSION_1_HEADER_BYTES : HEADER_BYTES;
+			if (fileSize < headerBytes)
+				throw new IOException(file + " has a corrupt header");
+			DistanceModel model = StandardDistanceModel.FLAT;
+			if (version != 1) {
+				int modelId = header.getInt(8);
+				if (modelId < 0 || modelId >= MODELS.length)
+					throw new IOException(file + " has unknown model " + modelId);
+				model = MODELS[modelId];
+			}
+			int counts = headerBytes - 16;		// the four counts end the header
+			int pointCount = header.getInt(counts);
+			int segmentCount = header.getInt(counts + 4);
+			int nameCount = header.getInt(counts + 8);
+			int nameBytes = header.getInt(counts + 12);
+			if (pointCount < 0 || segmentCount < 0 || nameCount < 0 || nameBytes < 0)
+				throw new IOException(file + " has a corrupt header");
+
+			long pointsAt = headerBytes;
+			long segmentsAt = pointsAt + (long) pointCount * POINT_BYTES;
+			long offsetsAt = segmentsAt + (long) segmentCount * SEGMENT_BYTES;
+			long dataAt = offsetsAt + (nameCount + 1L) * 4;
+			if (dataAt + nameBytes != fileSize)
+				throw new IOException(file + " has " + fileSize + " bytes, expected " + (dataAt + nameBytes));
+
+			return new SegmentFile(pointCount, segmentCount, nameCount, model,
+					map(channel, pointsAt, segmentsAt),
+					map(channel, segmentsAt, offsetsAt),
+					map(channel, offsetsAt, dataAt),
+					map(channel, dataAt, dataAt + nameBytes));
+		}
+	}
+
+
+	private static ByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+		if (to - from > Integer.MAX_VALUE)
+			throw new IOException("block of " + (to - from) + " bytes is too large to map");
+		return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+	}
+
+
+	/**
+	 * Returns the number of segments in this.
+	 * @return size
+	 **/
+	public int size() {
+		return segmentCount;
+	}
+
+
+	/**
+	 * Returns the model that measures the segments of this.
+	 * @return model
+	 **/
+	public DistanceModel getModel() {
+		return model;
+	}
+
+
+	/**
+	 * Returns the number of distinct points in this.
+	 * @return the length of points.
+	 **/
+	public int pointCount() {
+		return pointCount;
+	}
+
+
+	/**
+	 * Returns the number of distinct names in this.
+	 * @return the length of names.
+	 **/
+	public int nameCount() {
+		return nameCount;
+	}
+
+
+	/**
+	 * Returns the latitude of a point.
+	 * @requires 0 <= id < pointCount()
+	 * @return points[id].latitude
+	 **/
+	public int getLatitude(int id) {
+		return points.getInt(id * POINT_BYTES);
+	}
+
+
+	/**
+	 * Returns the longitude of a point.
+	 * @requires 0 <= id < pointCount()
+	 * @return points[id].longitude
+	 **/
+	public int getLongitude(int id) {
+		return points.getInt(id * POINT_BYTES + 4);
+	}
+
+
+	/**
+	 * Returns a point of this.
+	 * @requires 0 <= id < pointCount()
+	 * @return a new GeoPoint equal to points[id].
+	 **/
+	public GeoPoint getPoint(int id) {
+		return new GeoPoint(getLatitude(id), getLongitude(id));
+	}
+
+
+	/**
+	 * Returns a name of the name dictionary of this.
+	 * @requires 0 <= nameId < nameCount()
+	 * @return names[nameId]
+	 **/
+	public String nameOf(int nameId) {
+		String name = names[nameId];
+		if (name == null) {
+			int from = nameOffsets.getInt(nameId * 4);
+			int to = nameOffsets.getInt(nameId * 4 + 4);
+			byte[] bytes = new byte[to - from];
+			nameData.duplicate().position(from).get(bytes);
+			name = new String(bytes, StandardCharsets.UTF_8).intern();
+			names[nameId] = name;
+		}
+		return name;
+	}
+
+
+	/**
+	 * Returns the point id of the first endpoint of a segment.
+	 * @requires 0 <= i < size
+	 * @return the index in points of segments[i].p1.
+	 **/
+	public int getP1(int i) {
+		return segments.getInt(i * SEGMENT_BYTES);
+	}
+
+
+	/**
+	 * Returns the point id of the second endpoint of a segment.
+	 * @requires 0 <= i < size
+	 * @return the index in points of segments[i].p2.
+	 **/
+	public int getP2(int i) {
+		return segments.getInt(i * SEGMENT_BYTES + 4);
+	}
+
+
+	/**
+	 * Returns the name id of a segment.
+	 * @requires 0 <= i < size
+	 * @return the index in names of segments[i].name.
+	 **/
+	public int getNameId(int i) {
+		return segments.getInt(i * SEGMENT_BYTES + 8);
+	}
+
+
+	/**
+	 * Returns a GeoSegment equal to a segment of this.
+	 * @requires 0 <= i < size
+	 * @return a new GeoSegment equal to segments[i], measured by model.
+	 **/
+	public GeoSegment get(int i) {
+		return new GeoSegment(nameOf(getNameId(i)), getPoint(getP1(i)), getPoint(getP2(i)), model);
+	}
+
+
+	/**
+	 * Returns the segments of this as a list. The list is a view: it holds
+	 * no GeoSegments, and get() creates a new one every time it is called.
+	 * It may be passed to a RoadGraph or SegmentIndex constructor.
+	 * @return an unmodifiable list equal to segments.
+	 **/
+	public List<GeoSegment> segments() {
+		return new Segments();
+	}
+
+
+	private final class Segments extends AbstractList<GeoSegment> implements RandomAccess {
+
+		public GeoSegment get(int i) {
+			if (i < 0 || i >= segmentCount)
+				throw new IndexOutOfBoundsException("index " + i + ", size " + segmentCount);
+			return SegmentFile.this.get(i);
+		}
+
+		public int size() {
+			return segmentCount;
+		}
+	}
+}
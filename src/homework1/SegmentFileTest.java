@@ -0,0 +1,126 @@
+package homework1;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class SegmentFileTest {
+
+	private GeoSegment[] segments = ExampleGeoSegments.segments;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static boolean rejected(Path file) {
+		try {
+			SegmentFile.open(file);
+			return false;
+		} catch (IOException e) {
+			return true;
+		}
+	}
+
+
+	public void test() throws IOException {
+		Path file = Files.createTempFile("segments", ".bin");
+		try {
+			SegmentFile.write(file, segments);
+			SegmentFile mapped = SegmentFile.open(file);
+
+			show("open()");
+			show("All segments are read", mapped.size() == segments.length);
+			show("Shared endpoints are stored once",
+				mapped.pointCount() == ExampleGeoSegments.points.length);
+			show("Repeated names are stored once", mapped.nameCount() == 9);
+
+			show("get()");
+			boolean same = true;
+			for (int i = 0; i < segments.length; i++)
+				same &= mapped.get(i).equals(segments[i]);
+			show("Segments equal the written ones", same);
+			show("Names are decoded once",
+				mapped.nameOf(mapped.getNameId(0)) == mapped.get(0).getName());
+
+			show("segments()");
+			List<GeoSegment> view = mapped.segments();
+			show("The view equals the written segments", view.equals(Arrays.asList(segments)));
+			RoadGraph graph = new RoadGraph(view);
+			show("The view builds a RoadGraph", graph.edgeCount() == segments.length);
+
+			show("Bad files");
+			byte[] bytes = Files.readAllBytes(file);
+			Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+			show("Truncated files are rejected", rejected(file));
+			bytes[0] ^= 1;
+			Files.write(file, bytes);
+			show("Files without the magic number are rejected", rejected(file));
+			Files.write(file, new byte[3]);
+			show("Files shorter than the header are rejected", rejected(file));
+
+			show("Models");
+			GeoSegment[] haversine = new GeoSegment[segments.length];
+			for (int i = 0; i < segments.length; i++)
+				haversine[i] = segments[i].withModel(StandardDistanceModel.HAVERSINE);
+			SegmentFile.write(file, haversine);
+			mapped = SegmentFile.open(file);
+			boolean kept = mapped.getModel() == StandardDistanceModel.HAVERSINE;
+			for (int i = 0; i < segments.length; i++)
+				kept &= mapped.get(i).getModel() == StandardDistanceModel.HAVERSINE
+					&& mapped.get(i).getLength() == haversine[i].getLength();
+			show("The model is stored and read back", kept);
+			bytes = Files.readAllBytes(file);
+			bytes[11] = 99;
+			Files.write(file, bytes);
+			show("Unknown models are rejected", rejected(file));
+			// a version 1 file: no model field
+			byte[] old = new byte[bytes.length - 4];
+			System.arraycopy(bytes, 0, old, 0, 8);
+			System.arraycopy(bytes, 12, old, 8, old.length - 8);
+			old[7] = 1;
+			Files.write(file, old);
+			mapped = SegmentFile.open(file);
+			show("Version 1 files are read as FLAT", mapped.getModel() == StandardDistanceModel.FLAT
+				&& mapped.segments().equals(Arrays.asList(segments))
+				&& mapped.get(0).getModel() == StandardDistanceModel.FLAT);
+			DistanceModel custom = new DistanceModel() {
+				public double distance(int lat1, int lon1, int lat2, int lon2) {
+					return 1;
+				}
+				public double heading(int lat1, int lon1, int lat2, int lon2) {
+					return 0;
+				}
+			};
+			boolean unwritable;
+			try {
+				SegmentFile.write(file, new GeoSegment[] {segments[0].withModel(custom)});
+				unwritable = false;
+			} catch (IllegalArgumentException e) {
+				unwritable = true;
+			}
+			show("Models other than the standard ones cannot be written", unwritable);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		SegmentFileTest fileTest = new SegmentFileTest();
+		fileTest.test();
+	}
+}
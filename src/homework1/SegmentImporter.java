@@ -0,0 +1,711 @@
+package homework1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * A SegmentImporter reads street data from CSV or GeoJSON files and turns
+ * every polyline in them into consecutive GeoSegments named after the
+ * street. SegmentImporters are immutable.
+ * <p>
+ * Both formats hold one record per line:
+ * <ul>
+ * <li>CSV: <tt>name,lat1,lon1,lat2,lon2[,lat3,lon3...]</tt>, coordinates in
+ *     degrees. The name may be quoted with <tt>"</tt>, a quote inside a
+ *     quoted name being written <tt>""</tt>. Blank lines and lines that
+ *     start with <tt>#</tt> are ignored.</li>
+ * <li>GeoJSON: one Feature per line, whose geometry is a LineString or a
+ *     MultiLineString and whose <tt>name</tt> property is the street name
+ *     ("" if it has none). A leading record separator (RFC 8142) and a
+ *     trailing comma are allowed, so a FeatureCollection written with one
+ *     feature per line can be read as is: the line that opens the
+ *     collection (up to the <tt>[</tt> of its features) and the lines that
+ *     close it are ignored, and so are blank lines. Any other line that
+ *     does not hold a whole object, such as a line of pretty-printed
+ *     GeoJSON, is an error. A line that holds a whole FeatureCollection is
+ *     read too. Features of other geometry types are ignored.</li>
+ * </ul>
+ * Lines longer than MAX_LINE_BYTES are errors in both formats.
+ * A polyline of points q1, q2, ..., qn becomes the segments (q1, q2),
+ * (q2, q3), ..., (qn-1, qn); repeated consecutive points are dropped.
+ * <p>
+ * Points are interned with GeoPoint.intern() and names by GeoSegment, so
+ * the segments of a network share one GeoPoint per intersection and one
+ * String per street name.
+ * <p>
+ * Degrees are rounded to the millionths of a degree that GeoPoint uses.
+ * Coordinates outside the valid range are either clamped to it or make
+ * the importer reject the whole record, depending on the OutOfRange
+ * policy. Records that cannot be parsed are errors.
+ * <p>
+ * Files are never loaded whole. The file is split into chunks of about
+ * equal size at line boundaries, and the chunks are read in parallel on a
+ * ForkJoinPool, each through its own small buffer and one line at a time;
+ * the memory used does not depend on the size of the file, beyond the
+ * segments produced, and holds at most MAX_LINE_BYTES of text per chunk.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   format : Format           // the format of the files
+ *   outOfRange : OutOfRange   // what is done with out-of-range coordinates
+ *   pool : ForkJoinPool       // the threads that read the chunks
+ * </pre>
+ **/
+public class SegmentImporter {
+
+	/**
+	 * The formats of the files a SegmentImporter reads.
+	 */
+	public enum Format {
+		CSV, GEOJSON
+	}
+
+
+	/**
+	 * What a SegmentImporter does with coordinates outside the range of
+	 * GeoPoint.
+	 */
+	public enum OutOfRange {
+		/** Coordinates are moved to the nearest valid value. */
+		CLAMP,
+		/** Records with such coordinates are skipped and counted. */
+		REJECT
+	}
+
+
+	/** The longest line read, in bytes, without its line terminator. */
+	public static final int MAX_LINE_BYTES = 1 << 24;
+
+	private static final int BUFFER_BYTES = 1 << 16;
+	private static final long MIN_CHUNK_BYTES = 1 << 20;
+
+	private final Format format;
+	private final OutOfRange outOfRange;
+	private final ForkJoinPool pool;
+
+	// Abstract Function:
+	// format = this.format, outOfRange = this.outOfRange, pool = this.pool
+
+	// Representation invariant:
+	// format != null && outOfRange != null && pool != null
+
+
+	/**
+	 * Constructs a SegmentImporter that uses the common ForkJoinPool.
+	 * @requires format != null && outOfRange != null
+	 * @effects constructs a SegmentImporter with this.format = format,
+	 *          this.outOfRange = outOfRange and pool =
+	 *          ForkJoinPool.commonPool().
+	 **/
+	public SegmentImporter(Format format, OutOfRange outOfRange) {
+		this(format, outOfRange, ForkJoinPool.commonPool());
+	}
+
+
+	/**
+	 * Constructs a SegmentImporter.
+	 * @requires format != null && outOfRange != null && pool != null
+	 * @effects constructs a SegmentImporter with this.format = format,
+	 *          this.outOfRange = outOfRange and this.pool = pool.
+	 **/
+	public SegmentImporter(Format format, OutOfRange outOfRange, ForkJoinPool pool) {
+		if (format == null || outOfRange == null || pool == null)
+			throw new NullPointerException();
+		this.format = format;
+		this.outOfRange = outOfRange;
+		this.pool = pool;
+	}
+
+
+	/**
+	 * Reads the segments of a file. Use read(file, segments) to learn how
+	 * many records were rejected.
+	 * @requires file != null
+	 * @return the segments of the records of file, in file order, without
+	 *         the rejected records.
+	 * @throws IOException if the file cannot be read or a record cannot be
+	 *         parsed.
+	 **/
+	public List<GeoSegment> read(Path file) throws IOException {
+		List<GeoSegment> segments = new ArrayList<GeoSegment>();
+		read(file, segments);
+		return segments;
+	}
+
+
+	/**
+	 * Reads the segments of a file into a list.
+	 * @requires file != null && segments != null
+	 * @modifies segments
+	 * @effects appends the segments of the records of file, in file order,
+	 *          without the rejected records, to segments; if an exception
+	 *          is thrown, segments is unchanged.
+	 * @return the number of rejected records.
+	 * @throws IOException if the file cannot be read or a record cannot be
+	 *         parsed.
+	 **/
+	public long read(Path file, List<GeoSegment> segments) throws IOException {
+		List<List<GeoSegment>> chunks = new ArrayList<List<GeoSegment>>();
+		long rejected = run(file, chunk -> {
+			List<GeoSegment> part = new ArrayList<GeoSegment>();
+			synchronized (chunks) {
+				while (chunks.size() <= chunk)
+					chunks.add(null);
+				chunks.set(chunk, part);
+			}
+			return part::add;
+		});
+		for (List<GeoSegment> chunk : chunks)
+			segments.addAll(chunk);
+		return rejected;
+	}
+
+
+	/**
+	 * Reads the segments of a file and passes them to sink as they are
+	 * made, without keeping them. sink is called by several threads at
+	 * once, so it must be thread-safe; the segments of one record are
+	 * passed in order, one after the other, by the same thread.
+	 * @requires file != null && sink != null
+	 * @modifies sink
+	 * @effects passes every segment of the records of file, but those of
+	 *          the rejected records, to sink.
+	 * @return the number of rejected records.
+	 * @throws IOException if the file cannot be read or a record cannot be
+	 *         parsed.
+	 **/
+	public long importTo(Path file, Consumer<GeoSegment> sink) throws IOException {
+		return run(file, chunk -> sink);
+	}
+
+
+	/**
+	 * Converts a coordinate in degrees to millionths of a degree.
+	 * @requires limit > 0
+	 * @return the nearest integer to degrees * 1000000, or Integer.MIN_VALUE
+	 *         if degrees is NaN or the result is not in [-limit, limit].
+	 **/
+	static int toMillionths(double degrees, int limit) {
+		double millionths = Math.rint(degrees * 1000000);
+		if (!(millionths >= -limit && millionths <= limit))
+			return Integer.MIN_VALUE;
+		return (int) millionths;
+	}
+
+
+	/**
+	 * Reads all the chunks of a file, with one sink per chunk.
+	 * @return the number of rejected records.
+	 */
+	private long run(Path file, IntFunction<Consumer<GeoSegment>> sinks) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int parallelism = pool.getParallelism();
+			int chunks = (int) Math.max(1, Math.min(size / MIN_CHUNK_BYTES, 4L * parallelism));
+			AtomicLong rejected = new AtomicLong();
+			try {
+				pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+					long from = size * chunk / chunks;
+					long to = size * (chunk + 1) / chunks;
+					try {
+						rejected.addAndGet(new Chunk(channel, from, to, sinks.apply(chunk)).read());
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				})).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while reading " + file, e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof UncheckedIOException)
+					throw new IOException(file + ": " + cause.getCause().getMessage(), cause.getCause());
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				throw new IOException(cause);
+			}
+			return rejected.get();
+		}
+	}
+
+
+	/**
+	 * A Chunk reads the records that start in a range of bytes of a file.
+	 * A record belongs to the chunk its first byte is in, so a chunk that
+	 * does not start the file skips the end of the record before it, and
+	 * finishes the last record it starts even if it goes past its end.
+	 */
+	private final class Chunk {
+
+		private final FileChannel channel;
+		private final long end;
+		private final Consumer<GeoSegment> sink;
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+		private long position;				// file position of buffer's first byte
+		private byte[] line = new byte[256];
+		private long lineStart;
+		private final List<GeoPoint> polyline = new ArrayList<GeoPoint>();
+		private long rejected;
+
+		Chunk(FileChannel channel, long start, long end, Consumer<GeoSegment> sink) throws IOException {
+			this.channel = channel;
+			this.end = end;
+			this.sink = sink;
+			buffer.limit(0);
+			if (start > 0) {
+				position = start - 1;
+				skipLine();		// the end of the record before this chunk
+			} else {
+				position = 0;
+			}
+		}
+
+		/**
+		 * Reads the records of this chunk.
+		 * @return the number of rejected records.
+		 */
+		long read() throws IOException {
+			while (position + buffer.position() < end) {
+				int length = readLine();
+				if (length < 0)
+					break;
+				String text = new String(line, 0, length, StandardCharsets.UTF_8);
+				if (format == Format.CSV)
+					csvRecord(text);
+				else
+					geoJsonRecord(text);
+			}
+			return rejected;
+		}
+
+		/**
+		 * Reads the next line into line, without its line terminator.
+		 * @return the length of the line, or -1 at the end of the file.
+		 * @throws IOException if the line is longer than MAX_LINE_BYTES.
+		 */
+		private int readLine() throws IOException {
+			lineStart = position + buffer.position();
+			int length = 0;
+			boolean any = false;
+			while (true) {
+				if (!fill())
+					return any ? trimmed(length) : -1;
+				byte b = buffer.get();
+				any = true;
+				if (b == '\n')
+					break;
+				if (length == line.length) {
+					// one more byte for a '\r' that ends a line of the limit
+					if (length > MAX_LINE_BYTES)
+						throw malformed("line longer than " + MAX_LINE_BYTES + " bytes");
+					line = Arrays.copyOf(line, (int) Math.min(2L * length, MAX_LINE_BYTES + 1));
+				}
+				line[length++] = b;
+			}
+			return trimmed(length);
+		}
+
+		// The length of the line of length bytes, without a trailing '\r'.
+		private int trimmed(int length) throws IOException {
+			if (length > 0 && line[length - 1] == '\r')
+				length--;
+			if (length > MAX_LINE_BYTES)
+				throw malformed("line longer than " + MAX_LINE_BYTES + " bytes");
+			return length;
+		}
+
+		/**
+		 * Moves past the next line terminator without keeping the bytes
+		 * before it; the chunk before this one reads them.
+		 */
+		private void skipLine() throws IOException {
+			while (fill()) {
+				if (buffer.get() == '\n')
+					return;
+			}
+		}
+
+		// Refills buffer if it is empty; returns false at the end of the file.
+		private boolean fill() throws IOException {
+			if (buffer.hasRemaining())
+				return true;
+			position += buffer.limit();
+			buffer.clear();
+			if (channel.read(buffer, position) <= 0) {
+				buffer.limit(0);
+				return false;
+			}
+			buffer.flip();
+			return true;
+		}
+
+		private IOException malformed(String why) {
+			return new IOException("malformed record at byte " + lineStart + ": " + why);
+		}
+
+		// Adds a point given in degrees to polyline.
+		// Returns false if the record must be rejected.
+		private boolean addPoint(double latDegrees, double lonDegrees) throws IOException {
+			if (Double.isNaN(latDegrees) || Double.isNaN(lonDegrees))
+				throw malformed("coordinate is not a number");
+			int lat = toMillionths(latDegrees, GeoPoint.MAX_LATITUDE);
+			int lon = toMillionths(lonDegrees, GeoPoint.MAX_LONGITUDE);
+			if (lat == Integer.MIN_VALUE || lon == Integer.MIN_VALUE) {
+				if (outOfRange == OutOfRange.REJECT)
+					return false;
+				if (lat == Integer.MIN_VALUE)
+					lat = latDegrees < 0 ? GeoPoint.MIN_LATITUDE : GeoPoint.MAX_LATITUDE;
+				if (lon == Integer.MIN_VALUE)
+					lon = lonDegrees < 0 ? GeoPoint.MIN_LONGITUDE : GeoPoint.MAX_LONGITUDE;
+			}
+			GeoPoint gp = new GeoPoint(lat, lon).intern();
+			if (polyline.isEmpty() || !polyline.get(polyline.size() - 1).equals(gp))
+				polyline.add(gp);
+			return true;
+		}
+
+		// Passes the segments of polyline to sink.
+		private void emit(String name) {
+			for (int i = 1; i < polyline.size(); i++)
+				sink.accept(new GeoSegment(name, polyline.get(i - 1), polyline.get(i)));
+			polyline.clear();
+		}
+
+		private void csvRecord(String text) throws IOException {
+			if (text.trim().isEmpty() || text.startsWith("#"))
+				return;
+			List<String> fields = csvFields(text);
+			if (fields.size() < 5 || fields.size() % 2 == 0)
+				throw malformed("expected a name and at least two latitude,longitude pairs");
+			polyline.clear();
+			for (int i = 1; i < fields.size(); i += 2) {
+				if (!addPoint(number(fields.get(i)), number(fields.get(i + 1)))) {
+					polyline.clear();
+					rejected++;
+					return;
+				}
+			}
+			emit(fields.get(0));
+		}
+
+		private double number(String field) throws IOException {
+			try {
+				return Double.parseDouble(field.trim());
+			} catch (NumberFormatException e) {
+				throw malformed("\"" + field + "\" is not a number");
+			}
+		}
+
+		private List<String> csvFields(String text) throws IOException {
+			List<String> fields = new ArrayList<String>();
+			StringBuilder field = new StringBuilder();
+			int i = 0, n = text.length();
+			while (true) {
+				field.setLength(0);
+				if (i < n && text.charAt(i) == '"') {
+					i++;
+					while (true) {
+						if (i == n)
+							throw malformed("unterminated quote");
+						char c = text.charAt(i++);
+						if (c == '"') {
+							if (i < n && text.charAt(i) == '"')
+								i++;
+							else
+								break;
+						}
+						field.append(c);
+					}
+					if (i < n && text.charAt(i) != ',')
+						throw malformed("text after a closing quote");
+				} else {
+					while (i < n && text.charAt(i) != ',')
+						field.append(text.charAt(i++));
+				}
+				fields.add(field.toString());
+				if (i == n)
+					return fields;
+				i++;		// the comma
+			}
+		}
+
+		private void geoJsonRecord(String text) throws IOException {
+			int from = 0, to = text.length();
+			while (from < to && (text.charAt(from) <= ' ' || text.charAt(from) == '\u001e'))
+				from++;
+			while (to > from && (text.charAt(to - 1) <= ' ' || text.charAt(to - 1) == ','))
+				to--;
+			if (from == to || opensCollection(text, from, to) || closesCollection(text, from, to))
+				return;
+			if (text.charAt(from) != '{' || text.charAt(to - 1) != '}')
+				throw malformed("not a whole GeoJSON object; write one feature per line");
+			Object json;
+			try {
+				json = new Json(text, from, to).parse();
+			} catch (IllegalArgumentException e) {
+				throw malformed(e.getMessage());
+			}
+			feature(json);
+		}
+
+		// Whether text[from, to) opens a collection written one feature per
+		// line, as {"type": "FeatureCollection", "features": [
+		private boolean opensCollection(String text, int from, int to) {
+			int features = text.indexOf("\"features\"", from);
+			return text.charAt(from) == '{' && text.charAt(to - 1) == '[' && features >= 0 && features < to;
+		}
+
+		// Whether text[from, to) only closes brackets, as ]} does.
+		private boolean closesCollection(String text, int from, int to) {
+			for (int i = from; i < to; i++) {
+				char c = text.charAt(i);
+				if (c != ']' && c != '}' && c != ',' && c > ' ')
+					return false;
+			}
+			return true;
+		}
+
+		private void feature(Object json) throws IOException {
+			if (!(json instanceof Map))
+				throw malformed("expected an object");
+			Map<?, ?> object = (Map<?, ?>) json;
+			Object type = object.get("type");
+			if ("FeatureCollection".equals(type)) {
+				Object features = object.get("features");
+				if (!(features instanceof List))
+					throw malformed("FeatureCollection without features");
+				for (Object f : (List<?>) features)
+					feature(f);
+				return;
+			}
+			if (!"Feature".equals(type))
+				return;
+			Object name = null;
+			if (object.get("properties") instanceof Map)
+				name = ((Map<?, ?>) object.get("properties")).get("name");
+			String street = name == null ? "" : name.toString();
+			if (!(object.get("geometry") instanceof Map))
+				return;
+			Map<?, ?> geometry = (Map<?, ?>) object.get("geometry");
+			Object coordinates = geometry.get("coordinates");
+			List<?> lines;
+			if ("LineString".equals(geometry.get("type")))
+				lines = Arrays.asList(coordinates);
+			else if ("MultiLineString".equals(geometry.get("type")) && coordinates instanceof List)
+				lines = (List<?>) coordinates;
+			else
+				return;
+
+			// check every point before emitting, so that a rejected
+			// feature has no segments
+			List<List<GeoPoint>> parts = new ArrayList<List<GeoPoint>>();
+			for (Object line : lines) {
+				if (!(line instanceof List))
+					throw malformed("LineString coordinates must be an array");
+				polyline.clear();
+				for (Object position : (List<?>) line) {
+					if (!(position instanceof List) || ((List<?>) position).size() < 2
+							|| !(((List<?>) position).get(0) instanceof Double)
+							|| !(((List<?>) position).get(1) instanceof Double))
+						throw malformed("a position must be an array of numbers");
+					List<?> p = (List<?>) position;
+					// GeoJSON positions are longitude, latitude
+					if (!addPoint((Double) p.get(1), (Double) p.get(0))) {
+						polyline.clear();
+						rejected++;
+						return;
+					}
+				}
+				parts.add(new ArrayList<GeoPoint>(polyline));
+			}
+			for (List<GeoPoint> part : parts) {
+				polyline.clear();
+				polyline.addAll(part);
+				emit(street);
+			}
+		}
+	}
+
+
+	/**
+	 * A minimal JSON parser for one line of text. Objects become Maps,
+	 * arrays Lists, numbers Doubles, and true, false and null Booleans and
+	 * null.
+	 */
+	private static final class Json {
+
+		private final String text;
+		private final int end;
+		private int i;
+
+		Json(String text, int from, int to) {
+			this.text = text;
+			this.i = from;
+			this.end = to;
+		}
+
+		Object parse() {
+			Object value = value();
+			skipSpace();
+			if (i != end)
+				throw error("text after the value");
+			return value;
+		}
+
+		private IllegalArgumentException error(String why) {
+			return new IllegalArgumentException(why + " at column " + i);
+		}
+
+		private void skipSpace() {
+			while (i < end && text.charAt(i) <= ' ')
+				i++;
+		}
+
+		private char peek() {
+			skipSpace();
+			if (i == end)
+				throw error("unexpected end of line");
+			return text.charAt(i);
+		}
+
+		private void expect(char c) {
+			if (peek() != c)
+				throw error("expected '" + c + "'");
+			i++;
+		}
+
+		private Object value() {
+			char c = peek();
+			switch (c) {
+			case '{':
+				return object();
+			case '[':
+				return array();
+			case '"':
+				return string();
+			case 't':
+				return literal("true", Boolean.TRUE);
+			case 'f':
+				return literal("false", Boolean.FALSE);
+			case 'n':
+				return literal("null", null);
+			default:
+				return number();
+			}
+		}
+
+		private Map<String, Object> object() {
+			Map<String, Object> object = new LinkedHashMap<String, Object>();
+			expect('{');
+			if (peek() == '}') {
+				i++;
+				return object;
+			}
+			while (true) {
+				if (peek() != '"')
+					throw error("expected a member name");
+				String key = string();
+				expect(':');
+				object.put(key, value());
+				if (peek() == ',') {
+					i++;
+					continue;
+				}
+				expect('}');
+				return object;
+			}
+		}
+
+		private List<Object> array() {
+			List<Object> array = new ArrayList<Object>();
+			expect('[');
+			if (peek() == ']') {
+				i++;
+				return array;
+			}
+			while (true) {
+				array.add(value());
+				if (peek() == ',') {
+					i++;
+					continue;
+				}
+				expect(']');
+				return array;
+			}
+		}
+
+		private String string() {
+			expect('"');
+			StringBuilder sb = new StringBuilder();
+			while (true) {
+				if (i == end)
+					throw error("unterminated string");
+				char c = text.charAt(i++);
+				if (c == '"')
+					return sb.toString();
+				if (c != '\\') {
+					sb.append(c);
+					continue;
+				}
+				if (i == end)
+					throw error("unterminated string");
+				char e = text.charAt(i++);
+				switch (e) {
+				case 'b': sb.append('\b'); break;
+				case 'f': sb.append('\f'); break;
+				case 'n': sb.append('\n'); break;
+				case 'r': sb.append('\r'); break;
+				case 't': sb.append('\t'); break;
+				case 'u':
+					if (i + 4 > end)
+						throw error("bad unicode escape");
+					try {
+						sb.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+					} catch (NumberFormatException x) {
+						throw error("bad unicode escape");
+					}
+					i += 4;
+					break;
+				default:
+					sb.append(e);		// '"', '\\' and '/'
+				}
+			}
+		}
+
+		private Object literal(String word, Object value) {
+			if (!text.startsWith(word, i))
+				throw error("unexpected character");
+			i += word.length();
+			return value;
+		}
+
+		private Double number() {
+			int start = i;
+			while (i < end && "+-0123456789.eE".indexOf(text.charAt(i)) >= 0)
+				i++;
+			if (start == i)
+				throw error("unexpected character");
+			try {
+				return Double.valueOf(text.substring(start, i));
+			} catch (NumberFormatException e) {
+				throw error("bad number");
+			}
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package homework1;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SegmentImporterTest {
+
+	private static final SegmentImporter.Format CSV = SegmentImporter.Format.CSV;
+	private static final SegmentImporter.Format GEOJSON = SegmentImporter.Format.GEOJSON;
+	private static final SegmentImporter.OutOfRange CLAMP = SegmentImporter.OutOfRange.CLAMP;
+	private static final SegmentImporter.OutOfRange REJECT = SegmentImporter.OutOfRange.REJECT;
+
+	private Path mFile;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private List<GeoSegment> read(SegmentImporter.Format format, SegmentImporter.OutOfRange outOfRange,
+			String text) throws IOException {
+		Files.write(mFile, text.getBytes(StandardCharsets.UTF_8));
+		return new SegmentImporter(format, outOfRange).read(mFile);
+	}
+
+
+	private boolean fails(SegmentImporter.Format format, String text) {
+		try {
+			read(format, CLAMP, text);
+			return false;
+		} catch (IOException e) {
+			return true;
+		}
+	}
+
+
+	private static boolean segment(GeoSegment gs, String name, int lat1, int lon1, int lat2, int lon2) {
+		return gs.equals(new GeoSegment(name, new GeoPoint(lat1, lon1), new GeoPoint(lat2, lon2)));
+	}
+
+
+	public void test() throws IOException {
+		mFile = Files.createTempFile("streets", ".txt");
+		try {
+			testCsv();
+			testGeoJson();
+			testLongLines();
+			testChunks();
+		} finally {
+			Files.delete(mFile);
+		}
+	}
+
+
+	private void testCsv() throws IOException {
+		show("CSV");
+		List<GeoSegment> segments = read(CSV, CLAMP,
+			"# name,lat,lon,...\n"
+			+ "Trumpeldor Avenue,32.783098,35.014528,32.783104,35.018322,32.785621,35.018322\r\n"
+			+ "\n"
+			+ "\"Hankin \"\"Road\"\"\",1.5,-2.25,1.5,-2.25,1.0,-2.0\n");
+		show("Polylines are split into consecutive segments", segments.size() == 3
+			&& segment(segments.get(0), "Trumpeldor Avenue", 32783098, 35014528, 32783104, 35018322)
+			&& segment(segments.get(1), "Trumpeldor Avenue", 32783104, 35018322, 32785621, 35018322));
+		show("Quoted names and repeated points",
+			segment(segments.get(2), "Hankin \"Road\"", 1500000, -2250000, 1000000, -2000000));
+		segments = read(CSV, CLAMP, "North,89.5,0,90.7,200\n");
+		show("Out-of-range coordinates are clamped",
+			segments.size() == 1 && segment(segments.get(0), "North", 89500000, 0, 90000000, 180000000));
+		segments = read(CSV, REJECT, "North,89.5,0,90.7,200\nSouth,-1,0,-2,0\n");
+		show("Out-of-range records are rejected",
+			segments.size() == 1 && segments.get(0).getName().equals("South"));
+		show("Missing coordinates are errors", fails(CSV, "Street,1,2,3\n"));
+		show("Bad numbers are errors", fails(CSV, "Street,1,2,3,x\n"));
+		show("Unterminated quotes are errors", fails(CSV, "\"Street,1,2,3,4\n"));
+	}
+
+
+	private void testGeoJson() throws IOException {
+		show("GeoJSON");
+		List<GeoSegment> segments = read(GEOJSON, CLAMP,
+			"{\"type\": \"FeatureCollection\", \"features\": [\n"
+			+ "{\"type\": \"Feature\", \"properties\": {\"name\": \"Sh\\u00e9rut\"},"
+			+ " \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[35.0, 32.0], [35.001, 32.001], [35.002, 32.0]]}},\n"
+			+ "{\"type\": \"Feature\", \"properties\": {},"
+			+ " \"geometry\": {\"type\": \"MultiLineString\", \"coordinates\": [[[1, 2], [3, 4]], [[5, 6], [7, 8]]]}},\n"
+			+ "{\"type\": \"Feature\", \"properties\": {\"name\": \"Square\"},"
+			+ " \"geometry\": {\"type\": \"Point\", \"coordinates\": [1, 2]}}\n"
+			+ "]}\n");
+		show("LineStrings are split, longitude first", segments.size() == 4
+			&& segment(segments.get(0), "Sh\u00e9rut", 32000000, 35000000, 32001000, 35001000)
+			&& segment(segments.get(1), "Sh\u00e9rut", 32001000, 35001000, 32000000, 35002000));
+		show("MultiLineStrings give each part, unnamed features have \"\"",
+			segment(segments.get(2), "", 2000000, 1000000, 4000000, 3000000)
+			&& segment(segments.get(3), "", 6000000, 5000000, 8000000, 7000000));
+		segments = read(GEOJSON, CLAMP, "\u001e{\"type\": \"FeatureCollection\", \"features\": ["
+			+ "{\"type\": \"Feature\", \"properties\": {\"name\": \"A\"}, \"geometry\":"
+			+ " {\"type\": \"LineString\", \"coordinates\": [[0, 0], [0, 1]]}}]}\n");
+		show("A whole collection on one line", segments.size() == 1);
+		Files.write(mFile, ("{\"type\": \"Feature\", \"properties\": {\"name\": \"A\"},"
+			+ " \"geometry\": {\"type\": \"MultiLineString\", \"coordinates\": [[[0, 0], [0, 1]], [[0, 1], [0, 91]]]}}\n")
+			.getBytes(StandardCharsets.UTF_8));
+		segments = new ArrayList<GeoSegment>();
+		long rejected = new SegmentImporter(GEOJSON, REJECT).read(mFile, segments);
+		show("A rejected feature has no segments, and is counted", segments.isEmpty() && rejected == 1);
+		show("Malformed objects are errors", fails(GEOJSON, "{\"type\": \"Feature\", \"geometry\": }\n"));
+		show("Pretty-printed features are errors", fails(GEOJSON, "{\n  \"type\": \"Feature\",\n"
+			+ "  \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[0, 0], [0, 1]]}\n}\n")
+			&& fails(GEOJSON, "{\"type\": \"FeatureCollection\", \"features\": [\n{\n"));
+	}
+
+
+	private void testLongLines() throws IOException {
+		show("Long lines");
+		String points = ",0,0,0,1";
+		StringBuilder name = new StringBuilder(SegmentImporter.MAX_LINE_BYTES);
+		while (name.length() < SegmentImporter.MAX_LINE_BYTES - points.length())
+			name.append('a');
+		List<GeoSegment> segments = read(CSV, CLAMP, "Before,0,0,0,1\n" + name + points + "\r\nAfter,0,0,0,1");
+		show("A line of MAX_LINE_BYTES is read", segments.size() == 3
+			&& segments.get(1).getName().length() == name.length());
+		name.append('a');
+		show("A longer line is an error", fails(CSV, "Before,0,0,0,1\n" + name + points + "\n"));
+	}
+
+
+	private void testChunks() throws IOException {
+		show("Chunks");
+		int lines = 100000;
+		try (Writer out = Files.newBufferedWriter(mFile)) {
+			for (int i = 0; i < lines; i++)
+				out.write("Street " + i + "," + (i % 90) + ".5,10,"  + (i % 90) + ".5,11,-95,12\n");
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		List<GeoSegment> segments = new SegmentImporter(CSV, CLAMP, pool).read(mFile);
+		boolean ordered = segments.size() == 2 * lines;
+		for (int i = 0; ordered && i < lines; i++)
+			ordered = segments.get(2 * i).getName().equals("Street " + i)
+				&& segments.get(2 * i + 1).getName().equals("Street " + i);
+		show("Every record is read once, in file order", ordered);
+		AtomicLong count = new AtomicLong();
+		long rejected = new SegmentImporter(CSV, REJECT, pool).importTo(mFile, gs -> count.incrementAndGet());
+		show("importTo() counts rejected records", rejected == lines && count.get() == 0);
+		pool.shutdown();
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		SegmentImporterTest importerTest = new SegmentImporterTest();
+		importerTest.test();
+	}
+}
@@ -0,0 +1,479 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A SegmentIndex is a spatial index over a collection of GeoSegments that
+ * finds the segments nearest to a point, the segments crossing a
+ * rectangle, and the point of the nearest segment closest to a given point
+ * ("snapping"). SegmentIndexes are immutable and may be queried by any
+ * number of threads at once.
+ * <p>
+ * The index is a uniform grid over the bounding rectangle of the segments,
+ * in the millionth-degree coordinates of GeoPoint, with about one cell per
+ * segment. Every segment is listed in each cell its bounding rectangle
+ * overlaps. The lists of all cells are packed into one array, the cell
+ * lists being consecutive ranges of it. Nearest-segment queries visit
+ * rings of cells around the query point and stop as soon as no unvisited
+ * cell can hold a nearer segment.
+ * <p>
+ * Distances are measured with the same flat-surface, near the Technion
+ * approximation as GeoPoint.distanceTo(), whatever the DistanceModel of the
+ * segments. Away from the Technion this distorts distances by direction,
+ * so for segments measured by another model the nearest segments found,
+ * and the snapped points, are only approximately the nearest.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   segments : sequence of GeoSegment   // the indexed segments
+ * </pre>
+ **/
+public class SegmentIndex {
+
+	private static final double KM_PER_UNIT_LATITUDE = GeoPoint.KM_PER_DEGREE_LATITUDE / 1000000;
+	private static final double KM_PER_UNIT_LONGITUDE = GeoPoint.KM_PER_DEGREE_LONGITUDE / 1000000;
+
+	private final GeoSegment[] segments;
+	private final int[] lat1, lon1, lat2, lon2;
+
+	// the grid: rows of latitude, columns of longitude
+	private final int minLat, minLon;
+	private final int cellLat, cellLon;
+	private final int rows, cols;
+	private final int[] cellOffsets;
+	private final int[] cellSegments;
+
+	// Marks of the segments visited by a query, lent to one query at a time.
+	private final StatePool<Marks> marks;
+
+	// Abstract Function:
+	// segments = this.segments; segment i has endpoints (lat1[i], lon1[i])
+	// and (lat2[i], lon2[i]). Cell (r, c) covers latitudes
+	// [minLat + r * cellLat, minLat + (r + 1) * cellLat) and the
+	// corresponding longitudes, and lists the segments
+	// cellSegments[cellOffsets[r * cols + c] .. cellOffsets[r * cols + c + 1]).
+
+	// Representation invariant:
+	// rows, cols, cellLat, cellLon > 0 && cellOffsets.length = rows*cols + 1
+	// && every segment is listed in every cell its bounding rectangle
+	// overlaps.
+
+	private void checkRep() {
+		assert rows > 0 && cols > 0 && cellLat > 0 && cellLon > 0 : "empty grid";
+		assert cellOffsets.length == rows * cols + 1 : "one offset per cell, plus one";
+		assert cellOffsets[rows * cols] == cellSegments.length : "offsets span the lists";
+	}
+
+
+	/**
+	 * Constructs a SegmentIndex over a collection of segments.
+	 * @requires segments != null && no element of segments is null
+	 * @effects constructs a SegmentIndex with this.segments = segments, in
+	 *          iteration order.
+	 **/
+	public SegmentIndex(Collection<GeoSegment> segments) {
+		this.segments = segments.toArray(new GeoSegment[segments.size()]);
+		int n = this.segments.length;
+		lat1 = new int[n];
+		lon1 = new int[n];
+		lat2 = new int[n];
+		lon2 = new int[n];
+		int loLat = Integer.MAX_VALUE, loLon = Integer.MAX_VALUE;
+		int hiLat = Integer.MIN_VALUE, hiLon = Integer.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			GeoSegment gs = this.segments[i];
+			lat1[i] = gs.getP1().getLatitude();
+			lon1[i] = gs.getP1().getLongitude();
+			lat2[i] = gs.getP2().getLatitude();
+			lon2[i] = gs.getP2().getLongitude();
+			loLat = Math.min(loLat, Math.min(lat1[i], lat2[i]));
+			hiLat = Math.max(hiLat, Math.max(lat1[i], lat2[i]));
+			loLon = Math.min(loLon, Math.min(lon1[i], lon2[i]));
+			hiLon = Math.max(hiLon, Math.max(lon1[i], lon2[i]));
+		}
+		if (n == 0) {
+			loLat = hiLat = loLon = hiLon = 0;
+		}
+		minLat = loLat;
+		minLon = loLon;
+
+		// about one square (in kilometers) cell per segment
+		double height = Math.max(1, (long)hiLat - loLat + 1) * KM_PER_UNIT_LATITUDE;
+		double width = Math.max(1, (long)hiLon - loLon + 1) * KM_PER_UNIT_LONGITUDE;
+		double side = Math.sqrt(height * width / Math.max(1, n));
+		rows = (int)Math.max(1, Math.min(4096, Math.ceil(height / side)));
+		cols = (int)Math.max(1, Math.min(4096, Math.ceil(width / side)));
+		cellLat = (int)Math.max(1, ((long)hiLat - loLat) / rows + 1);
+		cellLon = (int)Math.max(1, ((long)hiLon - loLon) / cols + 1);
+
+		// two passes over the covered cells: count, then fill
+		cellOffsets = new int[rows * cols + 1];
+		for (int i = 0; i < n; i++) {
+			for (int r = row(Math.min(lat1[i], lat2[i])); r <= row(Math.max(lat1[i], lat2[i])); r++)
+				for (int c = col(Math.min(lon1[i], lon2[i])); c <= col(Math.max(lon1[i], lon2[i])); c++)
+					cellOffsets[r * cols + c + 1]++;
+		}
+		for (int cell = 0; cell < rows * cols; cell++)
+			cellOffsets[cell + 1] += cellOffsets[cell];
+		cellSegments = new int[cellOffsets[rows * cols]];
+		int[] next = Arrays.copyOf(cellOffsets, rows * cols);
+		for (int i = 0; i < n; i++) {
+			for (int r = row(Math.min(lat1[i], lat2[i])); r <= row(Math.max(lat1[i], lat2[i])); r++)
+				for (int c = col(Math.min(lon1[i], lon2[i])); c <= col(Math.max(lon1[i], lon2[i])); c++)
+					cellSegments[next[r * cols + c]++] = i;
+		}
+		marks = new StatePool<Marks>(() -> new Marks(n));
+		checkRep();
+	}
+
+
+	// The row of a latitude, clamped to the grid.
+	private int row(int lat) {
+		long r = ((long)lat - minLat) / cellLat;
+		return (int)Math.max(0, Math.min(rows - 1, r));
+	}
+
+
+	// The column of a longitude, clamped to the grid.
+	private int col(int lon) {
+		long c = ((long)lon - minLon) / cellLon;
+		return (int)Math.max(0, Math.min(cols - 1, c));
+	}
+
+
+	/**
+	 * Returns the number of segments in this.
+	 * @return the length of segments.
+	 **/
+	public int size() {
+		return segments.length;
+	}
+
+
+	/**
+	 * Finds the segments nearest to a point.
+	 * @requires gp != null && k >= 0
+	 * @return the min(k, size()) segments of this nearest to gp, nearest
+	 *         first, where the distance from gp to a segment is the distance
+	 *         from gp to the closest point of the segment.
+	 **/
+	public List<GeoSegment> nearest(GeoPoint gp, int k) {
+		int[] found = nearestIds(gp.getLatitude(), gp.getLongitude(), k);
+		List<GeoSegment> result = new ArrayList<GeoSegment>(found.length);
+		for (int i : found)
+			result.add(segments[i]);
+		return result;
+	}
+
+
+	/**
+	 * Finds the point of the segments of this closest to a point.
+	 * @requires gp != null
+	 * @return a Snap onto the segment of this nearest to gp, or null if this
+	 *         has no segments.
+	 **/
+	public Snap snap(GeoPoint gp) {
+		int lat = gp.getLatitude(), lon = gp.getLongitude();
+		int[] found = nearestIds(lat, lon, 1);
+		if (found.length == 0)
+			return null;
+		int i = found[0];
+		double t = projection(i, lat, lon);
+		GeoPoint point = new GeoPoint(
+				(int)Math.round(lat1[i] + t * ((long)lat2[i] - lat1[i])),
+				(int)Math.round(lon1[i] + t * ((long)lon2[i] - lon1[i])));
+		return new Snap(segments[i], point, t, distance(i, lat, lon));
+	}
+
+
+	/**
+	 * Finds the segments crossing a rectangle.
+	 * @requires southWest != null && northEast != null &&
+	 *           southWest.latitude <= northEast.latitude &&
+	 *           southWest.longitude <= northEast.longitude
+	 * @return the segments of this that have at least one point inside the
+	 *         rectangle with corners southWest and northEast (boundary
+	 *         included), in the order of segments.
+	 **/
+	public List<GeoSegment> within(GeoPoint southWest, GeoPoint northEast) {
+		int south = southWest.getLatitude(), west = southWest.getLongitude();
+		int north = northEast.getLatitude(), east = northEast.getLongitude();
+		List<GeoSegment> result = new ArrayList<GeoSegment>();
+		if (segments.length == 0 || north < minLat || east < minLon
+				|| south > (long)minLat + (long)rows * cellLat
+				|| west > (long)minLon + (long)cols * cellLon)
+			return result;
+		Marks m = marks();
+		int[] hits = new int[16];
+		int n = 0;
+		try {
+			for (int r = row(south); r <= row(north); r++) {
+				for (int c = col(west); c <= col(east); c++) {
+					int cell = r * cols + c;
+					for (int j = cellOffsets[cell]; j < cellOffsets[cell + 1]; j++) {
+						int i = cellSegments[j];
+						if (m.mark(i) && crosses(i, south, west, north, east)) {
+							if (n == hits.length)
+								hits = Arrays.copyOf(hits, 2 * n);
+							hits[n++] = i;
+						}
+					}
+				}
+			}
+		} finally {
+			marks.release(m);
+		}
+		Arrays.sort(hits, 0, n);
+		for (int j = 0; j < n; j++)
+			result.add(segments[hits[j]]);
+		return result;
+	}
+
+
+	// Whether segment i has a point inside the rectangle (Liang-Barsky).
+	private boolean crosses(int i, int south, int west, int north, int east) {
+		double x0 = lon1[i], y0 = lat1[i];
+		double dx = (double)lon2[i] - lon1[i], dy = (double)lat2[i] - lat1[i];
+		double[] p = {-dx, dx, -dy, dy};
+		double[] q = {x0 - west, east - x0, y0 - south, north - y0};
+		double t0 = 0, t1 = 1;
+		for (int j = 0; j < 4; j++) {
+			if (p[j] == 0) {
+				if (q[j] < 0)
+					return false;
+			} else {
+				double t = q[j] / p[j];
+				if (p[j] < 0)
+					t0 = Math.max(t0, t);
+				else
+					t1 = Math.min(t1, t);
+				if (t0 > t1)
+					return false;
+			}
+		}
+		return true;
+	}
+
+
+	// The ids of the k segments nearest to (lat, lon), nearest first.
+	private int[] nearestIds(int lat, int lon, int k) {
+		Nearest nearest = new Nearest(Math.min(k, segments.length), lat, lon);
+		if (nearest.k == 0)
+			return new int[0];
+		Marks m = marks();
+		try {
+			int r0 = row(lat), c0 = col(lon);
+			for (int ring = 0; ; ring++) {
+				int rLo = r0 - ring, rHi = r0 + ring, cLo = c0 - ring, cHi = c0 + ring;
+				for (int r = Math.max(0, rLo); r <= Math.min(rows - 1, rHi); r++) {
+					if (r == rLo || r == rHi) {
+						for (int c = Math.max(0, cLo); c <= Math.min(cols - 1, cHi); c++)
+							nearest.scan(r * cols + c, m);
+					} else {
+						// the cells between were visited by the previous rings
+						if (cLo >= 0)
+							nearest.scan(r * cols + cLo, m);
+						if (cHi < cols && cHi != cLo)
+							nearest.scan(r * cols + cHi, m);
+					}
+				}
+
+				// unvisited cells lie beyond at least one side of the visited
+				// block that is not on the border of the grid
+				boolean done = true;
+				double bound = Double.POSITIVE_INFINITY;
+				if (rLo > 0) {
+					done = false;
+					bound = Math.min(bound, Math.max(0, lat - ((long)minLat + (long)rLo * cellLat)) * KM_PER_UNIT_LATITUDE);
+				}
+				if (rHi < rows - 1) {
+					done = false;
+					bound = Math.min(bound, Math.max(0, (long)minLat + (long)(rHi + 1) * cellLat - lat) * KM_PER_UNIT_LATITUDE);
+				}
+				if (cLo > 0) {
+					done = false;
+					bound = Math.min(bound, Math.max(0, lon - ((long)minLon + (long)cLo * cellLon)) * KM_PER_UNIT_LONGITUDE);
+				}
+				if (cHi < cols - 1) {
+					done = false;
+					bound = Math.min(bound, Math.max(0, (long)minLon + (long)(cHi + 1) * cellLon - lon) * KM_PER_UNIT_LONGITUDE);
+				}
+				if (done || nearest.isWithin(bound))
+					break;
+			}
+		} finally {
+			marks.release(m);
+		}
+		return Arrays.copyOf(nearest.best, nearest.found);
+	}
+
+
+	/**
+	 * Nearest holds the best candidates of a nearest-segments query.
+	 */
+	private final class Nearest {
+		final int k;
+		final int lat, lon;
+		final int[] best;
+		final double[] bestDist;
+		int found;
+
+		Nearest(int k, int lat, int lon) {
+			this.k = k;
+			this.lat = lat;
+			this.lon = lon;
+			best = new int[k];
+			bestDist = new double[k];
+		}
+
+		// Considers the segments of a cell that were not considered yet.
+		void scan(int cell, Marks m) {
+			for (int j = cellOffsets[cell]; j < cellOffsets[cell + 1]; j++) {
+				int i = cellSegments[j];
+				if (!m.mark(i))
+					continue;
+				double d = distance(i, lat, lon);
+				if (found == k && d >= bestDist[k - 1])
+					continue;
+				int pos = found < k ? found++ : k - 1;
+				while (pos > 0 && bestDist[pos - 1] > d) {
+					best[pos] = best[pos - 1];
+					bestDist[pos] = bestDist[pos - 1];
+					pos--;
+				}
+				best[pos] = i;
+				bestDist[pos] = d;
+			}
+		}
+
+		// Whether all k candidates are no farther than bound.
+		boolean isWithin(double bound) {
+			return found == k && bestDist[k - 1] <= bound;
+		}
+	}
+
+
+	// The parameter 0 <= t <= 1 of the point of segment i closest to (lat, lon).
+	private double projection(int i, int lat, int lon) {
+		double ax = ((double)lon1[i] - lon) * KM_PER_UNIT_LONGITUDE;
+		double ay = ((double)lat1[i] - lat) * KM_PER_UNIT_LATITUDE;
+		double dx = ((double)lon2[i] - lon1[i]) * KM_PER_UNIT_LONGITUDE;
+		double dy = ((double)lat2[i] - lat1[i]) * KM_PER_UNIT_LATITUDE;
+		double dd = dx * dx + dy * dy;
+		if (dd == 0)
+			return 0;
+		return Math.max(0, Math.min(1, -(ax * dx + ay * dy) / dd));
+	}
+
+
+	// The distance in kilometers from (lat, lon) to segment i.
+	private double distance(int i, int lat, int lon) {
+		double t = projection(i, lat, lon);
+		double x = ((double)lon1[i] - lon + t * ((double)lon2[i] - lon1[i])) * KM_PER_UNIT_LONGITUDE;
+		double y = ((double)lat1[i] - lat + t * ((double)lat2[i] - lat1[i])) * KM_PER_UNIT_LATITUDE;
+		return Math.sqrt(x * x + y * y);
+	}
+
+
+	// Borrows marks with no segment marked; the caller releases them.
+	private Marks marks() {
+		Marks m = marks.borrow();
+		m.reset();
+		return m;
+	}
+
+
+	/**
+	 * Marks holds which segments a query has already visited, so that
+	 * segments listed in several cells are examined once.
+	 */
+	private static final class Marks {
+		private final int[] stamp;
+		private int generation;
+
+		Marks(int n) {
+			stamp = new int[n];
+		}
+
+		void reset() {
+			if (++generation == 0) {
+				Arrays.fill(stamp, 0);
+				generation = 1;
+			}
+		}
+
+		// Marks segment i; returns whether it was unmarked.
+		boolean mark(int i) {
+			if (stamp[i] == generation)
+				return false;
+			stamp[i] = generation;
+			return true;
+		}
+	}
+
+
+	/**
+	 * A Snap is the result of snapping a point onto its nearest segment.
+	 * Snaps are immutable.
+	 */
+	public static final class Snap {
+
+		private final GeoSegment segment;
+		private final GeoPoint point;
+		private final double fraction;
+		private final double distance;
+
+		private Snap(GeoSegment segment, GeoPoint point, double fraction, double distance) {
+			this.segment = segment;
+			this.point = point;
+			this.fraction = fraction;
+			this.distance = distance;
+		}
+
+		/**
+		 * Returns the segment snapped onto.
+		 * @return the segment nearest to the snapped point.
+		 */
+		public GeoSegment getSegment() {
+			return segment;
+		}
+
+		/**
+		 * Returns the point of the segment closest to the snapped point.
+		 * @return the point of segment closest to the snapped point,
+		 *         rounded to millionths of degrees.
+		 */
+		public GeoPoint getPoint() {
+			return point;
+		}
+
+		/**
+		 * Returns how far along the segment the closest point lies.
+		 * @return t such that 0 <= t <= 1 and the closest point is
+		 *         p1 + t * (p2 - p1).
+		 */
+		public double getFraction() {
+			return fraction;
+		}
+
+		/**
+		 * Returns the distance from the snapped point to the segment.
+		 * @return the distance in kilometers from the snapped point to the
+		 *         closest point of segment.
+		 */
+		public double getDistance() {
+			return distance;
+		}
+
+		/**
+		 * Returns a string representation of this.
+		 * @return a string representation of this.
+		 */
+		public String toString() {
+			return segment + " at " + point + " (" + distance + " km)";
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SegmentIndexTest {
+
+	private static final double tolerance = 1e-9;
+
+	private List<GeoSegment> mSegments;
+	private SegmentIndex mIndex;
+	private Random mRandom = new Random(3);
+
+
+	public SegmentIndexTest() {
+		// random segments of up to ~300 m within ~10 km of the Ziv square
+		mSegments = new ArrayList<GeoSegment>();
+		for (int i = 0; i < 5000; i++) {
+			GeoPoint p1 = randomPoint();
+			GeoPoint p2 = new GeoPoint(p1.getLatitude() + mRandom.nextInt(5000) - 2500,
+				p1.getLongitude() + mRandom.nextInt(5000) - 2500);
+			mSegments.add(new GeoSegment("Street " + (i % 500), p1, p2));
+		}
+		mIndex = new SegmentIndex(mSegments);
+	}
+
+
+	private GeoPoint randomPoint() {
+		return new GeoPoint(32783098 + mRandom.nextInt(180000) - 90000,
+			35014528 + mRandom.nextInt(200000) - 100000);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// Distance from gp to gs, in kilometers on the flat-surface approximation.
+	private static double distance(GeoPoint gp, GeoSegment gs) {
+		double kx = GeoPoint.KM_PER_DEGREE_LONGITUDE / 1000000;
+		double ky = GeoPoint.KM_PER_DEGREE_LATITUDE / 1000000;
+		double ax = (gp.getLongitude() - gs.getP1().getLongitude()) * kx;
+		double ay = (gp.getLatitude() - gs.getP1().getLatitude()) * ky;
+		double bx = (gs.getP2().getLongitude() - gs.getP1().getLongitude()) * kx;
+		double by = (gs.getP2().getLatitude() - gs.getP1().getLatitude()) * ky;
+		double len = bx * bx + by * by;
+		double t = len == 0 ? 0 : Math.max(0, Math.min(1, (ax * bx + ay * by) / len));
+		return Math.hypot(ax - t * bx, ay - t * by);
+	}
+
+
+	public void test() {
+		show("nearest()");
+		boolean ok = true;
+		for (int q = 0; q < 50; q++) {
+			GeoPoint gp = randomPoint();
+			List<GeoSegment> found = mIndex.nearest(gp, 5);
+			double[] all = new double[mSegments.size()];
+			for (int i = 0; i < all.length; i++)
+				all[i] = distance(gp, mSegments.get(i));
+			Arrays.sort(all);
+			ok &= found.size() == 5;
+			for (int i = 0; i < found.size(); i++)
+				ok &= Math.abs(distance(gp, found.get(i)) - all[i]) < tolerance;
+		}
+		show("The 5 nearest segments match a linear scan", ok);
+		GeoSegment gs = mSegments.get(42);
+		show("A segment's endpoint finds that segment at distance 0",
+			distance(gs.getP1(), mIndex.nearest(gs.getP1(), 1).get(0)) < tolerance);
+		show("Points far outside the indexed area are answered",
+			mIndex.nearest(new GeoPoint(0, 0), 3).size() == 3);
+		show("k larger than the index returns every segment",
+			new SegmentIndex(Arrays.asList(ExampleGeoSegments.segments))
+				.nearest(ExampleGeoSegments.points[0], 100).size() == ExampleGeoSegments.segments.length);
+		show("An empty index finds nothing",
+			new SegmentIndex(new ArrayList<GeoSegment>()).nearest(gs.getP1(), 3).isEmpty()
+			&& new SegmentIndex(new ArrayList<GeoSegment>()).snap(gs.getP1()) == null);
+
+		show("snap()");
+		GeoPoint mid = new GeoPoint((gs.getP1().getLatitude() + gs.getP2().getLatitude()) / 2,
+			(gs.getP1().getLongitude() + gs.getP2().getLongitude()) / 2);
+		SegmentIndex.Snap snap = mIndex.snap(mid);
+		show("Snapping a segment's midpoint stays on it",
+			snap.getDistance() < 1e-3 && snap.getPoint().distanceTo(mid) < 1e-3);
+		ok = true;
+		for (int q = 0; q < 50; q++) {
+			GeoPoint gp = randomPoint();
+			snap = mIndex.snap(gp);
+			ok &= Math.abs(snap.getDistance() - distance(gp, snap.getSegment())) < 1e-3
+				&& Math.abs(snap.getPoint().distanceTo(gp) - snap.getDistance()) < 1e-3
+				&& 0 <= snap.getFraction() && snap.getFraction() <= 1;
+		}
+		show("Snapped points lie on the nearest segment", ok);
+
+		show("within()");
+		ok = true;
+		for (int q = 0; q < 50; q++) {
+			GeoPoint a = randomPoint(), b = randomPoint();
+			// sampled expectation: may miss segments that only clip a corner
+			int south = Math.min(a.getLatitude(), b.getLatitude());
+			int north = south + mRandom.nextInt(20000);
+			int west = Math.min(a.getLongitude(), b.getLongitude());
+			int east = west + mRandom.nextInt(20000);
+			List<GeoSegment> found = mIndex.within(new GeoPoint(south, west), new GeoPoint(north, east));
+			List<GeoSegment> expected = new ArrayList<GeoSegment>();
+			for (GeoSegment s : mSegments) {
+				boolean hit = false;
+				for (int k = 0; k <= 200 && !hit; k++) {
+					double t = k / 200.0;
+					double lat = s.getP1().getLatitude() + t * (s.getP2().getLatitude() - s.getP1().getLatitude());
+					double lon = s.getP1().getLongitude() + t * (s.getP2().getLongitude() - s.getP1().getLongitude());
+					hit = south <= lat && lat <= north && west <= lon && lon <= east;
+				}
+				if (hit)
+					expected.add(s);
+			}
+			ok &= found.containsAll(expected) && found.size() <= expected.size() + 3;
+		}
+		show("Rectangle queries match a linear scan", ok);
+	}
+
+
+	public static void main(String[] args) {
+		SegmentIndexTest indexTest = new SegmentIndexTest();
+		indexTest.test();
+	}
+}
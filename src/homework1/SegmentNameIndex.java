@@ -0,0 +1,189 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A SegmentNameIndex finds GeoSegments by the beginning of their names, for
+ * pickers that narrow a list of segments as the user types. It also finds
+ * the segments that start at a given point and so can follow a route that
+ * ends there. SegmentNameIndexes are immutable and may be queried by any
+ * number of threads at once.
+ * <p>
+ * Names are compared ignoring case. The segments are kept in one array
+ * sorted by name, so the segments whose names start with a prefix are a
+ * range of it, found by two binary searches; the result is a view of that
+ * range, so a query costs O(log n) however many segments match. The
+ * segments that start at each point are listed in a second array, in name
+ * order too, the lists of all points being consecutive ranges of it.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   segments : sequence of GeoSegment   // the indexed segments, by name
+ * </pre>
+ **/
+public class SegmentNameIndex {
+
+	private final GeoSegment[] segments;	// sorted by key, then by position
+	private final String[] keys;			// the lower case names of segments
+	private final List<GeoSegment> all;
+
+	// the start points, and the segments starting at each
+	private final Map<GeoPoint, Integer> pointIds = new HashMap<GeoPoint, Integer>();
+	private final int[] startOffsets;
+	private final int[] startSegments;
+
+	// Abstract Function:
+	// segments = this.segments; the segments starting at the point p with
+	// id = pointIds.get(p) are segments[startSegments[startOffsets[id] ..
+	// startOffsets[id + 1])].
+
+	// Representation invariant:
+	// keys[i] = key(segments[i].name) for all i && keys is sorted &&
+	// startOffsets.length = pointIds.size() + 1 && every range of
+	// startSegments is increasing.
+
+	private void checkRep() {
+		assert keys.length == segments.length : "one key per segment";
+		assert isSorted(keys) : "keys are sorted";
+		assert startOffsets.length == pointIds.size() + 1 : "one offset per point, plus one";
+		assert startOffsets[pointIds.size()] == startSegments.length : "offsets span the lists";
+	}
+
+
+	private static boolean isSorted(String[] keys) {
+		for (int i = 1; i < keys.length; i++)
+			if (keys[i - 1].compareTo(keys[i]) > 0)
+				return false;
+		return true;
+	}
+
+
+	/**
+	 * Constructs a SegmentNameIndex over a collection of segments.
+	 * @requires segments != null && no element of segments is null
+	 * @effects constructs a SegmentNameIndex with this.segments = segments,
+	 *          sorted by name ignoring case; segments of equal names keep
+	 *          their iteration order.
+	 **/
+	public SegmentNameIndex(Collection<GeoSegment> segments) {
+		int n = segments.size();
+		final String[] unsorted = new String[n];
+		Integer[] order = new Integer[n];
+		GeoSegment[] given = segments.toArray(new GeoSegment[n]);
+		for (int i = 0; i < n; i++) {
+			unsorted[i] = key(given[i].getName());
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> unsorted[a].compareTo(unsorted[b]));	// stable
+
+		this.segments = new GeoSegment[n];
+		this.keys = new String[n];
+		int[] pointOf = new int[n];
+		int[] counts = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			this.segments[i] = given[order[i]];
+			this.keys[i] = unsorted[order[i]];
+			Integer id = pointIds.get(this.segments[i].getP1());
+			if (id == null) {
+				id = pointIds.size();
+				pointIds.put(this.segments[i].getP1(), id);
+			}
+			pointOf[i] = id;
+			counts[id + 1]++;
+		}
+		startOffsets = new int[pointIds.size() + 1];
+		for (int p = 0; p < pointIds.size(); p++)
+			startOffsets[p + 1] = startOffsets[p] + counts[p + 1];
+		startSegments = new int[n];
+		int[] next = Arrays.copyOf(startOffsets, pointIds.size());
+		for (int i = 0; i < n; i++)
+			startSegments[next[pointOf[i]]++] = i;
+		all = Collections.unmodifiableList(Arrays.asList(this.segments));
+		checkRep();
+	}
+
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+
+	/**
+	 * Returns the number of indexed segments.
+	 * @return the length of segments.
+	 **/
+	public int size() {
+		return segments.length;
+	}
+
+
+	/**
+	 * Finds the segments whose names start with a prefix.
+	 * @requires prefix != null
+	 * @return an unmodifiable list of the segments of segments whose names
+	 *         start with prefix, ignoring case, in the order of segments.
+	 **/
+	public List<GeoSegment> find(String prefix) {
+		if (prefix.isEmpty())
+			return all;
+		String key = key(prefix);
+		int from = lowerBound(key);
+		// the names from from on that start with key, a range since keys
+		// is sorted
+		int lo = from, hi = keys.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid].startsWith(key))
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return all.subList(from, lo);
+	}
+
+
+	/**
+	 * Finds the segments that start at a point and whose names start with
+	 * a prefix.
+	 * @requires prefix != null
+	 * @return find(prefix) if from == null; otherwise an unmodifiable list
+	 *         of the segments of find(prefix) whose p1 equals from, in the
+	 *         order of segments.
+	 **/
+	public List<GeoSegment> find(String prefix, GeoPoint from) {
+		if (from == null)
+			return find(prefix);
+		Integer id = pointIds.get(from);
+		if (id == null)
+			return Collections.emptyList();
+		String key = key(prefix);
+		List<GeoSegment> found = new ArrayList<GeoSegment>(startOffsets[id + 1] - startOffsets[id]);
+		for (int i = startOffsets[id]; i < startOffsets[id + 1]; i++) {
+			int s = startSegments[i];
+			if (keys[s].startsWith(key))
+				found.add(segments[s]);
+		}
+		return Collections.unmodifiableList(found);
+	}
+
+
+	// Returns the index of the first key that is not less than key.
+	private int lowerBound(String key) {
+		int lo = 0, hi = keys.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid].compareTo(key) < 0)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+}
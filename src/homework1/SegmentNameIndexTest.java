@@ -0,0 +1,103 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class SegmentNameIndexTest {
+
+	private GeoSegment[] segments = ExampleGeoSegments.segments;
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// The segments a linear scan finds, in the order of the index.
+	private static List<GeoSegment> scan(SegmentNameIndex index, String prefix, GeoPoint from) {
+		List<GeoSegment> found = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : index.find(""))
+			if (gs.getName().toLowerCase(Locale.ROOT).startsWith(prefix.toLowerCase(Locale.ROOT))
+					&& (from == null || gs.getP1().equals(from)))
+				found.add(gs);
+		return found;
+	}
+
+
+	public void testFind() {
+		show("find()");
+		SegmentNameIndex index = new SegmentNameIndex(Arrays.asList(segments));
+		show("All the segments for the empty prefix", index.find("").size() == segments.length);
+		List<GeoSegment> han = index.find("hAn");
+		show("Prefixes ignore case, and equal names keep their order",
+				han.equals(Arrays.asList(segments[5], segments[6], segments[0], segments[10],
+					segments[11], segments[12])));
+		show("A prefix no name starts with finds nothing",
+				index.find("Hz").isEmpty() && index.find("Zz").isEmpty() && index.find("Aa").isEmpty());
+		show("A prefix longer than the names finds nothing", index.find("Hagalil Street").isEmpty());
+		List<GeoSegment> fromP11 = index.find("", segments[11].getP2());
+		show("The segments starting at a point, by name",
+				fromP11.size() == 2 && fromP11.get(0) == segments[12] && fromP11.get(1) == segments[13]);
+		show("... narrowed by a prefix",
+				index.find("Int", segments[11].getP2()).equals(Arrays.asList(segments[13])));
+		show("A point no segment starts at has none",
+				index.find("", new GeoPoint(0, 0)).isEmpty());
+		show("No point is the same as find(prefix)", index.find("Han", null).equals(han));
+		boolean unmodifiable;
+		try {
+			han.remove(0);
+			unmodifiable = false;
+		} catch (UnsupportedOperationException e) {
+			unmodifiable = true;
+		}
+		show("Results cannot be modified", unmodifiable);
+	}
+
+
+	public void testCity() {
+		show("A city");
+		// the streets of a large synthetic city, crossing one another
+		Random random = new Random(5);
+		List<GeoSegment> city = new ArrayList<GeoSegment>();
+		for (int s = 0; s < 50; s++)
+			city.addAll(Arrays.asList(new RouteGenerator(s).segments(6000, 1 + random.nextInt(20))));
+		SegmentNameIndex index = new SegmentNameIndex(city);
+		String[] prefixes = {"", "s", "Street 1", "street 12", "Street 129", "Street 1299", "x"};
+		boolean ok = true;
+		long worst = 0;
+		for (int q = 0; q < 200; q++) {
+			String prefix = prefixes[q % prefixes.length];
+			GeoPoint from = q % 2 == 0 ? null : city.get(random.nextInt(city.size())).getP1();
+			long start = System.nanoTime();
+			List<GeoSegment> found = index.find(prefix, from);
+			worst = Math.max(worst, System.nanoTime() - start);
+			if (q < 20)
+				ok &= found.equals(scan(index, prefix, from));
+		}
+		show("Queries match a linear scan", ok);
+		show("Every query takes less than a frame (" + worst / 1000 + " us for "
+				+ index.size() + " segments)", worst < 16000000);
+	}
+
+
+	public static void main(String[] args) {
+		SegmentNameIndexTest test = new SegmentNameIndexTest();
+		test.testFind();
+		test.testCity();
+		System.out.println();
+		System.out.println("Test passed correctly");
+	}
+}
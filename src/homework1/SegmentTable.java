@@ -0,0 +1,334 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A SegmentTable holds a collection of GeoSegments in columnar form: one
+ * array per field instead of one object per segment. Segments are
+ * addressed by an int index 0, 1, 2, ... in the order they were loaded.
+ * SegmentTables are immutable.
+ * <p>
+ * The endpoints of the segments are kept, without duplicates, in a
+ * GeoPointStore and referenced by point id. Names are kept, without
+ * duplicates, in a name dictionary and referenced by name id. Lengths and
+ * headings are precomputed when the table is loaded, so scans over them,
+ * such as totalLength() and selectByHeading(), read consecutive memory and
+ * never compute a distance.
+ * <p>
+ * Code that needs a GeoSegment can get an equal one from get(); it is
+ * created on demand and not retained, with the model of the table.
+ * <p>
+ * All the segments of a table are measured by the same DistanceModel,
+ * which the table keeps once rather than per segment.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   segments : sequence of GeoSegment   // the segments of the table
+ *   size : integer                      // number of segments
+ *   points : GeoPointStore              // the distinct endpoints
+ *   names : sequence of String          // the distinct names
+ *   model : DistanceModel               // the model of all the segments
+ * </pre>
+ **/
+public class SegmentTable {
+
+	private final GeoPointStore points;
+	private final String[] names;
+	private final int[] p1;
+	private final int[] p2;
+	private final int[] nameId;
+	private final double[] length;
+	private final double[] heading;
+	private final DistanceModel model;
+
+	// Abstract Function:
+	// size = p1.length, model = this.model,
+	// segments[i] = GeoSegment(names[nameId[i]], points[p1[i]], points[p2[i]],
+	// model) with length length[i] and heading heading[i], for 0 <= i < size.
+
+	// Representation invariant:
+	// model != null && all arrays != null && p1, p2, nameId, length, heading have the same
+	// length && every p1[i], p2[i] is a point id of points && every
+	// nameId[i] is an index of names && names contains no duplicates.
+
+	private void checkRep() {
+		assert points != null && names != null && model != null : "points, names and model != null";
+		assert p2.length == p1.length && nameId.length == p1.length
+				&& length.length == p1.length && heading.length == p1.length
+				: "columns of different lengths";
+	}
+
+
+	private SegmentTable(GeoPointStore points, String[] names, int[] p1, int[] p2,
+			int[] nameId, double[] length, double[] heading, DistanceModel model) {
+		this.points = points;
+		this.names = names;
+		this.p1 = p1;
+		this.p2 = p2;
+		this.nameId = nameId;
+		this.length = length;
+		this.heading = heading;
+		this.model = model;
+		checkRep();
+	}
+
+
+	/**
+	 * Creates a SegmentTable holding the given segments.
+	 * @requires segments != null && no element of segments is null
+	 * @return a new SegmentTable t such that t.segments = segments and
+	 *         t.model is the model of the segments, or FLAT if there are
+	 *         none.
+	 * @throws IllegalArgumentException if two segments have different
+	 *         models.
+	 **/
+	public static SegmentTable load(GeoSegment[] segments) {
+		int n = segments.length;
+		DistanceModel model = n == 0 ? StandardDistanceModel.FLAT : segments[0].getModel();
+		GeoPointStore points = new GeoPointStore(n + 1);
+		Map<GeoPoint, Integer> pointIds = new HashMap<GeoPoint, Integer>();
+		Map<String, Integer> nameIds = new HashMap<String, Integer>();
+		int[] p1 = new int[n];
+		int[] p2 = new int[n];
+		int[] nameId = new int[n];
+		double[] length = new double[n];
+		double[] heading = new double[n];
+
+		for (int i = 0; i < n; i++) {
+			GeoSegment gs = segments[i];
+			if (gs.getModel() != model)
+				throw new IllegalArgumentException("segment " + i + " is measured by " + gs.getModel()
+						+ ", segment 0 by " + model);
+			p1[i] = idOf(gs.getP1(), points, pointIds);
+			p2[i] = idOf(gs.getP2(), points, pointIds);
+			Integer id = nameIds.get(gs.getName());
+			if (id == null) {
+				id = nameIds.size();
+				nameIds.put(gs.getName(), id);
+			}
+			nameId[i] = id;
+			length[i] = gs.getLength();
+			heading[i] = gs.getHeading();
+		}
+
+		String[] names = new String[nameIds.size()];
+		for (Map.Entry<String, Integer> e : nameIds.entrySet())
+			names[e.getValue()] = e.getKey();
+		return new SegmentTable(points, names, p1, p2, nameId, length, heading, model);
+	}
+
+
+	private static int idOf(GeoPoint gp, GeoPointStore points, Map<GeoPoint, Integer> pointIds) {
+		Integer id = pointIds.get(gp);
+		if (id == null) {
+			id = points.add(gp);
+			pointIds.put(gp, id);
+		}
+		return id;
+	}
+
+
+	/**
+	 * Returns the number of segments in this.
+	 * @return the number of segments in this.
+	 **/
+	public int size() {
+		return p1.length;
+	}
+
+
+	/**
+	 * Returns the store holding the endpoints of the segments of this.
+	 * The store must not be modified.
+	 * @return points
+	 **/
+	public GeoPointStore getPoints() {
+		return points;
+	}
+
+
+	/**
+	 * Returns the model that measures the segments of this.
+	 * @return model
+	 **/
+	public DistanceModel getModel() {
+		return model;
+	}
+
+
+	/**
+	 * Returns the number of distinct names in this.
+	 * @return the length of names.
+	 **/
+	public int nameCount() {
+		return names.length;
+	}
+
+
+	/**
+	 * Returns a name of the name dictionary of this.
+	 * @requires 0 <= nameId < nameCount()
+	 * @return names[nameId]
+	 **/
+	public String nameOf(int nameId) {
+		return names[nameId];
+	}
+
+
+	/**
+	 * Returns the id of a name in the name dictionary of this.
+	 * @return the i such that names[i].equals(name), or -1 if there is
+	 *         none.
+	 **/
+	public int nameIdOf(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name))
+				return i;
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Returns the name id of a segment.
+	 * @requires 0 <= i < size
+	 * @return the id of segments[i].name in names.
+	 **/
+	public int getNameId(int i) {
+		return nameId[i];
+	}
+
+
+	/**
+	 * Returns the name of a segment.
+	 * @requires 0 <= i < size
+	 * @return segments[i].name
+	 **/
+	public String getName(int i) {
+		return names[nameId[i]];
+	}
+
+
+	/**
+	 * Returns the point id of the first endpoint of a segment.
+	 * @requires 0 <= i < size
+	 * @return the id in points of segments[i].p1.
+	 **/
+	public int getP1(int i) {
+		return p1[i];
+	}
+
+
+	/**
+	 * Returns the point id of the second endpoint of a segment.
+	 * @requires 0 <= i < size
+	 * @return the id in points of segments[i].p2.
+	 **/
+	public int getP2(int i) {
+		return p2[i];
+	}
+
+
+	/**
+	 * Returns the length of a segment.
+	 * @requires 0 <= i < size
+	 * @return segments[i].length
+	 **/
+	public double getLength(int i) {
+		return length[i];
+	}
+
+
+	/**
+	 * Returns the heading of a segment.
+	 * @requires 0 <= i < size
+	 * @return segments[i].heading
+	 **/
+	public double getHeading(int i) {
+		return heading[i];
+	}
+
+
+	/**
+	 * Returns a GeoSegment equal to a segment of this.
+	 * @requires 0 <= i < size
+	 * @return a new GeoSegment equal to segments[i], measured by model.
+	 **/
+	public GeoSegment get(int i) {
+		return new GeoSegment(names[nameId[i]], points.get(p1[i]), points.get(p2[i]), model);
+	}
+
+
+	/**
+	 * Returns the total length of the segments of this.
+	 * @return sum (0 <= i < size) . segments[i].length
+	 **/
+	public double totalLength() {
+		double sum = 0;
+		for (int i = 0; i < length.length; i++)
+			sum += length[i];
+		return sum;
+	}
+
+
+	/**
+	 * Returns the total length of the segments of this with a given name.
+	 * @requires 0 <= nameId < nameCount()
+	 * @return sum of segments[i].length over all i such that
+	 *         segments[i].name = names[nameId].
+	 **/
+	public double totalLength(int nameId) {
+		double sum = 0;
+		for (int i = 0; i < length.length; i++) {
+			if (this.nameId[i] == nameId)
+				sum += length[i];
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Returns the indexes of the segments of this whose heading lies in a
+	 * range. The range wraps around north when from > to, so (350, 10)
+	 * selects headings of at least 350 or less than 10.
+	 * @requires 0 <= from < 360 && 0 <= to <= 360
+	 * @return the increasing indexes i such that from <= segments[i].heading
+	 *         < to if from <= to, or such that segments[i].heading >= from
+	 *         || segments[i].heading < to otherwise.
+	 **/
+	public int[] selectByHeading(double from, double to) {
+		int[] selected = new int[heading.length];
+		int n = 0;
+		if (from <= to) {
+			for (int i = 0; i < heading.length; i++) {
+				if (from <= heading[i] && heading[i] < to)
+					selected[n++] = i;
+			}
+		} else {
+			for (int i = 0; i < heading.length; i++) {
+				if (heading[i] >= from || heading[i] < to)
+					selected[n++] = i;
+			}
+		}
+		return Arrays.copyOf(selected, n);
+	}
+
+
+	/**
+	 * Returns the indexes of the segments of this with a given name.
+	 * @requires 0 <= nameId < nameCount()
+	 * @return the increasing indexes i such that segments[i].name =
+	 *         names[nameId].
+	 **/
+	public int[] selectByName(int nameId) {
+		int[] selected = new int[this.nameId.length];
+		int n = 0;
+		for (int i = 0; i < this.nameId.length; i++) {
+			if (this.nameId[i] == nameId)
+				selected[n++] = i;
+		}
+		return Arrays.copyOf(selected, n);
+	}
+}
@@ -0,0 +1,119 @@
+package homework1;
+
+public class SegmentTableTest {
+
+	private GeoSegment[] segments = ExampleGeoSegments.segments;
+	private SegmentTable mTable;
+
+
+	public SegmentTableTest() {
+		mTable = SegmentTable.load(segments);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	public void test() {
+		show("load()");
+		show("All segments are loaded", mTable.size() == segments.length);
+		show("Shared endpoints are stored once",
+			mTable.getPoints().size() == ExampleGeoSegments.points.length);
+		show("Repeated names are stored once", mTable.nameCount() == 9);
+
+		show("get()");
+		boolean same = true;
+		for (int i = 0; i < segments.length; i++)
+			same &= mTable.get(i).equals(segments[i]);
+		show("Materialized segments equal the loaded ones", same);
+
+		show("getLength() & getHeading()");
+		boolean precomputed = true;
+		for (int i = 0; i < segments.length; i++) {
+			precomputed &= mTable.getLength(i) == segments[i].getLength()
+				&& mTable.getHeading(i) == segments[i].getHeading();
+		}
+		show("Lengths and headings equal GeoSegment's", precomputed);
+
+		show("GeoPointStore");
+		GeoPointStore points = mTable.getPoints();
+		show("distance() equals GeoPoint.distanceTo()",
+			points.distance(mTable.getP1(3), mTable.getP2(3))
+				== segments[3].getP1().distanceTo(segments[3].getP2()));
+		show("heading() equals GeoPoint.headingTo()",
+			points.heading(mTable.getP1(3), mTable.getP2(3))
+				== segments[3].getP1().headingTo(segments[3].getP2()));
+		boolean rejected = false;
+		try {
+			points.add(GeoPoint.MAX_LATITUDE + 1, 0);
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("Out-of-range points are rejected", rejected);
+		GeoPointStore extremes = new GeoPointStore(0);
+		int id = extremes.add(GeoPoint.MIN_LATITUDE, GeoPoint.MIN_LONGITUDE);
+		show("Negative coordinates survive packing",
+			extremes.getLatitude(id) == GeoPoint.MIN_LATITUDE
+			&& extremes.getLongitude(id) == GeoPoint.MIN_LONGITUDE);
+
+		show("scans");
+		double length = 0;
+		for (GeoSegment gs : segments)
+			length += gs.getLength();
+		show("totalLength() is the sum of all lengths",
+			Math.abs(mTable.totalLength() - length) < 1e-9);
+		int hankin = mTable.nameIdOf("Hankin Road");
+		show("selectByName() finds every Hankin Road segment",
+			mTable.selectByName(hankin).length == 4);
+		int[] north = mTable.selectByHeading(315, 45);
+		boolean allNorth = true;
+		for (int i : north)
+			allNorth &= segments[i].getHeading() >= 315 || segments[i].getHeading() < 45;
+		show("selectByHeading() wraps around north", north.length > 0 && allNorth);
+	}
+
+
+	public void testModel() {
+		show("Models");
+		GeoSegment[] haversine = new GeoSegment[segments.length];
+		for (int i = 0; i < segments.length; i++)
+			haversine[i] = segments[i].withModel(StandardDistanceModel.HAVERSINE);
+		SegmentTable table = SegmentTable.load(haversine);
+		boolean kept = table.getModel() == StandardDistanceModel.HAVERSINE;
+		for (int i = 0; i < segments.length; i++)
+			kept &= table.get(i).getModel() == StandardDistanceModel.HAVERSINE
+				&& table.get(i).getLength() == haversine[i].getLength()
+				&& table.getLength(i) == haversine[i].getLength();
+		show("Segments keep the model of the table", kept);
+		show("An empty table is FLAT", SegmentTable.load(new GeoSegment[0]).getModel() == StandardDistanceModel.FLAT
+				&& mTable.getModel() == StandardDistanceModel.FLAT);
+		haversine[3] = segments[3];
+		boolean mixed;
+		try {
+			SegmentTable.load(haversine);
+			mixed = false;
+		} catch (IllegalArgumentException e) {
+			mixed = true;
+		}
+		show("Segments of different models are rejected", mixed);
+	}
+
+
+	public static void main(String[] args) {
+		SegmentTableTest tableTest = new SegmentTableTest();
+		tableTest.test();
+		tableTest.testModel();
+	}
+}
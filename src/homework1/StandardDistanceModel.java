@@ -0,0 +1,116 @@
+package homework1;
+
+/**
+ * The DistanceModels that come with the package.
+ * <ul>
+ * <li>FLAT treats the earth as flat, with GeoPoint's fixed
+ *     KM_PER_DEGREE_LATITUDE and KM_PER_DEGREE_LONGITUDE. It is what
+ *     GeoPoint.distanceTo() and headingTo() compute, and is accurate only
+ *     near the Technion, where the constants were measured.</li>
+ * <li>HAVERSINE measures along great circles of a spherical earth of mean
+ *     radius EARTH_RADIUS, and gives the initial great-circle heading. It
+ *     is accurate everywhere to within the 0.5% by which the earth is not
+ *     a sphere, at the cost of several trigonometric functions per
+ *     call.</li>
+ * <li>EQUIRECTANGULAR projects the two points on a plane tangent at their
+ *     mean latitude, as FLAT does at the Technion, but scales longitude by
+ *     the cosine of that latitude instead of by a constant. The cosine is
+ *     interpolated from a table with one entry per tenth of a degree of
+ *     latitude, to within a relative error of 4e-7, so a distance costs
+ *     about as much as a FLAT one. It agrees with HAVERSINE to within 0.1%
+ *     for points up to 100 km apart away from the poles, and crosses the
+ *     antimeridian by the short way.</li>
+ * </ul>
+ */
+public enum StandardDistanceModel implements DistanceModel {
+
+	FLAT {
+		public double distance(int lat1, int lon1, int lat2, int lon2) {
+			return GeoPoint.distance(lat1, lon1, lat2, lon2);
+		}
+
+		public double heading(int lat1, int lon1, int lat2, int lon2) {
+			return GeoPoint.heading(lat1, lon1, lat2, lon2);
+		}
+	},
+
+	HAVERSINE {
+		public double distance(int lat1, int lon1, int lat2, int lon2) {
+			double phi1 = radians(lat1), phi2 = radians(lat2);
+			double sinLat = Math.sin((phi2 - phi1) / 2);
+			double sinLon = Math.sin(radians(lon2 - lon1) / 2);
+			double a = sinLat * sinLat + Math.cos(phi1) * Math.cos(phi2) * sinLon * sinLon;
+			return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+		}
+
+		public double heading(int lat1, int lon1, int lat2, int lon2) {
+			double phi1 = radians(lat1), phi2 = radians(lat2);
+			double lambda = radians(lon2 - lon1);
+			double y = Math.sin(lambda) * Math.cos(phi2);
+			double x = Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(lambda);
+			return compass(Math.atan2(y, x));
+		}
+	},
+
+	EQUIRECTANGULAR {
+		public double distance(int lat1, int lon1, int lat2, int lon2) {
+			double x = radians(deltaLongitude(lon1, lon2)) * cosine(lat1 + lat2);
+			double y = radians(lat2 - lat1);
+			return EARTH_RADIUS * Math.sqrt(x * x + y * y);
+		}
+
+		public double heading(int lat1, int lon1, int lat2, int lon2) {
+			double x = deltaLongitude(lon1, lon2) * cosine(lat1 + lat2);
+			return compass(Math.atan2(x, lat2 - lat1));
+		}
+	};
+
+
+	/** Mean radius of the earth, in kilometers. */
+	public static final double EARTH_RADIUS = 6371.0088;
+
+	// Latitude bands of the cosine table, in millionths of a degree.
+	private static final int BAND = 100000;
+	// COS[i] = cos(i * BAND - 90 degrees), for latitudes -90 .. 90
+	private static final double[] COS = new double[2 * GeoPoint.MAX_LATITUDE / BAND + 2];
+
+	static {
+		for (int i = 0; i < COS.length; i++)
+			COS[i] = Math.cos(radians((long) i * BAND + GeoPoint.MIN_LATITUDE));
+	}
+
+
+	private static double radians(long millionths) {
+		return Math.toRadians(millionths / 1000000.0);
+	}
+
+
+	// The cosine of the latitude (lat1 + lat2) / 2, given lat1 + lat2, by
+	// linear interpolation in COS.
+	private static double cosine(int latSum) {
+		double band = (latSum / 2.0 - GeoPoint.MIN_LATITUDE) / BAND;
+		int i = (int) band;
+		double f = band - i;
+		return COS[i] + f * (COS[i + 1] - COS[i]);
+	}
+
+
+	// lon2 - lon1 by the short way around, in (-180, 180] degrees.
+	private static long deltaLongitude(int lon1, int lon2) {
+		long d = (long) lon2 - lon1;
+		if (d > GeoPoint.MAX_LONGITUDE)
+			d -= 2L * GeoPoint.MAX_LONGITUDE;
+		else if (d <= GeoPoint.MIN_LONGITUDE)
+			d += 2L * GeoPoint.MAX_LONGITUDE;
+		return d;
+	}
+
+
+	// The compass heading in [0, 360) of a mathematical angle in radians.
+	private static double compass(double radians) {
+		double degrees = Math.toDegrees(radians);
+		if (degrees < 0)
+			degrees += 360;
+		return degrees < 360 ? degrees : 0;
+	}
+}
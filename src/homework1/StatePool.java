@@ -0,0 +1,103 @@
+package homework1;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A StatePool lends out reusable scratch state, such as the arrays of a
+ * graph search, to the queries that run on a shared structure. A query
+ * borrows a state, uses it alone, and releases it in a finally block; the
+ * next query takes it again instead of allocating its own.
+ * <p>
+ * Unlike a ThreadLocal, a pool keeps no more states than there are queries
+ * running at once, so it suits servers that start a new (possibly virtual)
+ * thread per request, whose per-thread states would be used once and
+ * dropped. At most capacity idle states are kept; states released beyond
+ * that are left to the garbage collector. StatePools may be used by any
+ * number of threads at once.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   idle     : set of T   // the states that may be lent out again
+ *   capacity : int        // the most states idle may hold
+ * </pre>
+ **/
+final class StatePool<T> {
+
+	private final Supplier<T> factory;
+	private final int capacity;
+	private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<T>();
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	// Abstract Function:
+	// idle = the elements of this.idle, capacity = this.capacity.
+
+	// Representation invariant:
+	// capacity > 0 && 0 <= idle.size() <= capacity, except while a
+	// borrow() or release() is in progress.
+
+
+	/**
+	 * Constructs an empty pool with room for one idle state per processor.
+	 * @requires factory != null && factory.get() returns a new state
+	 * @effects constructs a StatePool with idle = {} and capacity =
+	 *          Runtime.availableProcessors().
+	 **/
+	StatePool(Supplier<T> factory) {
+		this(factory, Runtime.getRuntime().availableProcessors());
+	}
+
+
+	/**
+	 * Constructs an empty pool.
+	 * @requires factory != null && factory.get() returns a new state
+	 * @effects constructs a StatePool with idle = {} and the given capacity.
+	 * @throws IllegalArgumentException if capacity <= 0
+	 **/
+	StatePool(Supplier<T> factory, int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		this.factory = factory;
+		this.capacity = capacity;
+	}
+
+
+	/**
+	 * Lends out a state.
+	 * @modifies this
+	 * @effects removes the returned state from idle, if it was in idle.
+	 * @return an element of idle, or a new state if idle is empty.
+	 **/
+	T borrow() {
+		T state = idle.poll();
+		if (state == null)
+			return factory.get();
+		idleCount.decrementAndGet();
+		return state;
+	}
+
+
+	/**
+	 * Takes back a borrowed state.
+	 * @requires state was returned by borrow() and is no longer used
+	 * @modifies this
+	 * @effects adds state to idle if idle holds fewer than capacity states.
+	 **/
+	void release(T state) {
+		if (idleCount.incrementAndGet() > capacity) {
+			idleCount.decrementAndGet();
+			return;
+		}
+		idle.offer(state);
+	}
+
+
+	/**
+	 * Returns the number of idle states.
+	 * @return the size of idle.
+	 **/
+	int idleCount() {
+		return idleCount.get();
+	}
+}
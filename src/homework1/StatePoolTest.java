@@ -0,0 +1,102 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StatePoolTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	public void testReuse() {
+		show("borrow() and release()");
+		AtomicInteger created = new AtomicInteger();
+		StatePool<int[]> pool = new StatePool<int[]>(() -> {
+			created.incrementAndGet();
+			return new int[1];
+		}, 2);
+		int[] a = pool.borrow();
+		int[] b = pool.borrow();
+		show("Borrowing from an empty pool creates a state", a != b && created.get() == 2);
+		pool.release(a);
+		show("A released state is lent out again", pool.borrow() == a && created.get() == 2);
+		int[] c = pool.borrow();
+		pool.release(a);
+		pool.release(b);
+		pool.release(c);
+		show("No more than capacity states are kept idle", pool.idleCount() == 2);
+		boolean rejected;
+		try {
+			new StatePool<int[]>(() -> new int[1], 0);
+			rejected = false;
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("A capacity of 0 is rejected", rejected);
+	}
+
+
+	public void testThreadPerTask() throws InterruptedException {
+		show("A thread per task");
+		// the way DirectionsServer runs its requests: no thread is reused
+		RoadGraph graph = new RoadGraph(Arrays.asList(new RouteGenerator(6).segments(2000, 20)), true);
+		AtomicInteger created = new AtomicInteger();
+		StatePool<RoadGraph.Search> pool = new StatePool<RoadGraph.Search>(() -> {
+			created.incrementAndGet();
+			return graph.search();
+		}, 4);
+		int tasks = 400;
+		AtomicInteger reached = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < tasks; i++) {
+			final int source = i % graph.nodeCount(), target = (i * 7 + 1) % graph.nodeCount();
+			// a new thread for each task, as newVirtualThreadPerTaskExecutor does
+			executor.execute(() -> {
+				Thread t = new Thread(() -> {
+					RoadGraph.Search search = pool.borrow();
+					try {
+						if (search.run(source, target, true))
+							reached.incrementAndGet();
+					} finally {
+						pool.release(search);
+					}
+				});
+				t.start();
+				try {
+					t.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		show("Every task ran its search (" + reached.get() + " reached)", executor.isTerminated());
+		show("States are made per concurrent task, not per thread ("
+				+ created.get() + " for " + tasks + " threads)", created.get() <= 4);
+	}
+
+
+	public static void main(String[] args) throws InterruptedException {
+		StatePoolTest test = new StatePoolTest();
+		test.testReuse();
+		test.testThreadPerTask();
+		System.out.println();
+		System.out.println("Test passed correctly");
+	}
+}
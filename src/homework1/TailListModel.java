@@ -0,0 +1,136 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.AbstractListModel;
+
+/**
+ * A TailListModel is a ListModel for lists that change only at their end,
+ * such as the segments of a route being built and the lines of its
+ * directions: an update replaces the elements from some index on, and
+ * leaves the elements before it as they were.
+ * <p>
+ * An update notifies the listeners of the changed, added and removed
+ * intervals only, so a JList showing the model repaints the rows that
+ * changed and no others. With a fixed cell size (see
+ * JList.setFixedCellHeight() and JList.setFixedCellWidth()) a JList also
+ * lays out and renders only the visible rows, so the cost of showing an
+ * update does not depend on the length of the list.
+ * <p>
+ * Like all Swing models, a TailListModel must be used on the event
+ * dispatch thread only.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   elements : sequence   // the elements of the list
+ * </pre>
+ **/
+public class TailListModel<E> extends AbstractListModel<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	private Object[] elements = new Object[16];
+	private int size;
+
+	// Abstract Function:
+	// elements = this.elements[0..size-1].
+
+	// Representation invariant:
+	// 0 <= size <= elements.length && elements[size..] are all null.
+
+	private void checkRep() {
+		assert 0 <= size && size <= elements.length : "0 <= size <= elements.length";
+		assert size == elements.length || elements[size] == null : "no elements after size";
+	}
+
+
+	/**
+	 * Constructs a new, empty TailListModel.
+	 * @effects constructs a TailListModel with elements = [].
+	 **/
+	public TailListModel() {
+		checkRep();
+	}
+
+
+	/**
+	 * Returns the length of the list.
+	 * @return the length of elements.
+	 **/
+	public int getSize() {
+		return size;
+	}
+
+
+	/**
+	 * Returns an element of the list.
+	 * @requires 0 <= index < getSize()
+	 * @return elements[index].
+	 **/
+	@SuppressWarnings("unchecked")
+	public E getElementAt(int index) {
+		if (index >= size)
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		return (E) elements[index];
+	}
+
+
+	/**
+	 * Appends an element to the list.
+	 * @modifies this
+	 * @effects elements = elements + [element], and notifies the listeners
+	 *          of the added interval.
+	 **/
+	public void add(E element) {
+		grow(size + 1);
+		elements[size++] = element;
+		fireIntervalAdded(this, size - 1, size - 1);
+		checkRep();
+	}
+
+
+	/**
+	 * Replaces the end of the list.
+	 * @requires 0 <= from <= getSize() && tail != null
+	 * @modifies this
+	 * @effects elements = elements[0..from-1] + tail, and notifies the
+	 *          listeners of the changed, added and removed intervals.
+	 **/
+	public void setTail(int from, List<? extends E> tail) {
+		if (from < 0 || from > size)
+			throw new IndexOutOfBoundsException("from " + from + ", size " + size);
+		int oldSize = size;
+		int newSize = from + tail.size();
+		grow(newSize);
+		for (int i = 0; i < tail.size(); i++)
+			elements[from + i] = tail.get(i);
+		if (newSize < oldSize)
+			Arrays.fill(elements, newSize, oldSize, null);
+		size = newSize;
+		int changed = Math.min(oldSize, newSize);
+		if (from < changed)
+			fireContentsChanged(this, from, changed - 1);
+		if (newSize > oldSize)
+			fireIntervalAdded(this, oldSize, newSize - 1);
+		else if (newSize < oldSize)
+			fireIntervalRemoved(this, newSize, oldSize - 1);
+		checkRep();
+	}
+
+
+	/**
+	 * Removes all the elements.
+	 * @modifies this
+	 * @effects elements = [], and notifies the listeners of the removed
+	 *          interval.
+	 **/
+	public void clear() {
+		setTail(0, List.<E>of());
+	}
+
+
+	private void grow(int capacity) {
+		if (capacity > elements.length)
+			elements = Arrays.copyOf(elements, Math.max(capacity, 2 * elements.length));
+	}
+}
@@ -0,0 +1,80 @@
+package homework1;
+
+/**
+ * A Turn is the kind of turn between two headings, as RouteFormatter
+ * describes it in directions. The words for each Turn come from a
+ * DirectionsLocale.
+ * <p>
+ * Let a be the angle from the original heading to the new one, newHeading
+ * - origHeading, in (-360, 360). The Turn for a is:
+ * <pre>
+ * CONTINUE       if -10 < a < 10, 350 <= a or a < -350
+ * SLIGHT_RIGHT   if 10 <= a < 60 or -350 <= a < -300
+ * RIGHT          if 60 <= a < 120 or -300 <= a < -240
+ * SHARP_RIGHT    if 120 <= a < 179 or -240 <= a < -181
+ * U_TURN         if 179 <= a < 181 or -181 < a <= -179
+ * SLIGHT_LEFT    if -60 <= a < -10 or 300 <= a < 350
+ * LEFT           if -120 <= a < -60 or 240 <= a < 300
+ * SHARP_LEFT     if -179 <= a < -120 or 181 <= a < 240
+ * NONE           otherwise: a = -10, a = -181
+ * </pre>
+ * where the first match wins. All the bounds are whole degrees, so of()
+ * finds the Turn with two lookup tables instead of comparisons: one for
+ * the open intervals (k, k + 1) between whole degrees, and one for the
+ * whole degrees themselves.
+ */
+public enum Turn {
+
+	CONTINUE, SLIGHT_RIGHT, RIGHT, SHARP_RIGHT, U_TURN, SLIGHT_LEFT, LEFT, SHARP_LEFT, NONE;
+
+
+	private static final Turn[] VALUES = values();
+	// BETWEEN[k + 360] = the Turn for k < a < k + 1;
+	// AT[k + 360] = the Turn for a = k, for -360 <= k < 360
+	private static final byte[] BETWEEN = new byte[720];
+	private static final byte[] AT = new byte[720];
+
+	static {
+		for (int k = -360; k < 360; k++) {
+			BETWEEN[k + 360] = (byte) classify(k + 0.5).ordinal();
+			AT[k + 360] = (byte) classify(k).ordinal();
+		}
+	}
+
+
+	/**
+	 * Returns the turn between two headings.
+	 * @requires 0 <= origHeading < 360 && 0 <= newHeading < 360
+	 * @return the Turn for the angle newHeading - origHeading.
+	 */
+	public static Turn of(double origHeading, double newHeading) {
+		double a = newHeading - origHeading;
+		double k = Math.floor(a);
+		int i = (int) k + 360;
+		return VALUES[a == k ? AT[i] : BETWEEN[i]];
+	}
+
+
+	// The comparisons of the table above, used to fill the lookup tables.
+	private static Turn classify(double a) {
+		if ((-10 < a && a < 10) || (350 <= a && a < 360) || (-360 <= a && a < -350))
+			return CONTINUE;
+		if ((a >= 10 && a < 60) || (-350 <= a && a < -300))
+			return SLIGHT_RIGHT;
+		if ((a >= 60 && a < 120) || (-300 <= a && a < -240))
+			return RIGHT;
+		if ((a >= 120 && a < 179) || (-240 <= a && a < -181))
+			return SHARP_RIGHT;
+		if (a >= 179 && a < 181)
+			return U_TURN;
+		if ((a >= -60 && a < -10) || (300 <= a && a < 350))
+			return SLIGHT_LEFT;
+		if ((a >= -120 && a < -60) || (240 <= a && a < 300))
+			return LEFT;
+		if ((a >= -179 && a < -120) || (181 <= a && a < 240))
+			return SHARP_LEFT;
+		if (a <= -179 && a > -181)
+			return U_TURN;
+		return NONE;
+	}
+}
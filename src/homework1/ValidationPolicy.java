@@ -0,0 +1,177 @@
+package homework1;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A ValidationPolicy determines how often the expensive part of a class's
+ * representation invariant is checked. The cheap, constant-time parts of
+ * checkRep() are always checked, and every object verifies what it adds to
+ * its representation once, when it is constructed. The policy only
+ * controls the walks over whole sequences that checkRep() performs in
+ * Route and GeoFeature.
+ * <p>
+ * Invariants are only checked when assertions are enabled (java -ea). With
+ * assertions disabled no walk is ever performed, whatever the policy.
+ * <p>
+ * The policy can be selected for the whole process with the system
+ * property <tt>homework1.validation</tt>, and for a single class with
+ * <tt>homework1.validation.&lt;SimpleClassName&gt;</tt>, e.g.
+ * <pre>
+ *   java -ea -Dhomework1.validation=construction
+ *            -Dhomework1.validation.GeoFeature=sampled ...
+ * </pre>
+ * A per-class setting overrides the process-wide one. When neither is
+ * given, FULL is used. The sampling rate of SAMPLED is one walk out of
+ * every <tt>homework1.validation.sampleRate</tt> calls (64 by default).
+ * The policies can also be changed at runtime by setDefault() and
+ * setPolicy().
+ */
+public enum ValidationPolicy {
+
+	/** The whole representation is checked on every call to checkRep(). */
+	FULL,
+
+	/** The whole representation is checked on a random sample of calls. */
+	SAMPLED,
+
+	/** The whole representation is never walked after construction. */
+	CONSTRUCTION_ONLY;
+
+
+	/** System property selecting the process-wide policy. */
+	public static final String PROPERTY = "homework1.validation";
+
+	/** System property selecting the sampling rate of SAMPLED. */
+	public static final String SAMPLE_RATE_PROPERTY = PROPERTY + ".sampleRate";
+
+	private static volatile ValidationPolicy defaultPolicy =
+			parse(System.getProperty(PROPERTY), FULL);
+
+	private static final int sampleRate =
+			Math.max(1, Integer.getInteger(SAMPLE_RATE_PROPERTY, 64));
+
+	private static final ConcurrentMap<Class<?>, Checker> checkers =
+			new ConcurrentHashMap<Class<?>, Checker>();
+
+
+	/**
+	 * Parses a policy name. Matching ignores case, accepts '-' for '_' and
+	 * accepts "construction" for CONSTRUCTION_ONLY.
+	 * @return the policy named by value, or dflt if value == null.
+	 * @throws IllegalArgumentException if value names no policy.
+	 */
+	static ValidationPolicy parse(String value, ValidationPolicy dflt) {
+		if (value == null)
+			return dflt;
+		String name = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+		if (name.equals("CONSTRUCTION"))
+			return CONSTRUCTION_ONLY;
+		try {
+			return valueOf(name);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("unknown validation policy: " + value);
+		}
+	}
+
+
+	/**
+	 * Returns the process-wide policy.
+	 * @return the policy used by classes that have no policy of their own.
+	 */
+	public static ValidationPolicy getDefault() {
+		return defaultPolicy;
+	}
+
+
+	/**
+	 * Sets the process-wide policy.
+	 * @requires policy != null
+	 * @effects classes that have no policy of their own use policy.
+	 */
+	public static void setDefault(ValidationPolicy policy) {
+		if (policy == null)
+			throw new NullPointerException("policy");
+		defaultPolicy = policy;
+	}
+
+
+	/**
+	 * Returns the policy in effect for a class.
+	 * @requires c != null
+	 * @return the policy that checkRep() of c uses.
+	 */
+	public static ValidationPolicy getPolicy(Class<?> c) {
+		return checkerFor(c).policy();
+	}
+
+
+	/**
+	 * Sets the policy of a single class.
+	 * @requires c != null
+	 * @effects checkRep() of c uses policy, or the process-wide policy if
+	 *          policy == null.
+	 */
+	public static void setPolicy(Class<?> c, ValidationPolicy policy) {
+		checkerFor(c).override = policy;
+	}
+
+
+	/**
+	 * Returns the Checker of a class. A class should look it up once and
+	 * keep it in a static field.
+	 * @requires c != null
+	 * @return the Checker of c.
+	 */
+	static Checker checkerFor(Class<?> c) {
+		Checker checker = checkers.get(c);
+		if (checker == null) {
+			checkers.putIfAbsent(c, new Checker(c));
+			checker = checkers.get(c);
+		}
+		return checker;
+	}
+
+
+	/**
+	 * A Checker tells the checkRep() method of one class whether to walk
+	 * its whole representation on a given call.
+	 */
+	static final class Checker {
+
+		private final boolean assertionsEnabled;
+		private volatile ValidationPolicy override;
+
+		private Checker(Class<?> c) {
+			assertionsEnabled = c.desiredAssertionStatus();
+			override = parse(System.getProperty(PROPERTY + "." + c.getSimpleName()), null);
+		}
+
+		ValidationPolicy policy() {
+			ValidationPolicy p = override;
+			return p != null ? p : defaultPolicy;
+		}
+
+		/**
+		 * Returns whether checkRep() should walk the whole representation
+		 * on this call.
+		 * @return true iff assertions are enabled for the class, and the
+		 *         policy is FULL, or the policy is SAMPLED and this call is
+		 *         in the sample.
+		 */
+		boolean fullCheck() {
+			if (!assertionsEnabled)
+				return false;
+			switch (policy()) {
+			case FULL:
+				return true;
+			case SAMPLED:
+				return ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+			default:
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package homework1;
+
+public class ValidationPolicyTest {
+
+	private static final int SAMPLE_RATE = 4;
+
+	// whether checkRep() of the checked classes runs at all
+	private final boolean assertions = GeoFeature.class.desiredAssertionStatus();
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	public void testSelection() {
+		show("Selecting policies");
+		show("homework1.validation selects the process-wide policy",
+				ValidationPolicy.getDefault() == ValidationPolicy.CONSTRUCTION_ONLY
+				&& ValidationPolicy.getPolicy(Route.class) == ValidationPolicy.CONSTRUCTION_ONLY);
+		show("homework1.validation.<Class> overrides it for one class",
+				ValidationPolicy.getPolicy(GeoFeature.class) == ValidationPolicy.SAMPLED);
+		ValidationPolicy.setDefault(ValidationPolicy.FULL);
+		show("setDefault() changes the classes without a policy of their own",
+				ValidationPolicy.getPolicy(Route.class) == ValidationPolicy.FULL
+				&& ValidationPolicy.getPolicy(GeoFeature.class) == ValidationPolicy.SAMPLED);
+		ValidationPolicy.setPolicy(GeoFeature.class, null);
+		show("setPolicy(c, null) makes c follow the process-wide policy",
+				ValidationPolicy.getPolicy(GeoFeature.class) == ValidationPolicy.FULL);
+		show("Names ignore case, accept '-' and \"construction\"",
+				ValidationPolicy.parse("Sampled", null) == ValidationPolicy.SAMPLED
+				&& ValidationPolicy.parse(" construction-only ", null) == ValidationPolicy.CONSTRUCTION_ONLY
+				&& ValidationPolicy.parse("construction", null) == ValidationPolicy.CONSTRUCTION_ONLY
+				&& ValidationPolicy.parse(null, ValidationPolicy.FULL) == ValidationPolicy.FULL);
+		boolean unknown;
+		try {
+			ValidationPolicy.parse("sometimes", null);
+			unknown = false;
+		} catch (IllegalArgumentException e) {
+			unknown = true;
+		}
+		show("Unknown names are rejected", unknown);
+	}
+
+
+	// Counts the calls out of n on which a checker of c asks for a walk.
+	private static int walks(Class<?> c, int n) {
+		ValidationPolicy.Checker checker = ValidationPolicy.checkerFor(c);
+		int walks = 0;
+		for (int i = 0; i < n; i++)
+			if (checker.fullCheck())
+				walks++;
+		return walks;
+	}
+
+
+	public void testSampling() {
+		show("Sampling");
+		int n = 40000;
+		ValidationPolicy.setPolicy(GeoFeature.class, ValidationPolicy.FULL);
+		int full = walks(GeoFeature.class, n);
+		ValidationPolicy.setPolicy(GeoFeature.class, ValidationPolicy.CONSTRUCTION_ONLY);
+		int none = walks(GeoFeature.class, n);
+		ValidationPolicy.setPolicy(GeoFeature.class, ValidationPolicy.SAMPLED);
+		int sampled = walks(GeoFeature.class, n);
+		ValidationPolicy.setPolicy(GeoFeature.class, null);
+		if (assertions) {
+			show("FULL walks on every call", full == n);
+			show("CONSTRUCTION_ONLY never walks", none == 0);
+			// n / SAMPLE_RATE walks, give or take six standard deviations
+			double expected = (double) n / SAMPLE_RATE;
+			double sigma = Math.sqrt(expected * (1 - 1.0 / SAMPLE_RATE));
+			show("SAMPLED walks on one call in homework1.validation.sampleRate (" + sampled + " of " + n + ")",
+					Math.abs(sampled - expected) < 6 * sigma);
+		} else {
+			show("Without -ea no policy ever walks", full == 0 && none == 0 && sampled == 0);
+		}
+	}
+
+
+	// Whether appending a segment that does not continue gf is caught.
+	private static boolean corruptCaught(GeoFeature gf, GeoSegment gs) {
+		try {
+			new GeoFeature(gs, gf);
+			return false;
+		} catch (AssertionError e) {
+			return true;
+		}
+	}
+
+
+	public void testConstruction() {
+		show("Checks at construction");
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		GeoFeature trumpeldor = new GeoFeature(segments[1]);
+		for (ValidationPolicy policy : ValidationPolicy.values()) {
+			ValidationPolicy.setPolicy(GeoFeature.class, policy);
+			// segments[3] is on Hagalil, and segments[0] starts before trumpeldor
+			boolean name = corruptCaught(trumpeldor, segments[3]);
+			boolean orientation = corruptCaught(trumpeldor,
+					new GeoSegment(trumpeldor.getName(), segments[0].getP1(), segments[0].getP2()));
+			show(policy + ": a segment of another name or that does not continue the feature "
+					+ (assertions ? "is caught" : "is not checked without -ea"),
+					name == assertions && orientation == assertions);
+		}
+		ValidationPolicy.setPolicy(GeoFeature.class, null);
+	}
+
+
+	public static void main(String[] args) {
+		// before ValidationPolicy, Route and GeoFeature read them
+		System.setProperty(ValidationPolicy.PROPERTY, "construction");
+		System.setProperty(ValidationPolicy.PROPERTY + ".GeoFeature", "sampled");
+		System.setProperty(ValidationPolicy.SAMPLE_RATE_PROPERTY, Integer.toString(SAMPLE_RATE));
+		ValidationPolicyTest test = new ValidationPolicyTest();
+		test.testSelection();
+		test.testSampling();
+		test.testConstruction();
+		System.out.println();
+		System.out.println("Test passed correctly");
+	}
+}
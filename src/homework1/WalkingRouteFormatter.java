@@ -1,6 +1,6 @@
 package homework1;
 
-import java.text.DecimalFormat;
+import java.io.IOException;
 
 /**
  * A WalkingDirections class knows how to create a textual description of
@@ -26,6 +26,26 @@ import java.text.DecimalFormat;
  **/
 public class WalkingRouteFormatter extends RouteFormatter {
 
+  	/**
+     * Constructs a WalkingRouteFormatter that gives directions in English.
+     * @effects constructs a new WalkingRouteFormatter with
+     *          DirectionsLocale.ENGLISH.
+     **/
+  	public WalkingRouteFormatter() {
+  	}
+
+
+  	/**
+     * Constructs a WalkingRouteFormatter that gives directions in locale.
+     * @requires locale != null
+     * @effects constructs a new WalkingRouteFormatter that writes each line with
+     *          the walking template of locale.
+     **/
+  	public WalkingRouteFormatter(DirectionsLocale locale) {
+  		super(locale);
+  	}
+
+
   	/**
      * Computes a single line of a multi-line directions String that
      * represents the instructions for walking along a single geographic
@@ -60,7 +80,25 @@ public class WalkingRouteFormatter extends RouteFormatter {
 		// and at:
 		// http://docs.oracle.com/javase/8/docs/api/java/text/DecimalFormat.html
 					 
-  		return this.getTurnString(origHeading, geoFeature.getStartHeading())+" onto "+
-  		geoFeature.getName()+" and walk for " + Math.round(geoFeature.getLength()*20)+" minutes.\n";
+  		return appendedLine(geoFeature, origHeading);
   		}
+
+
+  	/**
+     * Appends the line computeLine() returns to out, one part at a time.
+     * @requires geoFeature != null && out != null &&
+     *           0 <= origHeading < 360
+     * @param geoFeature the geographical feature to traverse.
+     * @param origHeading the initial heading.
+     * @param out the destination of the line.
+     * @modifies out
+     * @effects appends computeLine(geoFeature, origHeading) to out.
+     * @throws IOException if out throws IOException.
+     **/
+  	protected void appendLine(GeoFeature geoFeature, double origHeading, Appendable out)
+  			throws IOException {
+  		getLocale().getWalkingTemplate().render(out,
+  				this.getTurnString(origHeading, geoFeature.getStartHeading()),
+  				geoFeature.getName(), geoFeature.getLength());
+  	}
 }
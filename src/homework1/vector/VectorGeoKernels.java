@@ -0,0 +1,96 @@
+package homework1.vector;
+
+import homework1.GeoKernels;
+import homework1.GeoPoint;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API backend of GeoKernels. Each loop step loads as many int
+ * coordinates as the preferred double vector has lanes, converts their
+ * differences to doubles and evaluates GeoPoint's formulas lane-wise, in
+ * the same order of operations so that the results agree with the scalar
+ * ones. Only whole vectors are computed; GeoKernels finishes the tail.
+ * <p>
+ * Compile and run with <tt>--add-modules jdk.incubator.vector</tt>.
+ */
+public final class VectorGeoKernels implements GeoKernels.Backend {
+
+	private static final VectorSpecies<Double> D = DoubleVector.SPECIES_PREFERRED;
+	// as many int lanes as D has double lanes
+	private static final VectorSpecies<Integer> I =
+			VectorSpecies.of(int.class, VectorShape.forBitSize(D.vectorBitSize() / 2));
+
+	private static final double LAT = GeoPoint.KM_PER_DEGREE_LATITUDE;
+	private static final double LON = GeoPoint.KM_PER_DEGREE_LONGITUDE;
+
+
+	private static DoubleVector toDouble(IntVector v) {
+		return (DoubleVector) v.convertShape(VectorOperators.I2D, D, 0);
+	}
+
+	private static DoubleVector distance(IntVector dLat, IntVector dLon) {
+		DoubleVector x = toDouble(dLon).mul(LON).div(1000000);
+		DoubleVector y = toDouble(dLat).mul(LAT).div(1000000);
+		return x.mul(x).add(y.mul(y)).lanewise(VectorOperators.SQRT);
+	}
+
+	private static DoubleVector heading(IntVector dLat, IntVector dLon) {
+		DoubleVector north = toDouble(dLat).mul(LAT);
+		DoubleVector east = toDouble(dLon).mul(LON);
+		DoubleVector h = east.lanewise(VectorOperators.ATAN2, north).mul(180).div(Math.PI).add(360);
+		// (h + 360) % 360 for h + 360 in [180, 540]
+		return h.sub(360, h.compare(VectorOperators.GE, 360));
+	}
+
+
+	public int distances(int[] lat1, int[] lon1, int[] lat2, int[] lon2, double[] out, int n) {
+		int upper = D.loopBound(n);
+		for (int i = 0; i < upper; i += D.length()) {
+			IntVector dLat = IntVector.fromArray(I, lat2, i).sub(IntVector.fromArray(I, lat1, i));
+			IntVector dLon = IntVector.fromArray(I, lon2, i).sub(IntVector.fromArray(I, lon1, i));
+			distance(dLat, dLon).intoArray(out, i);
+		}
+		return upper;
+	}
+
+
+	public int distances(int lat, int lon, int[] lats, int[] lons, double[] out, int n) {
+		int upper = D.loopBound(n);
+		IntVector fromLat = IntVector.broadcast(I, lat);
+		IntVector fromLon = IntVector.broadcast(I, lon);
+		for (int i = 0; i < upper; i += D.length()) {
+			IntVector dLat = IntVector.fromArray(I, lats, i).sub(fromLat);
+			IntVector dLon = IntVector.fromArray(I, lons, i).sub(fromLon);
+			distance(dLat, dLon).intoArray(out, i);
+		}
+		return upper;
+	}
+
+
+	public int headings(int[] lat1, int[] lon1, int[] lat2, int[] lon2, double[] out, int n) {
+		int upper = D.loopBound(n);
+		for (int i = 0; i < upper; i += D.length()) {
+			IntVector dLat = IntVector.fromArray(I, lat2, i).sub(IntVector.fromArray(I, lat1, i));
+			IntVector dLon = IntVector.fromArray(I, lon2, i).sub(IntVector.fromArray(I, lon1, i));
+			heading(dLat, dLon).intoArray(out, i);
+		}
+		return upper;
+	}
+
+
+	public int headings(int lat, int lon, int[] lats, int[] lons, double[] out, int n) {
+		int upper = D.loopBound(n);
+		IntVector fromLat = IntVector.broadcast(I, lat);
+		IntVector fromLon = IntVector.broadcast(I, lon);
+		for (int i = 0; i < upper; i += D.length()) {
+			IntVector dLat = IntVector.fromArray(I, lats, i).sub(fromLat);
+			IntVector dLon = IntVector.fromArray(I, lons, i).sub(fromLon);
+			heading(dLat, dLon).intoArray(out, i);
+		}
+		return upper;
+	}
+}